@@ -0,0 +1,56 @@
+package com.example.bookstore.config;
+
+import com.example.bookstore.util.AccessLogWriter;
+import com.example.bookstore.util.QueryCountInspector;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter: times each request and hands one record to the {@link AccessLogWriter}. The route is the
+ * matched handler pattern (e.g. {@code /api/products/{id}}), not the raw path, so it stays a small set of values.
+ * The user id is left on the request by {@code JwtRequestFilter}, since the security context is already cleared
+ * when the chain returns here.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+    public static final String USER_ID_ATTRIBUTE = AccessLogFilter.class.getName() + ".userId";
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final AccessLogWriter accessLogWriter;
+
+    @Autowired
+    public AccessLogFilter(AccessLogWriter accessLogWriter) {
+        this.accessLogWriter = accessLogWriter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        QueryCountInspector.reset();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            accessLogWriter.record(request.getMethod(),
+                    route != null ? route.toString() : UNMATCHED_ROUTE,
+                    failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                    System.nanoTime() - start,
+                    (Integer) request.getAttribute(USER_ID_ATTRIBUTE),
+                    QueryCountInspector.count());
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.bookstore.config;
 
+import com.example.bookstore.util.QueryCountInspector;
 import org.hibernate.annotations.ConcreteProxy;
+import org.hibernate.cfg.AvailableSettings;
 import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,4 +14,10 @@ public class AppConfig {
     public ModelMapper modelMapper() {
         return new ModelMapper();
     }
+
+    // Lets the access log report how many statements each request ran
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
 }
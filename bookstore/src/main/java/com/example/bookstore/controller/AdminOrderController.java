@@ -0,0 +1,136 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.dto.request.OrderSearchRequestDTO;
+import com.example.bookstore.dto.request.OrderStatusTransitionRequestDTO;
+import com.example.bookstore.dto.response.OrderSearchResponseDTO;
+import com.example.bookstore.dto.response.OrderStatusTransitionResponseDTO;
+import com.example.bookstore.dto.response.OrderSummaryResponseDTO;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.service.OrderExportService;
+import com.example.bookstore.service.OrderSearchService;
+import com.example.bookstore.service.OrderStatusService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@Tag(name = "Admin Order APIs", description = "APIs for searching, managing and exporting orders (Admin only)")
+public class AdminOrderController {
+
+    private static final long MAX_EXPORT_DAYS = 366;
+
+    private final OrderStatusService orderStatusService;
+    private final OrderExportService orderExportService;
+    private final OrderSearchService orderSearchService;
+
+    @Autowired
+    public AdminOrderController(OrderStatusService orderStatusService, OrderExportService orderExportService,
+                                OrderSearchService orderSearchService) {
+        this.orderStatusService = orderStatusService;
+        this.orderExportService = orderExportService;
+        this.orderSearchService = orderSearchService;
+    }
+
+    @Operation(summary = "Search orders",
+            description = "Filter orders by customer email, status, date range and amount range, newest first. " +
+                    "Email or status is required; follow nextCursor for further pages (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of orders"),
+            @ApiResponse(responseCode = "400", description = "Missing email/status filter, invalid range or malformed cursor"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @GetMapping
+    public ResponseEntity<OrderSearchResponseDTO> searchOrders(@Valid OrderSearchRequestDTO request) {
+        return ResponseEntity.ok(orderSearchService.search(request));
+    }
+
+    @Operation(summary = "Change an order's status", description = "Move one order to a new status (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status changed"),
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "409", description = "The order cannot move to the requested status")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<OrderSummaryResponseDTO> changeStatus(
+            @Parameter(description = "Order ID", required = true) @PathVariable Integer id,
+            @Parameter(description = "Target status", required = true) @RequestParam OrderStatus status) {
+        return ResponseEntity.ok(orderStatusService.changeStatus(id, status));
+    }
+
+    @Operation(summary = "Change the status of many orders",
+            description = "Move a batch of orders to a new status; orders that cannot move are listed in the report (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch applied; see failures for orders left unchanged"),
+            @ApiResponse(responseCode = "400", description = "Invalid request body or validation failed"),
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "409", description = "No order can move from the expected status to the target status")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @PostMapping("/status-transitions")
+    public ResponseEntity<OrderStatusTransitionResponseDTO> changeStatuses(
+            @Valid @RequestBody OrderStatusTransitionRequestDTO request) {
+        return ResponseEntity.ok(orderStatusService.changeStatuses(request));
+    }
+
+    @Operation(summary = "Export orders as CSV",
+            description = "Streams one row per order item for orders placed in the date range, optionally gzip-compressed (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CSV stream"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "First day, inclusive (yyyy-MM-dd)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Send the file gzip-compressed (.csv.gz)")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_EXPORT_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must be 1 to " + MAX_EXPORT_DAYS + " days");
+        }
+        String fileName = "orders-" + from + "-" + to + (gzip ? ".csv.gz" : ".csv");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // Sync flush, so every chunk the exporter flushes reaches the client
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+                orderExportService.exportCsv(from, to, compressed);
+                compressed.finish();
+            } else {
+                orderExportService.exportCsv(from, to, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                        : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+}
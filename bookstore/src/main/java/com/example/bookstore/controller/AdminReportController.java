@@ -0,0 +1,105 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.dto.response.SalesRollupResponseDTO;
+import com.example.bookstore.entity.enums.SalesDimension;
+import com.example.bookstore.service.SalesReportService;
+import com.example.bookstore.service.SalesRollupBackfillJob;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/reports")
+@Tag(name = "Admin Report APIs", description = "Sales reports for the admin dashboard (Admin only)")
+public class AdminReportController {
+
+    private static final long MAX_RANGE_DAYS = 366;
+
+    private final SalesReportService salesReportService;
+    private final SalesRollupBackfillJob salesRollupBackfillJob;
+
+    @Autowired
+    public AdminReportController(SalesReportService salesReportService, SalesRollupBackfillJob salesRollupBackfillJob) {
+        this.salesReportService = salesReportService;
+        this.salesRollupBackfillJob = salesRollupBackfillJob;
+    }
+
+    @Operation(summary = "Sales by day", description = "Revenue, order count and units per day, optionally split by category or product (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @GetMapping("/sales/daily")
+    public ResponseEntity<List<SalesRollupResponseDTO>> getDailySales(
+            @Parameter(description = "First day, inclusive (yyyy-MM-dd)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "DAY, CATEGORY or PRODUCT")
+            @RequestParam(defaultValue = "DAY") SalesDimension dimension) {
+        validateRange(from, to);
+        return ResponseEntity.ok(salesReportService.getByDay(dimension, from, to));
+    }
+
+    @Operation(summary = "Top categories or products", description = "Categories or products ranked by revenue over a date range (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or dimension"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @GetMapping("/sales/top")
+    public ResponseEntity<List<SalesRollupResponseDTO>> getTopSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "CATEGORY or PRODUCT")
+            @RequestParam(defaultValue = "PRODUCT") SalesDimension dimension,
+            @Parameter(description = "Maximum rows (1-100)")
+            @RequestParam(defaultValue = "10") int limit) {
+        validateRange(from, to);
+        if (dimension == SalesDimension.DAY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use /sales/daily for daily totals");
+        }
+        return ResponseEntity.ok(salesReportService.getTop(dimension, from, to, limit));
+    }
+
+    @Operation(summary = "Backfill sales rollups", description = "Counts existing orders in the range that the rollups do not reflect yet (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Backfill finished"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @PostMapping("/sales/backfill")
+    public ResponseEntity<Map<String, Long>> backfillSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must not be before 'from'");
+        }
+        return ResponseEntity.ok(Map.of("rollupRowsWritten", salesRollupBackfillJob.backfill(from, to)));
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must be 1 to " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
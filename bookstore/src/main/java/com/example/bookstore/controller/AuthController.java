@@ -8,25 +8,41 @@ import com.example.bookstore.dto.RefreshTokenResponseDTO;
 import com.example.bookstore.dto.RegisterRequestDTO;
 import com.example.bookstore.dto.request.UserDTO;
 import com.example.bookstore.dto.response.UserResponseDTO;
-import com.example.bookstore.entity.RefreshToken;
 import com.example.bookstore.entity.User;
+import com.example.bookstore.exception.InvalidGuestCartException;
+import com.example.bookstore.exception.PasswordHashingBusyException;
+import com.example.bookstore.security.AuthRateLimiter;
+import com.example.bookstore.security.AuthenticatedUser;
 import com.example.bookstore.security.BookstoreUserDetails;
+import com.example.bookstore.service.CartService;
+import com.example.bookstore.service.GuestCartService;
 import com.example.bookstore.service.RefreshTokenService;
+import com.example.bookstore.service.RoleRegistry;
+import com.example.bookstore.service.TokenRevocationService;
 import com.example.bookstore.service.UserService;
+import com.example.bookstore.util.AccessTokenClaims;
 import com.example.bookstore.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+    // Hashing queues drain within a few seconds; clients back off at least this long
+    private static final int PASSWORD_HASHING_RETRY_AFTER_SECONDS = 2;
+
     @Autowired
     private AuthenticationManager authenticationManager;
 
@@ -39,34 +55,77 @@ public class AuthController {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private GuestCartService guestCartService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
     @Operation(summary = "User login", description = "Authenticate user and return JWT and refresh token")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login successful"),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+            @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts from this client or for this email"),
+            @ApiResponse(responseCode = "503", description = "Sign-in is busy, retry after the Retry-After delay")
     })
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-        );
+    public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginRequest,
+                                   @RequestHeader(value = GuestCartController.GUEST_CART_HEADER, required = false) String guestCart,
+                                   HttpServletRequest request) {
+        long retryAfter = authRateLimiter.tryAcquire(AuthRateLimiter.Endpoint.LOGIN, request.getRemoteAddr(),
+                loginRequest.getEmail());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
+            );
+        } catch (PasswordHashingBusyException e) {
+            return passwordHashingBusy();
+        }
 
         String email = loginRequest.getEmail();
-        User user = ((BookstoreUserDetails) authentication.getPrincipal()).getUser();
-        String role = user.getRole().getName();
+        BookstoreUserDetails userDetails = (BookstoreUserDetails) authentication.getPrincipal();
+        User user = userDetails.getUser();
+        // Tokens carry the canonical authority, the same string the request filter grants
+        String role = userDetails.getRole().authorityName();
 
-        String jwt = jwtUtil.generateToken(email, role);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(email);
+        String jwt = jwtUtil.generateToken(user.getId(), email, role);
+        String refreshToken = refreshTokenService.createRefreshToken(user.getId());
+        mergeGuestCart(guestCart, user.getId());
 
-        return ResponseEntity.ok(new JwtResponseDTO(jwt, refreshToken.getToken(), email, role));
+        return ResponseEntity.ok(new JwtResponseDTO(jwt, refreshToken, email, role));
     }
 
     @Operation(summary = "User registration", description = "Register a new user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Registration successful"),
-            @ApiResponse(responseCode = "400", description = "Email already exists")
+            @ApiResponse(responseCode = "400", description = "Email already exists"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts from this client or for this email"),
+            @ApiResponse(responseCode = "503", description = "Sign-in is busy, retry after the Retry-After delay")
     })
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequestDTO registerRequest) {
+    public ResponseEntity<?> register(@RequestBody RegisterRequestDTO registerRequest,
+                                      @RequestHeader(value = GuestCartController.GUEST_CART_HEADER, required = false) String guestCart,
+                                      HttpServletRequest request) {
+        long retryAfter = authRateLimiter.tryAcquire(AuthRateLimiter.Endpoint.REGISTER, request.getRemoteAddr(),
+                registerRequest.getEmail());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
+
         UserDTO userDTO = new UserDTO();
         userDTO.setEmail(registerRequest.getEmail());
         userDTO.setPassword(registerRequest.getPassword());
@@ -76,12 +135,19 @@ public class AuthController {
         userDTO.setRoleId(1); // Giả sử role "USER" có ID = 2
         userDTO.setIsActive(true);
 
-        UserResponseDTO userResponse = userService.createUser(userDTO);
+        UserResponseDTO userResponse;
+        try {
+            userResponse = userService.createUser(userDTO);
+        } catch (PasswordHashingBusyException e) {
+            return passwordHashingBusy();
+        }
 
-        String jwt = jwtUtil.generateToken(userResponse.getEmail(), userResponse.getRoleName());
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(userResponse.getEmail());
+        String role = roleRegistry.get(userResponse.getRoleId()).authorityName();
+        String jwt = jwtUtil.generateToken(userResponse.getId(), userResponse.getEmail(), role);
+        String refreshToken = refreshTokenService.createRefreshToken(userResponse.getId());
+        mergeGuestCart(guestCart, userResponse.getId());
 
-        return ResponseEntity.ok(new JwtResponseDTO(jwt, refreshToken.getToken(), userResponse.getEmail(), userResponse.getRoleName()));
+        return ResponseEntity.ok(new JwtResponseDTO(jwt, refreshToken, userResponse.getEmail(), role));
     }
 
     @Operation(summary = "Refresh token", description = "Generate new JWT using refresh token")
@@ -91,18 +157,60 @@ public class AuthController {
     })
     @PostMapping("/refresh-token")
     public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequestDTO request) {
-        String refreshTokenStr = request.getRefreshToken();
-        RefreshToken refreshToken = refreshTokenService.findByToken(refreshTokenStr)
-                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
 
-        if (!refreshTokenService.verifyExpiration(refreshToken)) {
-            throw new RuntimeException("Refresh token has expired");
-        }
+        User user = rotation.user();
+        String role = roleRegistry.get(user.getRoleId()).authorityName();
+        String jwt = jwtUtil.generateToken(user.getId(), user.getEmail(), role);
+
+        return ResponseEntity.ok(new RefreshTokenResponseDTO(jwt, rotation.refreshToken()));
+    }
+
+    @Operation(summary = "Logout", description = "Revoke the presented access token and the refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Logged out"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        // The filter has just verified this token, so this is a cache hit
+        AccessTokenClaims claims = jwtUtil.verify(authorization.substring(7));
+        tokenRevocationService.revokeToken(claims);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Logout everywhere", description = "Revoke every access token and the refresh token of the caller")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "All sessions revoked"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in")
+    })
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll() {
+        tokenRevocationService.revokeAllForUser(AuthenticatedUser.current().id());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<?> tooManyAttempts(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
 
-        User user = refreshToken.getUser();
-        String jwt = jwtUtil.generateToken(user.getEmail(), user.getRole().getName());
-        RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user.getEmail());
+    private static ResponseEntity<?> passwordHashingBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(PASSWORD_HASHING_RETRY_AFTER_SECONDS))
+                .build();
+    }
 
-        return ResponseEntity.ok(new RefreshTokenResponseDTO(jwt, newRefreshToken.getToken()));
+    // A broken or expired guest cart must not block authentication; the visitor just loses those items
+    private void mergeGuestCart(String guestCart, Integer userId) {
+        if (guestCart == null || guestCart.isBlank()) {
+            return;
+        }
+        try {
+            cartService.mergeGuestCart(userId, guestCartService.readItems(guestCart));
+        } catch (InvalidGuestCartException e) {
+            log.warn("Ignoring guest cart for user {}: {}", userId, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
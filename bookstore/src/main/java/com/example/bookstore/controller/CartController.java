@@ -11,8 +11,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.validation.Valid;
 
@@ -36,7 +39,8 @@ public class CartController {
     })
     @GetMapping
     public ResponseEntity<CartResponseDTO> getCart() {
-        return ResponseEntity.ok(cartService.getCart());
+        CartResponseDTO cart = cartService.getCart();
+        return ResponseEntity.ok().eTag(String.valueOf(cart.getVersion())).body(cart);
     }
 
     @Operation(summary = "Add item to cart", description = "Add a product to the authenticated user's cart")
@@ -45,13 +49,18 @@ public class CartController {
             @ApiResponse(responseCode = "400", description = "Invalid request body or validation failed"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Cart kept changing concurrently, retry the request"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current cart version"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/items")
     public ResponseEntity<CartItemResponseDTO> addItemToCart(
             @Parameter(description = "Request body containing product ID and quantity to add to cart", required = true)
-            @Valid @RequestBody AddCartItemRequestDTO request) {
-        return ResponseEntity.ok(cartService.addItemToCart(request));
+            @Valid @RequestBody AddCartItemRequestDTO request,
+            @Parameter(description = "Cart version (ETag) the client last saw")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CartItemResponseDTO item = cartService.addItemToCart(request, parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(item.getCartVersion())).body(item);
     }
 
     @Operation(summary = "Update cart item quantity", description = "Update the quantity of a specific item in the authenticated user's cart")
@@ -61,6 +70,8 @@ public class CartController {
             @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
             @ApiResponse(responseCode = "403", description = "Forbidden - User does not own this cart item"),
             @ApiResponse(responseCode = "404", description = "Cart item not found"),
+            @ApiResponse(responseCode = "409", description = "Cart kept changing concurrently, retry the request"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current cart version"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/items/{id}")
@@ -68,8 +79,11 @@ public class CartController {
             @Parameter(description = "ID of the cart item to update", required = true)
             @PathVariable Integer id,
             @Parameter(description = "Request body containing the new quantity", required = true)
-            @Valid @RequestBody UpdateCartItemRequestDTO request) {
-        return ResponseEntity.ok(cartService.updateItemQuantity(id, request));
+            @Valid @RequestBody UpdateCartItemRequestDTO request,
+            @Parameter(description = "Cart version (ETag) the client last saw")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CartItemResponseDTO item = cartService.updateItemQuantity(id, request, parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(item.getCartVersion())).body(item);
     }
 
     @Operation(summary = "Remove item from cart", description = "Remove a specific item from the authenticated user's cart")
@@ -78,14 +92,18 @@ public class CartController {
             @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
             @ApiResponse(responseCode = "403", description = "Forbidden - User does not own this cart item"),
             @ApiResponse(responseCode = "404", description = "Cart item not found"),
+            @ApiResponse(responseCode = "409", description = "Cart kept changing concurrently, retry the request"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current cart version"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @DeleteMapping("/items/{id}")
     public ResponseEntity<Void> removeItemFromCart(
             @Parameter(description = "ID of the cart item to remove", required = true)
-            @PathVariable Integer id) {
-        cartService.removeItemFromCart(id);
-        return ResponseEntity.noContent().build();
+            @PathVariable Integer id,
+            @Parameter(description = "Cart version (ETag) the client last saw")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = cartService.removeItemFromCart(id, parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
     }
 
     @Operation(summary = "Clear cart", description = "Remove all items from the authenticated user's cart")
@@ -93,11 +111,34 @@ public class CartController {
             @ApiResponse(responseCode = "204", description = "Successfully cleared the cart"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
             @ApiResponse(responseCode = "404", description = "Cart not found"),
+            @ApiResponse(responseCode = "409", description = "Cart kept changing concurrently, retry the request"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current cart version"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @DeleteMapping
-    public ResponseEntity<Void> clearCart() {
-        cartService.clearCart();
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Void> clearCart(
+            @Parameter(description = "Cart version (ETag) the client last saw")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = cartService.clearCart(parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
+    }
+
+    // Accepts "5", "\"5\"" and W/"5"; a missing header or "*" means the mutation is unconditional
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed If-Match header: " + ifMatch);
+        }
     }
 }
\ No newline at end of file
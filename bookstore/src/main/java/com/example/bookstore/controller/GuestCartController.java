@@ -0,0 +1,95 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.dto.request.AddCartItemRequestDTO;
+import com.example.bookstore.dto.request.UpdateCartItemRequestDTO;
+import com.example.bookstore.dto.response.GuestCartResponseDTO;
+import com.example.bookstore.service.GuestCartService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/cart/guest")
+@Tag(name = "Guest Cart APIs", description = "APIs for anonymous carts carried in a signed token")
+public class GuestCartController {
+
+    public static final String GUEST_CART_HEADER = "X-Guest-Cart";
+
+    private final GuestCartService guestCartService;
+
+    @Autowired
+    public GuestCartController(GuestCartService guestCartService) {
+        this.guestCartService = guestCartService;
+    }
+
+    @Operation(summary = "Get guest cart", description = "Decode the guest cart token sent in the X-Guest-Cart header")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully decoded the guest cart"),
+            @ApiResponse(responseCode = "400", description = "Guest cart token is invalid or expired")
+    })
+    @GetMapping
+    public ResponseEntity<GuestCartResponseDTO> getCart(
+            @Parameter(description = "Guest cart token returned by a previous guest cart call")
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token) {
+        return withToken(guestCartService.getCart(token));
+    }
+
+    @Operation(summary = "Add item to guest cart", description = "Add a product to the guest cart and return the re-signed token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Item added to guest cart"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, token or guest cart is full")
+    })
+    @PostMapping("/items")
+    public ResponseEntity<GuestCartResponseDTO> addItem(
+            @Parameter(description = "Guest cart token returned by a previous guest cart call")
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token,
+            @Parameter(description = "Request body containing product ID and quantity to add to cart", required = true)
+            @Valid @RequestBody AddCartItemRequestDTO request) {
+        return withToken(guestCartService.addItem(token, request));
+    }
+
+    @Operation(summary = "Update guest cart item quantity", description = "Set the quantity of a product in the guest cart")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Quantity updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or token")
+    })
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<GuestCartResponseDTO> updateItemQuantity(
+            @Parameter(description = "Guest cart token returned by a previous guest cart call")
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token,
+            @Parameter(description = "ID of the product to update", required = true)
+            @PathVariable Integer productId,
+            @Parameter(description = "Request body containing the new quantity", required = true)
+            @Valid @RequestBody UpdateCartItemRequestDTO request) {
+        return withToken(guestCartService.updateItemQuantity(token, productId, request));
+    }
+
+    @Operation(summary = "Remove item from guest cart", description = "Remove a product from the guest cart")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Item removed"),
+            @ApiResponse(responseCode = "400", description = "Guest cart token is invalid or expired")
+    })
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<GuestCartResponseDTO> removeItem(
+            @Parameter(description = "Guest cart token returned by a previous guest cart call")
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token,
+            @Parameter(description = "ID of the product to remove", required = true)
+            @PathVariable Integer productId) {
+        return withToken(guestCartService.removeItem(token, productId));
+    }
+
+    private ResponseEntity<GuestCartResponseDTO> withToken(GuestCartResponseDTO cart) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (cart.getToken() != null) {
+            response.header(GUEST_CART_HEADER, cart.getToken());
+        }
+        return response.body(cart);
+    }
+}
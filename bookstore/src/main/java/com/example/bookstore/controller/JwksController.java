@@ -0,0 +1,41 @@
+package com.example.bookstore.controller;
+
+import com.example.bookstore.util.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@Tag(name = "JWKS APIs", description = "Public keys for verifying access tokens")
+public class JwksController {
+
+    // Short enough that verifiers see a rotated-in key soon; they should also refetch on an unknown kid
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    private final JwtKeyRing keyRing;
+
+    @Autowired
+    public JwksController(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @Operation(summary = "JSON Web Key Set", description = "Public keys of every access-token signing key still in use, by kid. Empty while tokens are signed with the shared secret.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the key set")
+    })
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(MAX_AGE).cachePublic())
+                .body(Map.of("keys", keyRing.publicJwks()));
+    }
+}
@@ -1,47 +1,150 @@
 package com.example.bookstore.controller;
 
 import com.example.bookstore.dto.request.CreateOrderRequestDTO;
+import com.example.bookstore.dto.response.CheckoutStatusResponseDTO;
+import com.example.bookstore.dto.response.OrderHistoryResponseDTO;
 import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.exception.CheckoutNotFoundException;
+import com.example.bookstore.exception.CheckoutQueueFullException;
+import com.example.bookstore.service.AsyncCheckoutService;
+import com.example.bookstore.service.IdempotencyService;
 import com.example.bookstore.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.security.Principal;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/orders")
 @Tag(name = "Order APIs", description = "APIs for managing user's orders")
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final int CHECKOUT_RETRY_AFTER_SECONDS = 1;
+    private static final long CHECKOUT_EVENTS_TIMEOUT_MS = 60_000;
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectProvider<AsyncCheckoutService> asyncCheckoutService;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService,
+                           ObjectProvider<AsyncCheckoutService> asyncCheckoutService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
+        this.asyncCheckoutService = asyncCheckoutService;
     }
 
     @Operation(summary = "Create an order", description = "Create a new order from the authenticated user's cart")
     @
 
             ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully created the order"),
+            @ApiResponse(responseCode = "200", description = "Successfully created the order, or the final status of a finished async checkout retried with its Idempotency-Key"),
+            @ApiResponse(responseCode = "202", description = "Order queued (async checkout mode); poll or subscribe to the returned handle"),
             @ApiResponse(responseCode = "400", description = "Invalid request body or validation failed"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
             @ApiResponse(responseCode = "404", description = "Cart is empty"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Checkout queue is full, retry after the Retry-After delay")
     })
     @PostMapping
-    public ResponseEntity<OrderResponseDTO> createOrder(
+    public ResponseEntity<?> createOrder(
             @Parameter(description = "Request body containing shipping address and payment method", required = true)
-            @Valid @RequestBody CreateOrderRequestDTO request) {
-        return ResponseEntity.ok(orderService.createOrder(request));
+            @Valid @RequestBody CreateOrderRequestDTO request,
+            @Parameter(description = "Client-chosen key; retries with the same key replay the original response")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        // In async mode the order is only queued here: 202 with a handle to poll or subscribe to
+        AsyncCheckoutService asyncCheckout = asyncCheckoutService.getIfAvailable();
+        HttpStatus successStatus = asyncCheckout != null ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        Supplier<?> placeOrder = asyncCheckout != null
+                ? () -> asyncCheckout.submit(request, principal == null ? null : idempotencyKey)
+                : () -> orderService.createOrder(request);
+
+        try {
+            if (idempotencyKey == null || principal == null) {
+                return ResponseEntity.status(successStatus).body(placeOrder.get());
+            }
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+
+            IdempotencyService.StoredResponse response = idempotencyService.execute(principal.getName(),
+                    idempotencyKey, request, successStatus, placeOrder);
+            return ResponseEntity.status(response.status())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(response.replayed()))
+                    .body(response.body());
+        } catch (CheckoutQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(CHECKOUT_RETRY_AFTER_SECONDS))
+                    .build();
+        }
+    }
+
+    @Operation(summary = "Get checkout status", description = "Poll the status of an order queued in async checkout mode")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Current checkout status"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
+            @ApiResponse(responseCode = "404", description = "Checkout not found or expired")
+    })
+    @GetMapping("/checkouts/{handle}")
+    public ResponseEntity<CheckoutStatusResponseDTO> getCheckoutStatus(
+            @Parameter(description = "Handle returned when the order was queued", required = true)
+            @PathVariable String handle) {
+        return ResponseEntity.ok(requireAsyncCheckout().getStatus(handle));
+    }
+
+    @Operation(summary = "Subscribe to checkout status", description = "Server-sent events: the current status, then the final one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
+            @ApiResponse(responseCode = "404", description = "Checkout not found or expired")
+    })
+    @GetMapping(value = "/checkouts/{handle}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeCheckoutStatus(
+            @Parameter(description = "Handle returned when the order was queued", required = true)
+            @PathVariable String handle) throws IOException {
+        AsyncCheckoutService asyncCheckout = requireAsyncCheckout();
+        SseEmitter emitter = new SseEmitter(CHECKOUT_EVENTS_TIMEOUT_MS);
+        emitter.send(SseEmitter.event().name("status").data(asyncCheckout.getStatus(handle)));
+        asyncCheckout.whenDone(handle).whenComplete((status, error) -> {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(status));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    private AsyncCheckoutService requireAsyncCheckout() {
+        AsyncCheckoutService asyncCheckout = asyncCheckoutService.getIfAvailable();
+        if (asyncCheckout == null) {
+            throw new CheckoutNotFoundException();
+        }
+        return asyncCheckout;
     }
 
     @Operation(summary = "Get user's orders", description = "Retrieve the list of orders for the authenticated user")
@@ -55,6 +158,21 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrders());
     }
 
+    @Operation(summary = "Get order history", description = "Retrieve a page of order summaries for the authenticated user, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the order history page"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - User must be logged in"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/history")
+    public ResponseEntity<OrderHistoryResponseDTO> getOrderHistory(
+            @Parameter(description = "Zero-based page index")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 100)")
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getOrderHistory(page, size));
+    }
+
     @Operation(summary = "Get order details", description = "Retrieve the details of a specific order by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved the order details"),
@@ -73,7 +73,7 @@ public class ProductController {
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
     public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Integer id) {
-        log.info("Fetching product with id: {}", id);
+        log.debug("Fetching product with id: {}", id);
         ProductResponseDTO response = productService.getProductById(id);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -85,7 +85,7 @@ public class ProductController {
     })
     @PreAuthorize("hasAuthority('admin')")
     public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        log.info("Fetching all products");
+        log.debug("Fetching all products");
         List<ProductResponseDTO> response = productService.getAllProducts();
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -96,7 +96,7 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Featured products retrieved successfully")
     })
     public ResponseEntity<List<ProductResponseDTO>> getFeaturedProducts() {
-        log.info("Fetching featured products");
+        log.debug("Fetching featured products");
         List<ProductResponseDTO> response = productService.getFeaturedProducts();
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -108,7 +108,7 @@ public class ProductController {
             @ApiResponse(responseCode = "404", description = "Category not found")
     })
     public ResponseEntity<List<ProductResponseDTO>> getProductsByCategory(@PathVariable Integer categoryId) {
-        log.info("Fetching products by category id: {}", categoryId);
+        log.debug("Fetching products by category id: {}", categoryId);
         List<ProductResponseDTO> response = productService.getProductsByCategory(categoryId);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -133,7 +133,7 @@ public class ProductController {
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
     public ResponseEntity<Map<String, Object>> getProductDetailsWithReviews(@PathVariable Integer id) {
-        log.info("Fetching product details with reviews for id: {}", id);
+        log.debug("Fetching product details with reviews for id: {}", id);
         ProductResponseDTO product = productService.getProductById(id);
         List<ProductReviewResponseDTO> reviews = productReviewService.getReviewsByProductId(id);
 
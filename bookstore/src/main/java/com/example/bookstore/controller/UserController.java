@@ -2,6 +2,7 @@ package com.example.bookstore.controller;
 
 import com.example.bookstore.dto.request.UserDTO;
 import com.example.bookstore.dto.response.UserResponseDTO;
+import com.example.bookstore.service.TokenRevocationService;
 import com.example.bookstore.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -24,6 +25,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Operation(summary = "Create a new user", description = "Create a new user (Admin only)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User created successfully"),
@@ -88,6 +92,19 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Revoke a user's tokens", description = "Revoke every access token and the refresh token of a user (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Tokens revoked"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasAuthority('admin')")
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Integer id) {
+        tokenRevocationService.revokeAllForUser(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/profile")
     public ResponseEntity<UserResponseDTO> getUserProfile(Principal principal) {
@@ -96,7 +113,7 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         String email = principal.getName();
-        log.info("Fetching profile for user with email: {}", email);
+        log.debug("Fetching profile for user with email: {}", email);
         UserResponseDTO response = userService.getUserProfile(email);
         return ResponseEntity.ok(response);
     }
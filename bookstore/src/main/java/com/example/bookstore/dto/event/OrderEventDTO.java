@@ -0,0 +1,32 @@
+package com.example.bookstore.dto.event;
+
+import com.example.bookstore.entity.enums.OrderStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+public class OrderEventDTO {
+    private Integer orderId;
+    private Integer userId;
+    private LocalDateTime orderDate;
+    private BigDecimal totalAmount;
+    private Integer itemCount;
+    private OrderStatus status;
+    // Set on status-change events only
+    private OrderStatus previousStatus;
+    private List<Item> items;
+
+    @Getter
+    @Setter
+    public static class Item {
+        private Integer productId;
+        private Integer categoryId;
+        private Integer quantity;
+        private BigDecimal subtotal;
+    }
+}
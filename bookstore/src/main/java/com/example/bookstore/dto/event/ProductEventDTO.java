@@ -0,0 +1,16 @@
+package com.example.bookstore.dto.event;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+public class ProductEventDTO {
+    private Integer productId;
+    private String name;
+    private BigDecimal price;
+    private Integer categoryId;
+    private Integer stock;
+}
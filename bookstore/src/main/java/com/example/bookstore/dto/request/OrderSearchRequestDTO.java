@@ -0,0 +1,43 @@
+package com.example.bookstore.dto.request;
+
+import com.example.bookstore.entity.enums.OrderStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Admin order search filters, bound from query parameters. Every filter is optional, but at least one of
+ * {@code email} or {@code status} is required: those lead the two indexes the search relies on.
+ */
+@Getter
+@Setter
+public class OrderSearchRequestDTO {
+    public static final int MAX_SIZE = 100;
+
+    private String email;
+
+    private OrderStatus status;
+
+    // Order date, inclusive on both ends
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    // nextCursor of the previous page; absent for the first page
+    private String cursor;
+
+    @Min(value = 1, message = "Size must be at least 1")
+    @Max(value = MAX_SIZE, message = "Size must be at most " + MAX_SIZE)
+    private int size = 20;
+}
@@ -0,0 +1,26 @@
+package com.example.bookstore.dto.request;
+
+import com.example.bookstore.entity.enums.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class OrderStatusTransitionRequestDTO {
+    public static final int MAX_ORDERS = 50_000;
+
+    @NotEmpty(message = "At least one order id is required")
+    @Size(max = MAX_ORDERS, message = "At most " + MAX_ORDERS + " orders per request")
+    private List<Integer> orderIds;
+
+    @NotNull(message = "Target status is required")
+    private OrderStatus targetStatus;
+
+    // Optional guard: only move orders that are currently in this status
+    private OrderStatus expectedStatus;
+}
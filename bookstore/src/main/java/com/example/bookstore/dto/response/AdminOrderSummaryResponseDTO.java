@@ -0,0 +1,24 @@
+package com.example.bookstore.dto.response;
+
+import com.example.bookstore.entity.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminOrderSummaryResponseDTO {
+    private Integer id;
+    private Integer userId;
+    private String email;
+    private LocalDateTime orderDate;
+    private BigDecimal totalAmount;
+    private OrderStatus status;
+    private Integer itemCount;
+}
@@ -18,4 +18,5 @@ public class CartItemResponseDTO {
     private BigDecimal unitPrice;
     private BigDecimal subtotal;
     private LocalDateTime addedAt;
+    private Long cartVersion;
 }
\ No newline at end of file
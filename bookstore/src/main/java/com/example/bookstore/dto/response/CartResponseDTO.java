@@ -16,4 +16,5 @@ public class CartResponseDTO {
     private LocalDateTime updatedAt;
     private List<CartItemResponseDTO> cartItems;
     private BigDecimal totalAmount;
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.bookstore.dto.response;
+
+import com.example.bookstore.entity.enums.CheckoutStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+public class CheckoutStatusResponseDTO {
+    private String handle;
+    private CheckoutStatus status;
+    private String statusUrl;
+    private Integer orderId;
+    private OrderResponseDTO order;
+    private String error;
+    private Instant enqueuedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,15 @@
+package com.example.bookstore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartItemResponseDTO {
+    private Integer productId;
+    private Integer quantity;
+}
@@ -0,0 +1,14 @@
+package com.example.bookstore.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class GuestCartResponseDTO {
+    private String token;
+    private List<GuestCartItemResponseDTO> cartItems;
+    private Integer totalQuantity;
+}
@@ -0,0 +1,16 @@
+package com.example.bookstore.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class OrderHistoryResponseDTO {
+    private List<OrderSummaryResponseDTO> orders;
+    private Integer page;
+    private Integer size;
+    private Long totalElements;
+    private Integer totalPages;
+}
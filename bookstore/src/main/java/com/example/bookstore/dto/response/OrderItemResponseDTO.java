@@ -12,6 +12,7 @@ public class OrderItemResponseDTO {
     private Integer orderId;
     private Integer productId;
     private String productName;
+    private String imageUrl;
     private Integer quantity;
     private BigDecimal price;
     private BigDecimal subtotal;
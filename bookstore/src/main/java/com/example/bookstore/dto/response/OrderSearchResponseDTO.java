@@ -0,0 +1,14 @@
+package com.example.bookstore.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class OrderSearchResponseDTO {
+    private List<AdminOrderSummaryResponseDTO> orders;
+    // Pass back as 'cursor' for the next page; null on the last page
+    private String nextCursor;
+}
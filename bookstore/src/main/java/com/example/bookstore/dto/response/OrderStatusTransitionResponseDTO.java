@@ -0,0 +1,36 @@
+package com.example.bookstore.dto.response;
+
+import com.example.bookstore.entity.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class OrderStatusTransitionResponseDTO {
+    private OrderStatus targetStatus;
+    private int requested;
+    private int updated;
+    private List<Failure> failures = new ArrayList<>();
+
+    public enum FailureReason {
+        NOT_FOUND,
+        ALREADY_IN_STATUS,
+        STATUS_MISMATCH,
+        INVALID_TRANSITION
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private Integer orderId;
+        private OrderStatus currentStatus;
+        private FailureReason reason;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bookstore.dto.response;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class SalesRollupResponseDTO {
+    // Null on totals over a date range
+    private LocalDate salesDate;
+    // Category or product id; 0 for daily rows
+    private Integer dimensionId;
+    private BigDecimal revenue;
+    private Long orderCount;
+    private Long units;
+
+    public SalesRollupResponseDTO(LocalDate salesDate, Integer dimensionId, BigDecimal revenue, Long orderCount,
+                                  Long units) {
+        this.salesDate = salesDate;
+        this.dimensionId = dimensionId;
+        this.revenue = revenue;
+        this.orderCount = orderCount;
+        this.units = units;
+    }
+
+    public SalesRollupResponseDTO(Integer dimensionId, BigDecimal revenue, Long orderCount, Long units) {
+        this(null, dimensionId, revenue, orderCount, units);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Whole cart stored as one row with its lines in a JSONB array, used when {@code cart.storage=document}.
+ * Keyed by user id since every user has at most one cart.
+ */
+@Entity
+@Table(name = "cart_documents", indexes = {
+        @Index(name = "idx_cart_documents_updated_at", columnList = "updated_at")
+})
+@Getter
+@Setter
+public class CartDocument {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private List<CartDocumentItem> items = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+}
@@ -0,0 +1,21 @@
+package com.example.bookstore.entity;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line of a {@link CartDocument}. Serialized into the JSONB column, so it is not an entity.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class CartDocumentItem {
+    private Integer productId;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private LocalDateTime addedAt;
+}
@@ -19,7 +19,8 @@ import java.util.List;
 @Where(clause = "is_deleted = false")
 public class Category {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, unique = true, length = 255)
@@ -0,0 +1,47 @@
+package com.example.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One asymmetric access-token signing key, shared by every node through the database. The private half is stored
+ * encrypted with a key derived from {@code jwt.secret}; the public half is what {@code /.well-known/jwks.json}
+ * publishes. A key signs until it is retired and stays verifiable until {@code verifyUntil}.
+ */
+@Entity
+@Table(name = "jwt_signing_keys", indexes = {
+        @Index(name = "idx_jwt_signing_keys_verify_until", columnList = "verify_until")
+})
+@Getter
+@Setter
+public class JwtSigningKey {
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    // JWS algorithm, e.g. ES256 or EdDSA
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+
+    // JCA algorithm of the encoded keys, e.g. EC or EdDSA
+    @Column(name = "key_algorithm", nullable = false, length = 16)
+    private String keyAlgorithm;
+
+    // X.509 encoding
+    @Column(name = "public_key", nullable = false)
+    private byte[] publicKey;
+
+    // PKCS#8 encoding, AES-GCM encrypted
+    @Column(name = "private_key", nullable = false)
+    private byte[] privateKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Null while the key is the one signing new tokens
+    @Column(name = "verify_until")
+    private Instant verifyUntil;
+}
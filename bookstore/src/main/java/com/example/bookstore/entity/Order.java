@@ -2,6 +2,7 @@ package com.example.bookstore.entity;
 
 import com.example.bookstore.entity.enums.OrderStatus;
 import com.example.bookstore.entity.enums.PaymentMethod;
+import com.example.bookstore.exception.InvalidOrderStatusTransitionException;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,25 +13,33 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_order_date", columnList = "user_id, order_date"),
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date")
+})
 @Getter
 @Setter
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @CreationTimestamp
-    @Column(name = "order_date", updatable = false)
+    // Partition key of orders and order_items; set explicitly so the order and its items share the same value
+    @Column(name = "order_date", nullable = false, updatable = false)
     private LocalDateTime orderDate;
 
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
 
+    // Total units in the order, denormalized for the history list (null on orders placed before it existed)
+    @Column(name = "item_count")
+    private Integer itemCount;
+
     @Enumerated(EnumType.STRING)
     @Column(length = 50, nullable = false)
     private OrderStatus status = OrderStatus.PENDING;
@@ -48,4 +57,11 @@ public class Order {
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems;
+
+    public void transitionTo(OrderStatus target) {
+        if (!status.canTransitionTo(target)) {
+            throw new InvalidOrderStatusTransitionException(id, status, target);
+        }
+        this.status = target;
+    }
 }
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 @Setter
 public class ProductReview {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_reviews_seq")
+    @SequenceGenerator(name = "product_reviews_seq", sequenceName = "product_reviews_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,36 @@
+package com.example.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An entry of the access-token denylist: either one token by its jti, or every token of a user issued before
+ * {@code revokedBefore}. Kept only until the tokens it covers have expired on their own.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    // jti of the revoked token; null when the entry revokes all of the user's tokens
+    @Column(name = "token_id", unique = true, length = 64)
+    private String tokenId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    private Instant revokedBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
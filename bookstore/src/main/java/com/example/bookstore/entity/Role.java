@@ -9,8 +9,6 @@ import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.Where;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
 @Table(name = "roles")
@@ -21,7 +19,8 @@ import java.util.List;
 @Where(clause = "is_deleted = false")
 public class Role {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_seq")
+    @SequenceGenerator(name = "roles_seq", sequenceName = "roles_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -38,9 +37,6 @@ public class Role {
     @Column(name = "is_deleted", columnDefinition = "BOOLEAN DEFAULT FALSE")
     private Boolean isDeleted = false;
 
-    @OneToMany(mappedBy = "role", cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
-    private List<User> users = new ArrayList<>();
-
     @PrePersist
     @PreUpdate
     public void setDefaultValues() {
@@ -0,0 +1,51 @@
+package com.example.bookstore.entity;
+
+import com.example.bookstore.entity.enums.SalesDimension;
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated sales for one day and one dimension value (the whole day, a category or a product). Maintained
+ * incrementally from order events and by the backfill, never recomputed at read time.
+ */
+@Entity
+@Table(name = "sales_rollups")
+@Getter
+@Setter
+public class SalesRollup {
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(nullable = false)
+    private Long units = 0L;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "sales_date", nullable = false)
+        private LocalDate salesDate;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 16)
+        private SalesDimension dimension;
+
+        @Column(name = "dimension_id", nullable = false)
+        private Integer dimensionId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Records which orders the sales rollups already reflect, so redelivered events and the backfill never count an
+ * order, or its cancellation, twice. One row per order; writers serialize on it.
+ */
+@Entity
+@Table(name = "sales_rollup_markers")
+@Getter
+@Setter
+public class SalesRollupMarker {
+    @Id
+    @Column(name = "order_id")
+    private Integer orderId;
+
+    // False when the order was already cancelled or refunded the first time the rollups saw it
+    @Column(nullable = false)
+    private Boolean counted;
+
+    @Column(name = "counted_at", nullable = false)
+    private Instant countedAt;
+
+    @Column(name = "reversed_at")
+    private Instant reversedAt;
+}
@@ -7,7 +7,6 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.Where;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -21,12 +20,13 @@ import java.util.List;
 @Where(clause = "is_deleted = false")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Integer id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
-    @JoinColumn(name = "role_id", nullable = false)
-    private Role role;
+    // Resolved through RoleRegistry rather than joined on every load
+    @Column(name = "role_id", nullable = false)
+    private Integer roleId;
 
     @Column(nullable = false, unique = true, length = 255)
     private String email;
@@ -75,11 +75,6 @@ public class User {
         if (isActive == null) {
             isActive = true;
         }
-        // Hash password before saving
-        if (password != null && !password.startsWith("$2a$")) { // Check if password is already hashed
-            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-            this.password = encoder.encode(password);
-        }
     }
 
 }
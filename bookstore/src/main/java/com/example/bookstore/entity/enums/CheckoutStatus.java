@@ -0,0 +1,8 @@
+package com.example.bookstore.entity.enums;
+
+public enum CheckoutStatus {
+    QUEUED,        // Đã nhận, đang chờ trong hàng đợi
+    PROCESSING,    // Đang chuyển giỏ hàng thành đơn hàng
+    COMPLETED,     // Đơn hàng đã được tạo
+    FAILED
+}
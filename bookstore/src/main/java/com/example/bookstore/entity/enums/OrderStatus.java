@@ -1,9 +1,32 @@
 package com.example.bookstore.entity.enums;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,       // Đơn hàng mới tạo
     PROCESSING,    // Đang xử lý
     SHIPPED,       // Đã giao cho đơn vị vận chuyển
     DELIVERED,     // Giao hàng thành công
-    CANCELLED
+    CANCELLED,
+    REFUNDED;      // Đã hoàn tiền sau khi giao
+
+    // Allowed moves; CANCELLED and REFUNDED are terminal
+    public boolean canTransitionTo(OrderStatus target) {
+        return switch (this) {
+            case PENDING -> target == PROCESSING || target == CANCELLED;
+            case PROCESSING -> target == SHIPPED || target == CANCELLED;
+            case SHIPPED -> target == DELIVERED;
+            case DELIVERED -> target == REFUNDED;
+            case CANCELLED, REFUNDED -> false;
+        };
+    }
+
+    // Statuses an order may be in to move to {@code target}; used by set-based conditional updates
+    public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        Arrays.stream(values()).filter(status -> status.canTransitionTo(target)).forEach(sources::add);
+        return sources;
+    }
 }
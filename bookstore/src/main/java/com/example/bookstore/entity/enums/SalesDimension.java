@@ -0,0 +1,7 @@
+package com.example.bookstore.entity.enums;
+
+public enum SalesDimension {
+    DAY,        // dimension_id = 0
+    CATEGORY,   // dimension_id = category id
+    PRODUCT     // dimension_id = product id
+}
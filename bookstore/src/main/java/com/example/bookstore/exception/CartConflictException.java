@@ -0,0 +1,11 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CartConflictException extends BusinessException {
+    public CartConflictException() {
+        super(ErrorCode.CART_CONCURRENT_MODIFICATION.getMessage(), ErrorCode.CART_CONCURRENT_MODIFICATION.getCode());
+    }
+}
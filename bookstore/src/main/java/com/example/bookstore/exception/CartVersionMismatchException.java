@@ -0,0 +1,12 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class CartVersionMismatchException extends BusinessException {
+    public CartVersionMismatchException(Long expectedVersion, Long actualVersion) {
+        super(ErrorCode.CART_VERSION_MISMATCH.getMessage() + " (expected version " + expectedVersion
+                + ", current version " + actualVersion + ")", ErrorCode.CART_VERSION_MISMATCH.getCode());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class CheckoutNotFoundException extends BusinessException {
+    public CheckoutNotFoundException() {
+        super(ErrorCode.CHECKOUT_NOT_FOUND.getMessage(), ErrorCode.CHECKOUT_NOT_FOUND.getCode());
+    }
+}
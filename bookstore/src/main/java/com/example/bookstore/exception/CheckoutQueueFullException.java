@@ -0,0 +1,11 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CheckoutQueueFullException extends BusinessException {
+    public CheckoutQueueFullException() {
+        super(ErrorCode.CHECKOUT_QUEUE_FULL.getMessage(), ErrorCode.CHECKOUT_QUEUE_FULL.getCode());
+    }
+}
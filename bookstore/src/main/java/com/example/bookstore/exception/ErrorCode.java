@@ -10,6 +10,25 @@ public enum ErrorCode {
     CATEGORY_NOT_FOUND("CATEGORY-001", "Category not found"),
     CATEGORY_NAME_EXISTED("CATEGORY-002", "Category name already exists"),
 
+    // Cart errors
+    CART_VERSION_MISMATCH("CART-001", "Cart was modified by another request"),
+    CART_CONCURRENT_MODIFICATION("CART-002", "Cart is being modified concurrently, please retry"),
+    CART_GUEST_TOKEN_INVALID("CART-003", "Guest cart token is invalid or expired"),
+    CART_GUEST_LIMIT_EXCEEDED("CART-004", "Guest cart is full"),
+
+    // Order errors
+    CHECKOUT_QUEUE_FULL("ORDER-001", "Checkout is busy, please retry shortly"),
+    CHECKOUT_NOT_FOUND("ORDER-002", "Checkout not found or expired"),
+    ORDER_INVALID_STATUS_TRANSITION("ORDER-003", "Order cannot move to the requested status"),
+    ORDER_INVALID_SEARCH("ORDER-004", "Invalid order search"),
+    ORDER_NOT_FOUND("ORDER-005", "Order not found"),
+
+    // Authentication errors
+    AUTH_BUSY("AUTH-001", "Sign-in is busy, please retry shortly"),
+
+    // Idempotency errors
+    IDEMPOTENCY_KEY_REUSED("IDEMPOTENCY-001", "Idempotency key was already used for a different request"),
+
     // Common errors
     INVALID_INPUT("COMMON-001", "Invalid input data"),
     INTERNAL_SERVER_ERROR("COMMON-002", "Internal server error");
@@ -0,0 +1,15 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidGuestCartException extends BusinessException {
+    public InvalidGuestCartException() {
+        this(ErrorCode.CART_GUEST_TOKEN_INVALID);
+    }
+
+    public InvalidGuestCartException(ErrorCode errorCode) {
+        super(errorCode.getMessage(), errorCode.getCode());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidOrderSearchException extends BusinessException {
+    public InvalidOrderSearchException(String detail) {
+        super(ErrorCode.ORDER_INVALID_SEARCH.getMessage() + ": " + detail, ErrorCode.ORDER_INVALID_SEARCH.getCode());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bookstore.exception;
+
+import com.example.bookstore.entity.enums.OrderStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InvalidOrderStatusTransitionException extends BusinessException {
+    public InvalidOrderStatusTransitionException(Integer orderId, OrderStatus from, OrderStatus to) {
+        super(ErrorCode.ORDER_INVALID_STATUS_TRANSITION.getMessage() + " (" + describe(orderId, from, to) + ")",
+                ErrorCode.ORDER_INVALID_STATUS_TRANSITION.getCode());
+    }
+
+    private static String describe(Integer orderId, OrderStatus from, OrderStatus to) {
+        String transition = from != null ? from + " -> " + to : "no status can move to " + to;
+        return orderId != null ? "order " + orderId + ": " + transition : transition;
+    }
+}
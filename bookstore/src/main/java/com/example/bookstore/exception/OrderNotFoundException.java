@@ -0,0 +1,11 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class OrderNotFoundException extends BusinessException {
+    public OrderNotFoundException(Integer orderId) {
+        super(ErrorCode.ORDER_NOT_FOUND.getMessage() + " (order " + orderId + ")", ErrorCode.ORDER_NOT_FOUND.getCode());
+    }
+}
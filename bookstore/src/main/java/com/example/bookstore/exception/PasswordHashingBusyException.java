@@ -0,0 +1,11 @@
+package com.example.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingBusyException extends BusinessException {
+    public PasswordHashingBusyException() {
+        super(ErrorCode.AUTH_BUSY.getMessage(), ErrorCode.AUTH_BUSY.getCode());
+    }
+}
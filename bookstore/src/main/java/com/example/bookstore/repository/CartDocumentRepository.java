@@ -0,0 +1,43 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.CartDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CartDocumentRepository extends JpaRepository<CartDocument, Integer> {
+
+    // Folds carts with ids in (afterId, upToId] and their items into documents; carts already migrated are kept
+    @Modifying
+    @Query(value = "INSERT INTO cart_documents (user_id, items, created_at, updated_at, version) " +
+            "SELECT c.user_id, " +
+            "COALESCE(jsonb_agg(jsonb_build_object('productId', ci.product_id, 'quantity', ci.quantity, " +
+            "'unitPrice', ci.unit_price, 'addedAt', ci.added_at) ORDER BY ci.id) " +
+            "FILTER (WHERE ci.id IS NOT NULL), '[]'::jsonb), " +
+            "c.created_at, c.updated_at, 0 " +
+            "FROM carts c LEFT JOIN cart_items ci ON ci.cart_id = c.id " +
+            "WHERE c.id > :afterId AND c.id <= :upToId " +
+            "GROUP BY c.id, c.user_id, c.created_at, c.updated_at " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int copyFromRows(@Param("afterId") Integer afterId, @Param("upToId") Integer upToId);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM cart_documents WHERE user_id = :userId " +
+            "AND jsonb_array_length(items) > 0)", nativeQuery = true)
+    boolean hasItems(@Param("userId") Integer userId);
+
+    // Keyset page of idle documents (idx_cart_documents_updated_at), locked against a concurrent cart write
+    @Query(value = "SELECT user_id FROM cart_documents WHERE updated_at < :cutoff AND user_id > :afterUserId " +
+            "ORDER BY user_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Integer> lockIdleUserIds(@Param("cutoff") LocalDateTime cutoff,
+                                  @Param("afterUserId") Integer afterUserId,
+                                  @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM cart_documents WHERE user_id IN (:userIds)", nativeQuery = true)
+    int purgeByUserIds(@Param("userIds") Collection<Integer> userIds);
+}
@@ -2,6 +2,16 @@ package com.example.bookstore.repository;
 
 import com.example.bookstore.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
-}
\ No newline at end of file
+    boolean existsByCartUserId(Integer userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM cart_items WHERE cart_id IN (:cartIds)", nativeQuery = true)
+    int purgeByCartIds(@Param("cartIds") Collection<Integer> cartIds);
+}
@@ -2,9 +2,29 @@ package com.example.bookstore.repository;
 
 import com.example.bookstore.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Integer> {
     Optional<Cart> findByUserId(Integer userId);
-}
\ No newline at end of file
+
+    // Keyset page of idle cart ids, locked so a concurrent cart mutation cannot revive a cart mid-purge
+    @Query(value = "SELECT id FROM carts WHERE updated_at < :cutoff AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Integer> lockIdleCartIds(@Param("cutoff") LocalDateTime cutoff,
+                                  @Param("afterId") Integer afterId,
+                                  @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM carts WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM carts WHERE id IN (:ids)", nativeQuery = true)
+    int purgeByIds(@Param("ids") Collection<Integer> ids);
+}
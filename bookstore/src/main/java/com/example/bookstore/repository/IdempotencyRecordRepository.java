@@ -0,0 +1,48 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByPrincipalAndIdempotencyKey(String principal, String idempotencyKey);
+
+    // Returns 1 when this transaction now owns the key. A concurrent claimer blocks on the unique index until the
+    // owner commits (then gets 0 and replays) or rolls back (then gets 1 and runs the work itself). A row past its
+    // expiry that the cleanup job has not deleted yet counts as absent and is taken over.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (principal, idempotency_key, request_hash, created_at, expires_at) " +
+            "VALUES (:principal, :key, :requestHash, :createdAt, :expiresAt) " +
+            "ON CONFLICT (principal, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+            "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at, " +
+            "response_status = NULL, response_body = NULL " +
+            "WHERE idempotency_keys.expires_at < EXCLUDED.created_at", nativeQuery = true)
+    int claim(@Param("principal") String principal,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") Instant createdAt,
+              @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET response_status = :status, response_body = :body " +
+            "WHERE principal = :principal AND idempotency_key = :key", nativeQuery = true)
+    int complete(@Param("principal") String principal,
+                 @Param("key") String key,
+                 @Param("status") int status,
+                 @Param("body") byte[] body);
+
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE principal = :principal AND idempotency_key = :key",
+            nativeQuery = true)
+    int release(@Param("principal") String principal, @Param("key") String key);
+
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN " +
+            "(SELECT id FROM idempotency_keys WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -0,0 +1,29 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+    List<JwtSigningKey> findByVerifyUntilIsNullOrVerifyUntilAfter(Instant now);
+
+    Optional<JwtSigningKey> findFirstByVerifyUntilIsNullOrderByCreatedAtDesc();
+
+    // Serialises rotation across nodes for the rest of the transaction; false when another node holds it
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockId)", nativeQuery = true)
+    boolean tryLockRotation(@Param("lockId") long lockId);
+
+    @Modifying
+    @Query("UPDATE JwtSigningKey k SET k.verifyUntil = :verifyUntil WHERE k.verifyUntil IS NULL AND k.kid <> :kid")
+    int retireAllExcept(@Param("kid") String kid, @Param("verifyUntil") Instant verifyUntil);
+
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.verifyUntil < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
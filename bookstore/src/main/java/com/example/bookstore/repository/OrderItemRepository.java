@@ -2,6 +2,27 @@ package com.example.bookstore.repository;
 
 import com.example.bookstore.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
-}
\ No newline at end of file
+
+    // The order_date predicate lets PostgreSQL prune order_items to the order's month
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId AND oi.orderDate = :orderDate ORDER BY oi.id")
+    List<OrderItem> findByOrder(@Param("orderId") Integer orderId, @Param("orderDate") LocalDateTime orderDate);
+
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id IN :orderIds " +
+            "AND oi.orderDate BETWEEN :from AND :to ORDER BY oi.id")
+    List<OrderItem> findByOrders(@Param("orderIds") Collection<Integer> orderIds,
+                                 @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM OrderItem oi WHERE oi.order.id IN :orderIds AND oi.orderDate BETWEEN :from AND :to")
+    int deleteByOrders(@Param("orderIds") Collection<Integer> orderIds,
+                       @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
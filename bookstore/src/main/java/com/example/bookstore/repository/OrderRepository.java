@@ -1,10 +1,100 @@
 package com.example.bookstore.repository;
 
+import com.example.bookstore.dto.response.OrderSummaryResponseDTO;
 import com.example.bookstore.entity.Order;
+import com.example.bookstore.entity.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, JpaSpecificationExecutor<Order> {
     List<Order> findByUserId(Integer userId);
-}
\ No newline at end of file
+
+    // One query per page straight into DTOs; the subquery only runs for orders placed before item_count existed
+    @Query(value = "SELECT new com.example.bookstore.dto.response.OrderSummaryResponseDTO(" +
+            "o.id, o.orderDate, o.totalAmount, o.status, " +
+            "COALESCE(o.itemCount, (SELECT CAST(COALESCE(SUM(oi.quantity), 0) AS Integer) FROM OrderItem oi " +
+            "WHERE oi.order = o AND oi.orderDate = o.orderDate))) " +
+            "FROM Order o WHERE o.user.id = :userId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+    Page<OrderSummaryResponseDTO> findSummariesByUserId(@Param("userId") Integer userId, Pageable pageable);
+
+    // How many of the user's orders come before (orderDate, id) in the newest-first history
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId " +
+            "AND (o.orderDate > :orderDate OR (o.orderDate = :orderDate AND o.id > :id))")
+    long countNewerThan(@Param("userId") Integer userId,
+                        @Param("orderDate") LocalDateTime orderDate, @Param("id") Integer id);
+
+    // Oldest finished orders first; locked so a concurrent status change cannot slip in before they are archived
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderDate < :before AND o.status IN :statuses ORDER BY o.id")
+    List<Order> findArchivable(@Param("before") LocalDateTime before,
+                               @Param("statuses") Collection<OrderStatus> statuses, Pageable pageable);
+
+    // Which of these ids are still in the database; decides the fate of an archive segment left pending
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids AND o.orderDate < :before")
+    int deleteArchived(@Param("ids") Collection<Integer> ids, @Param("before") LocalDateTime before);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Integer id);
+
+    // By id within a date range from OrderPartitionManager.orderDateRange, so only those months' partitions are read
+    @Query("SELECT o FROM Order o WHERE o.id = :id AND o.orderDate >= :from AND o.orderDate < :to")
+    Optional<Order> findByIdInRange(@Param("id") Integer id,
+                                    @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id AND o.orderDate >= :from AND o.orderDate < :to")
+    Optional<Order> findByIdInRangeForUpdate(@Param("id") Integer id,
+                                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Moves every order in {@code ids} whose status is one of {@code fromStatuses} to {@code toStatus} and writes
+     * one outbox event per moved order, all in a single statement. Rows are locked in id order so concurrent
+     * batches cannot deadlock. Returns the ids that actually moved.
+     */
+    @Query(value = "WITH target AS (" +
+            "SELECT id, status AS previous_status FROM orders " +
+            "WHERE id IN (:ids) AND status IN (:fromStatuses) ORDER BY id FOR UPDATE), " +
+            "updated AS (" +
+            "UPDATE orders o SET status = :toStatus FROM target t WHERE o.id = t.id " +
+            "RETURNING o.id, o.user_id, o.order_date, o.total_amount, o.item_count, t.previous_status), " +
+            "events AS (" +
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at, next_attempt_at, attempts) " +
+            "SELECT :aggregateType, CAST(u.id AS varchar), :eventType, jsonb_build_object(" +
+            "'orderId', u.id, 'userId', u.user_id, 'orderDate', u.order_date, 'totalAmount', u.total_amount, " +
+            "'itemCount', u.item_count, 'status', CAST(:toStatus AS varchar), 'previousStatus', u.previous_status), " +
+            "now(), now(), 0 FROM updated u) " +
+            "SELECT id FROM updated",
+            nativeQuery = true)
+    List<Integer> transitionStatuses(@Param("ids") Collection<Integer> ids,
+                                     @Param("fromStatuses") Collection<String> fromStatuses,
+                                     @Param("toStatus") String toStatus,
+                                     @Param("aggregateType") String aggregateType,
+                                     @Param("eventType") String eventType);
+
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.id IN :ids")
+    List<IdAndStatus> findStatusesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    interface IdAndStatus {
+        Integer getId();
+
+        OrderStatus getStatus();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.Order;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.entity.enums.OrderStatus;
+import jakarta.persistence.criteria.Join;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Predicates for the admin order search. Each one maps to a column of {@code idx_orders_user_order_date} or
+ * {@code idx_orders_status_order_date}, or narrows rows those indexes already found.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    // Joins users: the unique email index finds the user, then (user_id, order_date) finds the orders
+    public static Specification<Order> hasUserEmail(String email) {
+        return (root, query, cb) -> {
+            Join<Order, User> user = root.join("user");
+            return cb.equal(user.get("email"), email);
+        };
+    }
+
+    public static Specification<Order> hasStatus(OrderStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Order> placedFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("orderDate"), from);
+    }
+
+    public static Specification<Order> placedBefore(LocalDateTime before) {
+        return (root, query, cb) -> cb.lessThan(root.get("orderDate"), before);
+    }
+
+    public static Specification<Order> totalAtLeast(BigDecimal min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("totalAmount"), min);
+    }
+
+    public static Specification<Order> totalAtMost(BigDecimal max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("totalAmount"), max);
+    }
+
+    // Keyset for (orderDate DESC, id DESC): everything strictly after the last row of the previous page
+    public static Specification<Order> after(LocalDateTime orderDate, Integer id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("orderDate"), orderDate),
+                cb.and(cb.equal(root.get("orderDate"), orderDate), cb.lessThan(root.get("id"), id)));
+    }
+}
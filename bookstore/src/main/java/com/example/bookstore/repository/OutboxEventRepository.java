@@ -0,0 +1,42 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Due events in commit order, at most the oldest undelivered one per aggregate: an earlier event that is
+    // failing, parked, leased or locked by another dispatcher holds back the rest of its aggregate. Rows another
+    // dispatcher already holds are skipped, not waited for
+    @Query(value = "SELECT e.* FROM outbox_events e WHERE e.published_at IS NULL AND e.next_attempt_at <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox_events p WHERE p.aggregate_type = e.aggregate_type " +
+            "AND p.aggregate_id = e.aggregate_id AND p.id < e.id AND p.published_at IS NULL) " +
+            "ORDER BY e.id LIMIT :limit FOR UPDATE OF e SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDueBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    // Claims events for delivery outside the locking transaction; they come due again if the dispatcher dies
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET next_attempt_at = :until WHERE id IN (:ids)", nativeQuery = true)
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") Instant until);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET published_at = :now, attempts = attempts + 1, last_error = NULL " +
+            "WHERE id IN (:ids)", nativeQuery = true)
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Query(value = "SELECT MIN(created_at) FROM outbox_events " +
+            "WHERE published_at IS NULL AND next_attempt_at IS NOT NULL", nativeQuery = true)
+    Instant findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE id IN " +
+            "(SELECT id FROM outbox_events WHERE published_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deletePublishedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
@@ -3,10 +3,41 @@ package com.example.bookstore.repository;
 import com.example.bookstore.entity.RefreshToken;
 import com.example.bookstore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     void deleteByUser(User user);
-}
\ No newline at end of file
+
+    // Issues the user's refresh token, replacing any previous one, in a single statement; relies on
+    // uk_refresh_tokens_user_id, which SchemaConstraints creates on existing databases
+    @Modifying
+    @Query(value = "INSERT INTO refresh_tokens (id, user_id, token, expiry_date) " +
+            "VALUES (nextval('refresh_tokens_seq'), :userId, :tokenHash, :expiryDate) " +
+            "ON CONFLICT (user_id) DO UPDATE SET token = EXCLUDED.token, expiry_date = EXCLUDED.expiry_date",
+            nativeQuery = true)
+    int upsert(@Param("userId") Integer userId,
+               @Param("tokenHash") String tokenHash,
+               @Param("expiryDate") Instant expiryDate);
+
+    // Swaps in the next token only if the presented one is still the user's live token; 0 means it was already
+    // rotated, revoked or expired, wherever that happened
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.tokenHash = :newHash, t.expiryDate = :expiryDate " +
+            "WHERE t.user.id = :userId AND t.tokenHash = :oldHash AND t.expiryDate > :now")
+    int rotate(@Param("userId") Integer userId,
+               @Param("oldHash") String oldHash,
+               @Param("newHash") String newHash,
+               @Param("expiryDate") Instant expiryDate,
+               @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN " +
+            "(SELECT id FROM refresh_tokens WHERE expiry_date < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -0,0 +1,28 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.entity.SalesRollupMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface SalesRollupMarkerRepository extends JpaRepository<SalesRollupMarker, Integer> {
+
+    // 1 if this call is the first to count the order, 0 if the event or the backfill already did
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollup_markers (order_id, counted, counted_at) VALUES (:orderId, true, now()) " +
+            "ON CONFLICT (order_id) DO NOTHING", nativeQuery = true)
+    int markCounted(@Param("orderId") Integer orderId);
+
+    /**
+     * Claims the reversal of an order. Empty if it was already reversed; otherwise whether the order had been
+     * counted, i.e. whether there is anything to subtract.
+     */
+    @Query(value = "INSERT INTO sales_rollup_markers AS m (order_id, counted, counted_at, reversed_at) " +
+            "VALUES (:orderId, false, now(), now()) " +
+            "ON CONFLICT (order_id) DO UPDATE SET reversed_at = now() WHERE m.reversed_at IS NULL " +
+            "RETURNING m.counted", nativeQuery = true)
+    List<Boolean> markReversed(@Param("orderId") Integer orderId);
+}
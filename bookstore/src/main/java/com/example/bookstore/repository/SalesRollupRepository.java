@@ -0,0 +1,70 @@
+package com.example.bookstore.repository;
+
+import com.example.bookstore.dto.response.SalesRollupResponseDTO;
+import com.example.bookstore.entity.SalesRollup;
+import com.example.bookstore.entity.enums.SalesDimension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+
+    // Tail of a WITH clause: adds :sign times the lines of the orders in CTE "counted" to all three dimensions
+    String ADD_COUNTED_ORDERS = "lines AS (" +
+            "SELECT CAST(o.order_date AS date) AS sales_date, o.id AS order_id, oi.product_id, p.category_id, " +
+            "oi.quantity, oi.subtotal FROM counted c JOIN orders o ON o.id = c.order_id " +
+            "JOIN order_items oi ON oi.order_id = o.id AND oi.order_date = o.order_date JOIN products p ON p.id = oi.product_id) " +
+            "INSERT INTO sales_rollups (sales_date, dimension, dimension_id, revenue, order_count, units) " +
+            "SELECT sales_date, 'DAY', 0, :sign * SUM(subtotal), :sign * COUNT(DISTINCT order_id), :sign * SUM(quantity) " +
+            "FROM lines GROUP BY sales_date " +
+            "UNION ALL SELECT sales_date, 'CATEGORY', category_id, :sign * SUM(subtotal), " +
+            ":sign * COUNT(DISTINCT order_id), :sign * SUM(quantity) FROM lines GROUP BY sales_date, category_id " +
+            "UNION ALL SELECT sales_date, 'PRODUCT', product_id, :sign * SUM(subtotal), " +
+            ":sign * COUNT(DISTINCT order_id), :sign * SUM(quantity) FROM lines GROUP BY sales_date, product_id " +
+            "ON CONFLICT (sales_date, dimension, dimension_id) DO UPDATE SET " +
+            "revenue = sales_rollups.revenue + EXCLUDED.revenue, " +
+            "order_count = sales_rollups.order_count + EXCLUDED.order_count, " +
+            "units = sales_rollups.units + EXCLUDED.units";
+
+    // sign = 1 counts the order, -1 takes it back out (cancellation, refund)
+    @Modifying
+    @Query(value = "WITH counted AS (SELECT CAST(:orderId AS integer) AS order_id), " + ADD_COUNTED_ORDERS,
+            nativeQuery = true)
+    int applyOrder(@Param("orderId") Integer orderId, @Param("sign") int sign);
+
+    /**
+     * Counts every order placed in [from, to) that the rollups do not reflect yet. Orders already cancelled or
+     * refunded are marked as seen and reversed without being counted. Returns the number of rollup rows written.
+     */
+    @Modifying
+    @Query(value = "WITH marked AS (" +
+            "INSERT INTO sales_rollup_markers (order_id, counted, counted_at, reversed_at) " +
+            "SELECT o.id, o.status NOT IN ('CANCELLED', 'REFUNDED'), now(), " +
+            "CASE WHEN o.status IN ('CANCELLED', 'REFUNDED') THEN now() END " +
+            "FROM orders o WHERE o.order_date >= :from AND o.order_date < :to " +
+            "ON CONFLICT (order_id) DO NOTHING RETURNING order_id, counted), " +
+            "counted AS (SELECT order_id FROM marked WHERE counted), " + ADD_COUNTED_ORDERS,
+            nativeQuery = true)
+    int backfillRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("sign") int sign);
+
+    @Query("SELECT new com.example.bookstore.dto.response.SalesRollupResponseDTO(" +
+            "r.id.salesDate, r.id.dimensionId, r.revenue, r.orderCount, r.units) " +
+            "FROM SalesRollup r WHERE r.id.dimension = :dimension AND r.id.salesDate BETWEEN :from AND :to " +
+            "ORDER BY r.id.salesDate, r.id.dimensionId")
+    List<SalesRollupResponseDTO> findByDay(@Param("dimension") SalesDimension dimension,
+                                           @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.example.bookstore.dto.response.SalesRollupResponseDTO(" +
+            "r.id.dimensionId, SUM(r.revenue), SUM(r.orderCount), SUM(r.units)) " +
+            "FROM SalesRollup r WHERE r.id.dimension = :dimension AND r.id.salesDate BETWEEN :from AND :to " +
+            "GROUP BY r.id.dimensionId ORDER BY SUM(r.revenue) DESC")
+    List<SalesRollupResponseDTO> findTotals(@Param("dimension") SalesDimension dimension,
+                                            @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                            Pageable pageable);
+}
@@ -3,12 +3,30 @@ package com.example.bookstore.repository;
 import aj.org.objectweb.asm.commons.Remapper;
 import com.example.bookstore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     boolean existsByEmail(String email);
     Optional<User> findByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    @Query("SELECT u.id AS id, u.email AS email FROM User u WHERE u.id IN :ids")
+    List<IdAndEmail> findEmailsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    interface IdAndEmail {
+        Integer getId();
+
+        String getEmail();
+    }
 }
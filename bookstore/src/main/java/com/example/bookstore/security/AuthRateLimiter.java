@@ -0,0 +1,100 @@
+package com.example.bookstore.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the credential endpoints of {@code AuthController} per client IP and per email, each endpoint with its
+ * own budget. The controller asks before it touches the database or the password hasher, so a rejected attempt
+ * costs a map lookup rather than a BCrypt verification.
+ * <p>
+ * Limits are per instance; behind a load balancer each node grants its own budget.
+ */
+@Component
+public class AuthRateLimiter {
+
+    public enum Endpoint {
+        LOGIN, REGISTER
+    }
+
+    private final boolean enabled;
+    private final Limit[] limits;
+
+    @Autowired
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${auth.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${auth.rate-limit.stripes:64}") int stripes,
+                           @Value("${auth.rate-limit.max-keys:100000}") int maxKeys,
+                           @Value("${auth.rate-limit.login.ip.capacity:20}") int loginIpCapacity,
+                           @Value("${auth.rate-limit.login.ip.refill-per-minute:20}") int loginIpRefill,
+                           @Value("${auth.rate-limit.login.email.capacity:5}") int loginEmailCapacity,
+                           @Value("${auth.rate-limit.login.email.refill-per-minute:5}") int loginEmailRefill,
+                           @Value("${auth.rate-limit.register.ip.capacity:5}") int registerIpCapacity,
+                           @Value("${auth.rate-limit.register.ip.refill-per-minute:5}") int registerIpRefill,
+                           @Value("${auth.rate-limit.register.email.capacity:3}") int registerEmailCapacity,
+                           @Value("${auth.rate-limit.register.email.refill-per-minute:1}") int registerEmailRefill) {
+        this.enabled = enabled;
+        this.limits = new Limit[Endpoint.values().length];
+        limits[Endpoint.LOGIN.ordinal()] = new Limit(
+                buckets(loginIpCapacity, loginIpRefill, stripes, maxKeys),
+                buckets(loginEmailCapacity, loginEmailRefill, stripes, maxKeys),
+                rejected(meterRegistry, Endpoint.LOGIN, "ip"),
+                rejected(meterRegistry, Endpoint.LOGIN, "email"));
+        limits[Endpoint.REGISTER.ordinal()] = new Limit(
+                buckets(registerIpCapacity, registerIpRefill, stripes, maxKeys),
+                buckets(registerEmailCapacity, registerEmailRefill, stripes, maxKeys),
+                rejected(meterRegistry, Endpoint.REGISTER, "ip"),
+                rejected(meterRegistry, Endpoint.REGISTER, "email"));
+    }
+
+    /**
+     * Spends one attempt of the client's and the email's budget for the endpoint; a null email is only limited by IP.
+     *
+     * @return 0 when the attempt may proceed, otherwise the whole seconds to wait before retrying
+     */
+    public long tryAcquire(Endpoint endpoint, String clientIp, String email) {
+        if (!enabled) {
+            return 0;
+        }
+        Limit limit = limits[endpoint.ordinal()];
+        long waitNanos = limit.byIp.tryAcquire(clientIp);
+        if (waitNanos > 0) {
+            limit.rejectedByIp.increment();
+            return toRetryAfterSeconds(waitNanos);
+        }
+        if (email != null && !email.isBlank()) {
+            waitNanos = limit.byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+            if (waitNanos > 0) {
+                limit.rejectedByEmail.increment();
+                return toRetryAfterSeconds(waitNanos);
+            }
+        }
+        return 0;
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static StripedTokenBuckets buckets(int capacity, int refillPerMinute, int stripes, int maxKeys) {
+        return new StripedTokenBuckets(capacity, refillPerMinute, stripes, maxKeys, System::nanoTime);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, Endpoint endpoint, String key) {
+        return Counter.builder("auth.rate-limit.rejected")
+                .tag("endpoint", endpoint.name().toLowerCase(Locale.ROOT))
+                .tag("key", key)
+                .description("Authentication attempts refused by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    private record Limit(StripedTokenBuckets byIp, StripedTokenBuckets byEmail,
+                         Counter rejectedByIp, Counter rejectedByEmail) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bookstore.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+
+/**
+ * The principal of a request authenticated by an access token: everything the services need about the caller,
+ * taken from the verified claims so no user lookup is made per request. {@link #getName()} is the email, so
+ * {@code Authentication.getName()} keeps returning what it did before.
+ */
+public record AuthenticatedUser(Integer id, String email, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    /**
+     * The caller of the current request; fails like a missing user when the request is not authenticated by a token.
+     */
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new RuntimeException("User not found");
+    }
+}
@@ -1,29 +1,25 @@
 package com.example.bookstore.security;
 
 import com.example.bookstore.entity.User;
+import com.example.bookstore.service.RoleRegistry;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.Collections;
 
 public class BookstoreUserDetails implements UserDetails {
     private final User user;
+    private final RoleRegistry.RoleEntry role;
 
-    public BookstoreUserDetails(User user) {
+    public BookstoreUserDetails(User user, RoleRegistry.RoleEntry role) {
         this.user = user;
+        this.role = role;
     }
 
+    // The registry's shared list: the lower-cased role name, without a ROLE_ prefix
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        String role = user.getRole().getName().toLowerCase();
-        System.out.println("Mapped role to authority: " + role);
-        // Đảm bảo vai trò không có tiền tố ROLE_
-        if (role.startsWith("ROLE_")) {
-            role = role.substring(5); // Loại bỏ tiền tố ROLE_ nếu có
-        }
-        return Collections.singletonList(new SimpleGrantedAuthority(role));
+        return role.authorities();
     }
 
     @Override
@@ -59,4 +55,8 @@ public class BookstoreUserDetails implements UserDetails {
     public User getUser() {
         return user;
     }
+
+    public RoleRegistry.RoleEntry getRole() {
+        return role;
+    }
 }
\ No newline at end of file
@@ -1,26 +1,46 @@
 package com.example.bookstore.security;
 
 import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.service.RoleRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class BookstoreUserDetailsService implements UserDetailsService {
+public class BookstoreUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
 
     @Autowired
-    public BookstoreUserDetailsService(UserRepository userRepository) {
+    public BookstoreUserDetailsService(UserRepository userRepository, RoleRegistry roleRegistry) {
         this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         return userRepository.findByEmail(email)
-                .map(BookstoreUserDetails::new)
+                .map(user -> new BookstoreUserDetails(user, roleRegistry.get(user.getRoleId())))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash was made with an older
+     * cost factor, with the password re-hashed at the current one.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        if (user instanceof BookstoreUserDetails details) {
+            details.getUser().setPassword(newPassword);
+            return details;
+        }
+        return loadUserByUsername(user.getUsername());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.example.bookstore.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The endpoints reachable without an access token. The single source for both {@link SecurityConfig}, which
+ * permits them, and {@link JwtRequestFilter}, which skips token handling for them.
+ * <p>
+ * The table is compiled once into a trie of path segments, each node recording which methods end there and which
+ * accept any remainder ({@code /**}), so a request is matched in one walk over its path with no regular expression.
+ * A {@code {id}} segment matches a numeric path segment.
+ */
+@Component
+public class PublicRoutes implements RequestMatcher {
+
+    static final List<Route> ROUTES = List.of(
+            // Logout is not listed: it needs the caller's token
+            new Route(null, "/api/auth/login"),
+            new Route(null, "/api/auth/register"),
+            new Route(null, "/api/auth/refresh-token"),
+            new Route(null, "/api/categories/**"),
+            new Route(HttpMethod.GET, "/api/products/featured"),
+            new Route(HttpMethod.GET, "/api/products/category/**"),
+            new Route(HttpMethod.GET, "/api/products/{id}"),
+            new Route(HttpMethod.GET, "/api/products/{id}/details"),
+            new Route(null, "/api/cart/**"),
+            new Route(null, "/api/roles/**"),
+            new Route(HttpMethod.GET, "/.well-known/jwks.json"),
+            new Route(null, "/swagger-ui/**"),
+            new Route(null, "/swagger-ui.html"),
+            new Route(null, "/api-docs/**"),
+            new Route(null, "/v3/api-docs/**"));
+
+    private static final List<String> METHODS = List.of(
+            "GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+    private static final int OTHER_METHOD = 1 << METHODS.size();
+    private static final int ANY_METHOD = -1;
+
+    private final Node root = new Node();
+
+    public PublicRoutes() {
+        this(ROUTES);
+    }
+
+    PublicRoutes(List<Route> routes) {
+        for (Route route : routes) {
+            add(route);
+        }
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return matches(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    public boolean matches(String method, String path) {
+        int methodBit = methodBit(method);
+        Node node = root;
+        int start = path.startsWith("/") ? 1 : 0;
+        while (true) {
+            if ((node.anyRemainder & methodBit) != 0) {
+                return true;
+            }
+            if (start > path.length()) {
+                return (node.exact & methodBit) != 0;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            Node next = node.literals.get(path.substring(start, end));
+            if (next == null && node.numeric != null && isNumber(path, start, end)) {
+                next = node.numeric;
+            }
+            if (next == null) {
+                return false;
+            }
+            node = next;
+            start = end + 1;
+        }
+    }
+
+    private void add(Route route) {
+        int methods = route.method() == null ? ANY_METHOD : methodBit(route.method().name());
+        String[] segments = route.pattern().substring(1).split("/");
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must end the pattern: " + route.pattern());
+                }
+                node.anyRemainder |= methods;
+                return;
+            }
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                if (node.numeric == null) {
+                    node.numeric = new Node();
+                }
+                node = node.numeric;
+            } else {
+                node = node.literals.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.exact |= methods;
+    }
+
+    private static int methodBit(String method) {
+        int index = METHODS.indexOf(method);
+        return index < 0 ? OTHER_METHOD : 1 << index;
+    }
+
+    private static boolean isNumber(String path, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One public endpoint: an Ant-style pattern of literal segments, {@code {id}} segments and an optional
+     * trailing {@code /**}. A {@code null} method means any method.
+     */
+    public record Route(HttpMethod method, String pattern) {
+    }
+
+    // Only written while the constructor builds the trie, read-only afterwards
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node numeric;
+        private int exact;
+        private int anyRemainder;
+    }
+}
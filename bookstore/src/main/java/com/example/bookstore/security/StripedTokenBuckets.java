@@ -0,0 +1,88 @@
+package com.example.bookstore.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by an arbitrary string (a client IP, an email), one bucket per key.
+ * <p>
+ * Keys are spread over a fixed number of stripes, each a small access-ordered map behind its own lock, so callers
+ * with different keys rarely contend and no global lock is taken. A known key costs one hash, one map lookup and
+ * a few arithmetic operations under the stripe lock, without allocating. Each stripe holds at most
+ * {@code maxKeys / stripes} buckets and drops the least recently used one beyond that, so a flood of distinct
+ * keys cannot grow memory; an evicted key simply starts again with a full bucket.
+ */
+public final class StripedTokenBuckets {
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier clock;
+
+    public StripedTokenBuckets(int capacity, int refillPerMinute, int stripeCount, int maxKeys, LongSupplier clock) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity and refill rate must be positive");
+        }
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        int maxKeysPerStripe = Math.max(1, maxKeys / size);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000.0;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 when a token was taken, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire(String key) {
+        int h = key.hashCode();
+        Stripe stripe = stripes[(h ^ (h >>> 16)) & mask];
+        long now = clock.getAsLong();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+                bucket.refilledAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+        }
+    }
+
+    private static final class Stripe {
+        final Map<String, Bucket> buckets;
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
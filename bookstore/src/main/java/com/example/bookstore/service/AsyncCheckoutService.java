@@ -0,0 +1,301 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.request.CreateOrderRequestDTO;
+import com.example.bookstore.dto.response.CheckoutStatusResponseDTO;
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.entity.enums.CheckoutStatus;
+import com.example.bookstore.exception.CheckoutNotFoundException;
+import com.example.bookstore.exception.CheckoutQueueFullException;
+import com.example.bookstore.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Async checkout ({@code orders.checkout.mode=async}): requests are validated and queued, and the cart-to-order
+ * conversion runs on a small set of virtual-thread workers instead of the request thread.
+ * <p>
+ * Work is partitioned by user id, one bounded queue and one worker per partition, so a user's checkouts run in
+ * submission order and at most {@code partitions} conversions hold a database connection at once. A full queue
+ * rejects the submission instead of buffering without limit.
+ * <p>
+ * A submission made inside a transaction (the claim of its Idempotency-Key) reserves its queue slot at once but
+ * is only queued once that transaction commits; on rollback it is dropped, so a retry with the same key cannot
+ * end up with two checkouts. Once it finishes, the outcome replaces the stored {@code 202} of its Idempotency-Key:
+ * a retry after the status handle has expired gets the final status, and a failed checkout frees the key.
+ * <p>
+ * Tickets are kept in memory only. On shutdown each worker keeps draining until no ticket holds a slot of its
+ * partition, including submissions whose transaction had not committed yet; checkouts are lost only if the
+ * instance is killed, and their cart is left as it was.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "orders.checkout.mode", havingValue = "async")
+public class AsyncCheckoutService {
+
+    private final OrderService orderService;
+    private final CartService cartService;
+    private final IdempotencyService idempotencyService;
+    private final int queueCapacity;
+    private final List<BlockingQueue<CheckoutTicket>> queues;
+    // Queue slots, taken at submission and given back when a worker picks the ticket up or it is dropped
+    private final List<Semaphore> slots;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<String, CheckoutTicket> tickets = new ConcurrentHashMap<>();
+    private final Duration statusTtl;
+    private final Timer queueWait;
+    private final Timer processing;
+    private final Counter rejected;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AsyncCheckoutService(OrderService orderService,
+                                CartService cartService,
+                                IdempotencyService idempotencyService,
+                                MeterRegistry meterRegistry,
+                                @Value("${orders.checkout.partitions:8}") int partitions,
+                                @Value("${orders.checkout.queue-capacity:1000}") int queueCapacity,
+                                @Value("${orders.checkout.status-ttl-minutes:30}") long statusTtlMinutes) {
+        this.orderService = orderService;
+        this.cartService = cartService;
+        this.idempotencyService = idempotencyService;
+        this.queueCapacity = queueCapacity;
+        this.statusTtl = Duration.ofMinutes(statusTtlMinutes);
+        this.queueWait = Timer.builder("checkout.queue.wait")
+                .description("Time a checkout spent queued before a worker picked it up")
+                .register(meterRegistry);
+        this.processing = Timer.builder("checkout.processing")
+                .description("Time spent converting a cart into an order")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("checkout.rejected")
+                .description("Checkouts rejected because their partition queue was full")
+                .register(meterRegistry);
+
+        this.queues = new ArrayList<>(partitions);
+        this.slots = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            BlockingQueue<CheckoutTicket> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            slots.add(new Semaphore(queueCapacity));
+            int partition = i;
+            Gauge.builder("checkout.queue.depth", queue, BlockingQueue::size)
+                    .tag("partition", String.valueOf(i))
+                    .description("Checkouts waiting in a partition queue")
+                    .register(meterRegistry);
+            workers.add(Thread.ofVirtual().name("checkout-worker-" + i).start(() -> drain(partition)));
+        }
+    }
+
+    public CheckoutStatusResponseDTO submit(CreateOrderRequestDTO request) {
+        return submit(request, null);
+    }
+
+    /**
+     * Queues a checkout of the caller's cart. {@code idempotencyKey}, when the submission runs under one, receives
+     * the final outcome once the checkout is done.
+     */
+    public CheckoutStatusResponseDTO submit(CreateOrderRequestDTO request, String idempotencyKey) {
+        if (!running) {
+            throw new CheckoutQueueFullException();
+        }
+        AuthenticatedUser user = AuthenticatedUser.current();
+        Integer userId = user.id();
+        // Fail now rather than answer 202 for a checkout that cannot succeed
+        if (!cartService.hasItems(userId)) {
+            throw new RuntimeException("Cart is empty");
+        }
+        int partition = Math.floorMod(userId, queues.size());
+        if (!slots.get(partition).tryAcquire()) {
+            rejected.increment();
+            throw new CheckoutQueueFullException();
+        }
+        if (!running) {
+            // Shut down after the check above; the worker may already have seen no held slot and stopped
+            slots.get(partition).release();
+            throw new CheckoutQueueFullException();
+        }
+        CheckoutTicket ticket = new CheckoutTicket(UUID.randomUUID().toString(), userId, partition, request,
+                user.getName(), idempotencyKey);
+        tickets.put(ticket.handle, ticket);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        enqueue(ticket);
+                    } else {
+                        discard(ticket);
+                    }
+                }
+            });
+        } else {
+            enqueue(ticket);
+        }
+        return toResponse(ticket);
+    }
+
+    public CheckoutStatusResponseDTO getStatus(String handle) {
+        return toResponse(findOwnTicket(handle));
+    }
+
+    /**
+     * Completes with the final status once the checkout has either produced an order or failed.
+     */
+    public CompletableFuture<CheckoutStatusResponseDTO> whenDone(String handle) {
+        CheckoutTicket ticket = findOwnTicket(handle);
+        return ticket.done.handle((order, error) -> toResponse(ticket));
+    }
+
+    @Scheduled(fixedDelayString = "${orders.checkout.status-cleanup-interval-ms:60000}")
+    public void evictFinishedTickets() {
+        Instant cutoff = Instant.now().minus(statusTtl);
+        tickets.values().removeIf(ticket -> ticket.completedAt != null && ticket.completedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Stop accepting, let workers finish what is queued or waiting for its transaction to commit
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(Duration.ofSeconds(30));
+        }
+    }
+
+    // The slot taken at submission guarantees room in the queue
+    private void enqueue(CheckoutTicket ticket) {
+        queues.get(ticket.partition).add(ticket);
+    }
+
+    private void discard(CheckoutTicket ticket) {
+        tickets.remove(ticket.handle);
+        slots.get(ticket.partition).release();
+    }
+
+    private void drain(int partition) {
+        BlockingQueue<CheckoutTicket> queue = queues.get(partition);
+        Semaphore partitionSlots = slots.get(partition);
+        // A held slot is a ticket queued or waiting for its transaction to commit: stay until there are none
+        while (running || partitionSlots.availablePermits() < queueCapacity) {
+            CheckoutTicket ticket;
+            try {
+                ticket = queue.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (ticket != null) {
+                partitionSlots.release();
+                process(ticket);
+            }
+        }
+    }
+
+    private void process(CheckoutTicket ticket) {
+        queueWait.record(Duration.between(ticket.enqueuedAt, Instant.now()));
+        ticket.status = CheckoutStatus.PROCESSING;
+        Timer.Sample sample = Timer.start();
+        try {
+            OrderResponseDTO order = orderService.createOrderForUser(ticket.userId, ticket.request);
+            ticket.order = order;
+            ticket.status = CheckoutStatus.COMPLETED;
+        } catch (RuntimeException e) {
+            log.warn("Async checkout {} for user {} failed: {}", ticket.handle, ticket.userId, e.getMessage());
+            ticket.error = e.getMessage();
+            ticket.status = CheckoutStatus.FAILED;
+        } finally {
+            sample.stop(processing);
+            ticket.completedAt = Instant.now();
+            recordOutcome(ticket);
+            ticket.done.complete(ticket.order);
+        }
+    }
+
+    private void recordOutcome(CheckoutTicket ticket) {
+        if (ticket.idempotencyKey == null) {
+            return;
+        }
+        try {
+            if (ticket.status == CheckoutStatus.COMPLETED) {
+                idempotencyService.updateResponse(ticket.principal, ticket.idempotencyKey, HttpStatus.OK,
+                        toResponse(ticket));
+            } else {
+                idempotencyService.release(ticket.principal, ticket.idempotencyKey);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unable to record the outcome of async checkout {} under its Idempotency-Key: {}",
+                    ticket.handle, e.getMessage());
+        }
+    }
+
+    private CheckoutTicket findOwnTicket(String handle) {
+        CheckoutTicket ticket = tickets.get(handle);
+        if (ticket == null || !ticket.userId.equals(AuthenticatedUser.current().id())) {
+            throw new CheckoutNotFoundException();
+        }
+        return ticket;
+    }
+
+    private CheckoutStatusResponseDTO toResponse(CheckoutTicket ticket) {
+        CheckoutStatusResponseDTO response = new CheckoutStatusResponseDTO();
+        response.setHandle(ticket.handle);
+        response.setStatus(ticket.status);
+        response.setStatusUrl("/api/orders/checkouts/" + ticket.handle);
+        response.setEnqueuedAt(ticket.enqueuedAt);
+        response.setCompletedAt(ticket.completedAt);
+        if (ticket.order != null) {
+            response.setOrderId(ticket.order.getId());
+            response.setOrder(ticket.order);
+        }
+        response.setError(ticket.error);
+        return response;
+    }
+
+    private static final class CheckoutTicket {
+        private final String handle;
+        private final Integer userId;
+        private final int partition;
+        private final CreateOrderRequestDTO request;
+        private final String principal;
+        private final String idempotencyKey;
+        private final Instant enqueuedAt = Instant.now();
+        private final CompletableFuture<OrderResponseDTO> done = new CompletableFuture<>();
+        private volatile CheckoutStatus status = CheckoutStatus.QUEUED;
+        private volatile OrderResponseDTO order;
+        private volatile String error;
+        private volatile Instant completedAt;
+
+        private CheckoutTicket(String handle, Integer userId, int partition, CreateOrderRequestDTO request,
+                               String principal, String idempotencyKey) {
+            this.handle = handle;
+            this.userId = userId;
+            this.partition = partition;
+            this.request = request;
+            this.principal = principal;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.repository.CartDocumentRepository;
+import com.example.bookstore.repository.CartRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Copies row-per-item carts into {@code cart_documents} at startup, in keyset-ordered chunks with one short
+ * transaction each. Safe to re-run: carts that already have a document are skipped, and the source rows are
+ * left in place so switching {@code cart.storage} back to {@code rows} loses nothing.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.document.migrate-on-startup", havingValue = "true")
+public class CartDocumentMigrator implements ApplicationRunner {
+
+    private final CartRepository cartRepository;
+    private final CartDocumentRepository cartDocumentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public CartDocumentMigrator(CartRepository cartRepository,
+                                CartDocumentRepository cartDocumentRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${cart.document.migration-batch-size:500}") int batchSize) {
+        this.cartRepository = cartRepository;
+        this.cartDocumentRepository = cartDocumentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    public long migrate() {
+        int afterId = 0;
+        long migrated = 0;
+        while (true) {
+            List<Integer> ids = cartRepository.findIdsAfter(afterId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            final int from = afterId;
+            final int upTo = ids.get(ids.size() - 1);
+            Integer copied = transactionTemplate.execute(status -> cartDocumentRepository.copyFromRows(from, upTo));
+            migrated += copied == null ? 0 : copied;
+            afterId = upTo;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        log.info("Migrated {} carts to document storage", migrated);
+        return migrated;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.repository.CartDocumentRepository;
+import com.example.bookstore.repository.CartItemRepository;
+import com.example.bookstore.repository.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Deletes carts (and their items) that have not been touched for {@code cart.purge.idle-days}, in both storage
+ * layouts: {@code carts}/{@code cart_items} rows and {@code cart_documents}. Each table is swept even when the other
+ * layout is active, so carts left behind by a switch of {@code cart.storage} age out too.
+ * Works in keyset-ordered chunks, each chunk in its own short transaction, and never loads entities.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class CartPurgeJob {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartDocumentRepository cartDocumentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter cartsRemoved;
+    private final Counter itemsRemoved;
+    private final Counter documentsRemoved;
+    private final Timer chunkTimer;
+    private final int idleDays;
+    private final int batchSize;
+    private final long throttleMs;
+
+    public CartPurgeJob(CartRepository cartRepository,
+                        CartItemRepository cartItemRepository,
+                        CartDocumentRepository cartDocumentRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${cart.purge.idle-days:30}") int idleDays,
+                        @Value("${cart.purge.batch-size:500}") int batchSize,
+                        @Value("${cart.purge.throttle-ms:200}") long throttleMs) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.cartDocumentRepository = cartDocumentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cartsRemoved = Counter.builder("cart.purge.carts.removed")
+                .description("Idle carts deleted by the purge job")
+                .register(meterRegistry);
+        this.itemsRemoved = Counter.builder("cart.purge.items.removed")
+                .description("Cart items deleted together with idle carts")
+                .register(meterRegistry);
+        this.documentsRemoved = Counter.builder("cart.purge.documents.removed")
+                .description("Idle cart documents deleted by the purge job")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("cart.purge.chunk")
+                .description("Time spent deleting one chunk of idle carts")
+                .register(meterRegistry);
+        this.idleDays = idleDays;
+        this.batchSize = batchSize;
+        this.throttleMs = throttleMs;
+    }
+
+    @Scheduled(cron = "${cart.purge.cron:0 30 3 * * *}")
+    public void purgeIdleCarts() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(idleDays);
+
+        PurgedChunk rows = purgeInChunks(afterId -> purgeRowChunk(cutoff, afterId));
+        cartsRemoved.increment(rows.carts());
+        itemsRemoved.increment(rows.items());
+        PurgedChunk documents = purgeInChunks(afterUserId -> purgeDocumentChunk(cutoff, afterUserId));
+        documentsRemoved.increment(documents.carts());
+
+        if (rows.carts() > 0 || documents.carts() > 0) {
+            log.info("Purged {} idle carts, {} cart items and {} cart documents not updated since {}",
+                    rows.carts(), rows.items(), documents.carts(), cutoff);
+        }
+    }
+
+    // Runs chunks until one comes back short; returns the totals (lastId is meaningless there)
+    private PurgedChunk purgeInChunks(IntFunction<PurgedChunk> purgeChunk) {
+        int afterId = 0;
+        int totalCarts = 0;
+        int totalItems = 0;
+
+        while (true) {
+            final int lastSeenId = afterId;
+            PurgedChunk chunk = chunkTimer.record(() ->
+                    transactionTemplate.execute(status -> purgeChunk.apply(lastSeenId)));
+            if (chunk == null || chunk.carts() == 0) {
+                break;
+            }
+
+            totalCarts += chunk.carts();
+            totalItems += chunk.items();
+            afterId = chunk.lastId();
+
+            if (chunk.carts() < batchSize || !throttle()) {
+                break;
+            }
+        }
+        return new PurgedChunk(afterId, totalCarts, totalItems);
+    }
+
+    private PurgedChunk purgeRowChunk(LocalDateTime cutoff, int afterId) {
+        List<Integer> ids = cartRepository.lockIdleCartIds(cutoff, afterId, batchSize);
+        if (ids.isEmpty()) {
+            return new PurgedChunk(afterId, 0, 0);
+        }
+        int items = cartItemRepository.purgeByCartIds(ids);
+        int carts = cartRepository.purgeByIds(ids);
+        return new PurgedChunk(ids.get(ids.size() - 1), carts, items);
+    }
+
+    // A document holds its lines, so there is no item table to clear first
+    private PurgedChunk purgeDocumentChunk(LocalDateTime cutoff, int afterUserId) {
+        List<Integer> userIds = cartDocumentRepository.lockIdleUserIds(cutoff, afterUserId, batchSize);
+        if (userIds.isEmpty()) {
+            return new PurgedChunk(afterUserId, 0, 0);
+        }
+        int documents = cartDocumentRepository.purgeByUserIds(userIds);
+        return new PurgedChunk(userIds.get(userIds.size() - 1), documents, 0);
+    }
+
+    private boolean throttle() {
+        if (throttleMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(throttleMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record PurgedChunk(int lastId, int carts, int items) {
+    }
+}
@@ -4,11 +4,30 @@ import com.example.bookstore.dto.request.AddCartItemRequestDTO;
 import com.example.bookstore.dto.request.UpdateCartItemRequestDTO;
 import com.example.bookstore.dto.response.CartItemResponseDTO;
 import com.example.bookstore.dto.response.CartResponseDTO;
+import com.example.bookstore.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 public interface CartService {
     CartResponseDTO getCart();
-    CartItemResponseDTO addItemToCart(AddCartItemRequestDTO request);
-    CartItemResponseDTO updateItemQuantity(Integer cartItemId, UpdateCartItemRequestDTO request);
-    void removeItemFromCart(Integer cartItemId);
-    void clearCart();
+    // Mutations take the cart version the client last saw (null = unconditional) and return/expose the new one
+    CartItemResponseDTO addItemToCart(AddCartItemRequestDTO request, Long expectedVersion);
+    CartItemResponseDTO updateItemQuantity(Integer cartItemId, UpdateCartItemRequestDTO request, Long expectedVersion);
+    Long removeItemFromCart(Integer cartItemId, Long expectedVersion);
+    Long clearCart(Long expectedVersion);
+
+    // Folds a guest cart (product id -> quantity) into the user's persistent cart in one transaction
+    void mergeGuestCart(Integer userId, Map<Integer, Integer> guestItems);
+
+    // Whether the user's cart has anything to check out; a quick look that does not load the cart
+    boolean hasItems(Integer userId);
+
+    // Empties the user's cart for checkout and returns what was in it; joins the caller's transaction
+    // so the cart is only emptied if the order commits
+    List<CheckoutLine> drainCart(Integer userId);
+
+    record CheckoutLine(Product product, Integer quantity, BigDecimal unitPrice) {
+    }
 }
\ No newline at end of file
@@ -8,34 +8,52 @@ import com.example.bookstore.entity.Cart;
 import com.example.bookstore.entity.CartItem;
 import com.example.bookstore.entity.Product;
 import com.example.bookstore.entity.User;
+import com.example.bookstore.exception.CartConflictException;
+import com.example.bookstore.exception.CartVersionMismatchException;
 import com.example.bookstore.repository.CartItemRepository;
 import com.example.bookstore.repository.CartRepository;
 import com.example.bookstore.repository.ProductRepository;
 import com.example.bookstore.repository.UserRepository;
 import com.example.bookstore.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Row-per-item cart storage ({@code carts} + {@code cart_items}), the default {@code cart.storage=rows} mode.
+ */
 @Service
+@ConditionalOnProperty(name = "cart.storage", havingValue = "rows", matchIfMissing = true)
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final OptimisticRetryExecutor retryExecutor;
 
     @Autowired
     public CartServiceImpl(CartRepository cartRepository, CartItemRepository cartItemRepository,
-                           ProductRepository productRepository, UserRepository userRepository) {
+                           ProductRepository productRepository, UserRepository userRepository,
+                           OptimisticRetryExecutor retryExecutor) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.retryExecutor = retryExecutor;
     }
 
     private User getCurrentUser() {
@@ -59,65 +77,160 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional
-    public CartItemResponseDTO addItemToCart(AddCartItemRequestDTO request) {
-        User user = getCurrentUser();
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setUser(user);
-                    return cartRepository.save(newCart);
-                });
+    public CartItemResponseDTO addItemToCart(AddCartItemRequestDTO request, Long expectedVersion) {
+        return inCartTransaction(() -> {
+            User user = getCurrentUser();
+            Cart cart = cartRepository.findByUserId(user.getId())
+                    .orElseGet(() -> {
+                        Cart newCart = new Cart();
+                        newCart.setUser(user);
+                        return cartRepository.save(newCart);
+                    });
+            checkVersion(cart, expectedVersion);
 
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+            Product product = productRepository.findById(request.getProductId())
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Kiểm tra giá sản phẩm không âm
-        if (product.getPrice().compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Product price cannot be negative");
-        }
+            // Kiểm tra giá sản phẩm không âm
+            if (product.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+                throw new IllegalArgumentException("Product price cannot be negative");
+            }
 
-        CartItem existingItem = cart.getCartItems().stream()
-                .filter(item -> item.getProduct().getId().equals(request.getProductId()))
-                .findFirst()
-                .orElse(null);
+            CartItem existingItem = cart.getCartItems().stream()
+                    .filter(item -> item.getProduct().getId().equals(request.getProductId()))
+                    .findFirst()
+                    .orElse(null);
 
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-            cartItemRepository.save(existingItem);
-            return mapToCartItemResponseDTO(existingItem);
-        }
+            if (existingItem != null) {
+                existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
+                touch(cart);
+                cartRepository.flush();
+                return mapToCartItemResponseDTO(existingItem);
+            }
 
-        CartItem cartItem = new CartItem();
-        cartItem.setCart(cart);
-        cartItem.setProduct(product);
-        cartItem.setQuantity(request.getQuantity());
-        cartItem.setUnitPrice(product.getPrice()); // Sử dụng trực tiếp BigDecimal
-        cartItemRepository.save(cartItem);
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(request.getQuantity());
+            cartItem.setUnitPrice(product.getPrice()); // Sử dụng trực tiếp BigDecimal
+            cart.getCartItems().add(cartItem);
+            cartItemRepository.save(cartItem);
+            touch(cart);
+            cartRepository.flush();
 
-        return mapToCartItemResponseDTO(cartItem);
+            return mapToCartItemResponseDTO(cartItem);
+        });
     }
 
     @Override
-    @Transactional
-    public CartItemResponseDTO updateItemQuantity(Integer cartItemId, UpdateCartItemRequestDTO request) {
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+    public CartItemResponseDTO updateItemQuantity(Integer cartItemId, UpdateCartItemRequestDTO request, Long expectedVersion) {
+        return inCartTransaction(() -> {
+            CartItem cartItem = findOwnedCartItem(cartItemId);
+            Cart cart = cartItem.getCart();
+            checkVersion(cart, expectedVersion);
 
-        User user = getCurrentUser();
-        if (!cartItem.getCart().getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized access to cart item");
+            cartItem.setQuantity(request.getQuantity());
+            touch(cart);
+            cartRepository.flush();
+
+            return mapToCartItemResponseDTO(cartItem);
+        });
+    }
+
+    @Override
+    public Long removeItemFromCart(Integer cartItemId, Long expectedVersion) {
+        return inCartTransaction(() -> {
+            CartItem cartItem = findOwnedCartItem(cartItemId);
+            Cart cart = cartItem.getCart();
+            checkVersion(cart, expectedVersion);
+
+            cart.getCartItems().remove(cartItem);
+            touch(cart);
+            cartRepository.flush();
+            return cart.getVersion();
+        });
+    }
+
+    @Override
+    public Long clearCart(Long expectedVersion) {
+        return inCartTransaction(() -> {
+            User user = getCurrentUser();
+            Cart cart = cartRepository.findByUserId(user.getId())
+                    .orElseThrow(() -> new RuntimeException("Cart not found"));
+            checkVersion(cart, expectedVersion);
+
+            cart.getCartItems().clear();
+            touch(cart);
+            cartRepository.flush();
+            return cart.getVersion();
+        });
+    }
+
+    @Override
+    public void mergeGuestCart(Integer userId, Map<Integer, Integer> guestItems) {
+        if (guestItems.isEmpty()) {
+            return;
         }
+        inCartTransaction(() -> {
+            Cart cart = cartRepository.findByUserId(userId)
+                    .orElseGet(() -> {
+                        Cart newCart = new Cart();
+                        newCart.setUser(userRepository.getReferenceById(userId));
+                        return cartRepository.save(newCart);
+                    });
+
+            Map<Integer, CartItem> existingByProduct = cart.getCartItems().stream()
+                    .collect(Collectors.toMap(item -> item.getProduct().getId(), Function.identity()));
+            List<CartItem> newItems = new ArrayList<>();
 
-        cartItem.setQuantity(request.getQuantity());
-        cartItemRepository.save(cartItem);
+            // Products that disappeared since the guest added them are dropped silently
+            for (Product product : productRepository.findAllById(guestItems.keySet())) {
+                int quantity = guestItems.get(product.getId());
+                CartItem existingItem = existingByProduct.get(product.getId());
+                if (existingItem != null) {
+                    existingItem.setQuantity(existingItem.getQuantity() + quantity);
+                    continue;
+                }
+                CartItem cartItem = new CartItem();
+                cartItem.setCart(cart);
+                cartItem.setProduct(product);
+                cartItem.setQuantity(quantity);
+                cartItem.setUnitPrice(product.getPrice());
+                newItems.add(cartItem);
+            }
 
-        return mapToCartItemResponseDTO(cartItem);
+            cart.getCartItems().addAll(newItems);
+            cartItemRepository.saveAll(newItems);
+            touch(cart);
+            cartRepository.flush();
+            return null;
+        });
     }
 
     @Override
-    @Transactional
-    public void removeItemFromCart(Integer cartItemId) {
+    @Transactional(readOnly = true)
+    public boolean hasItems(Integer userId) {
+        return cartItemRepository.existsByCartUserId(userId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<CheckoutLine> drainCart(Integer userId) {
+        Cart cart = cartRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Cart is empty"));
+        if (cart.getCartItems().isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        List<CheckoutLine> lines = cart.getCartItems().stream()
+                .map(item -> new CheckoutLine(item.getProduct(), item.getQuantity(), item.getUnitPrice()))
+                .collect(Collectors.toList());
+        cart.getCartItems().clear();
+        touch(cart);
+        return lines;
+    }
+
+    private CartItem findOwnedCartItem(Integer cartItemId) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
@@ -125,19 +238,28 @@ public class CartServiceImpl implements CartService {
         if (!cartItem.getCart().getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Unauthorized access to cart item");
         }
+        return cartItem;
+    }
 
-        cartItemRepository.delete(cartItem);
+    // Every cart mutation runs through here: one transaction per attempt, re-run on a lost optimistic-lock race
+    private <T> T inCartTransaction(Supplier<T> mutation) {
+        try {
+            return retryExecutor.execute(mutation);
+        } catch (OptimisticLockingFailureException e) {
+            throw new CartConflictException();
+        }
     }
 
-    @Override
-    @Transactional
-    public void clearCart() {
-        User user = getCurrentUser();
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
+    private void checkVersion(Cart cart, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(cart.getVersion())) {
+            throw new CartVersionMismatchException(expectedVersion, cart.getVersion());
+        }
+    }
 
-        cart.getCartItems().clear();
-        cartRepository.save(cart);
+    // Item changes do not dirty the cart row, so bump updatedAt explicitly. This also bumps the cart version,
+    // which makes every item mutation conflict with concurrent ones, and the idle-cart purge keys off updatedAt.
+    private void touch(Cart cart) {
+        cart.setUpdatedAt(LocalDateTime.now());
     }
 
     private CartResponseDTO mapToCartResponseDTO(Cart cart) {
@@ -146,6 +268,7 @@ public class CartServiceImpl implements CartService {
         cartDTO.setUserId(cart.getUser().getId());
         cartDTO.setCreatedAt(cart.getCreatedAt());
         cartDTO.setUpdatedAt(cart.getUpdatedAt());
+        cartDTO.setVersion(cart.getVersion());
         cartDTO.setCartItems(cart.getCartItems().stream()
                 .map(this::mapToCartItemResponseDTO)
                 .collect(Collectors.toList()));
@@ -169,6 +292,7 @@ public class CartServiceImpl implements CartService {
         cartItemDTO.setUnitPrice(cartItem.getUnitPrice());
         cartItemDTO.setSubtotal(cartItem.getUnitPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
         cartItemDTO.setAddedAt(cartItem.getAddedAt());
+        cartItemDTO.setCartVersion(cartItem.getCart().getVersion());
         return cartItemDTO;
     }
 }
\ No newline at end of file
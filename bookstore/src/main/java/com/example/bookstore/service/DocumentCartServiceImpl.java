@@ -0,0 +1,289 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.request.AddCartItemRequestDTO;
+import com.example.bookstore.dto.request.UpdateCartItemRequestDTO;
+import com.example.bookstore.dto.response.CartItemResponseDTO;
+import com.example.bookstore.dto.response.CartResponseDTO;
+import com.example.bookstore.entity.CartDocument;
+import com.example.bookstore.entity.CartDocumentItem;
+import com.example.bookstore.entity.Product;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.exception.CartConflictException;
+import com.example.bookstore.exception.CartVersionMismatchException;
+import com.example.bookstore.repository.CartDocumentRepository;
+import com.example.bookstore.repository.ProductRepository;
+import com.example.bookstore.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cart stored as a single {@code cart_documents} row with a JSONB array of lines ({@code cart.storage=document}).
+ * A cart read is one primary-key lookup plus one batched product lookup, and a write rewrites one row.
+ * Lines have no id of their own, so the product id doubles as the cart item id in the API.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.storage", havingValue = "document")
+public class DocumentCartServiceImpl implements CartService {
+
+    private final CartDocumentRepository cartDocumentRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final OptimisticRetryExecutor retryExecutor;
+
+    @Autowired
+    public DocumentCartServiceImpl(CartDocumentRepository cartDocumentRepository, ProductRepository productRepository,
+                                   UserRepository userRepository, OptimisticRetryExecutor retryExecutor) {
+        this.cartDocumentRepository = cartDocumentRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.retryExecutor = retryExecutor;
+    }
+
+    private User getCurrentUser() {
+        // Tạm thời trả về user với ID = 1 để test mà không cần xác thực
+        return userRepository.findById(1)
+                .orElseThrow(() -> new RuntimeException("Default user not found. Please ensure a user with ID 1 exists in the database."));
+    }
+
+    @Override
+    @Transactional
+    public CartResponseDTO getCart() {
+        CartDocument cart = findOrCreate(getCurrentUser().getId());
+        return mapToCartResponseDTO(cart);
+    }
+
+    @Override
+    public CartItemResponseDTO addItemToCart(AddCartItemRequestDTO request, Long expectedVersion) {
+        return inCartTransaction(() -> {
+            CartDocument cart = findOrCreate(getCurrentUser().getId());
+            checkVersion(cart, expectedVersion);
+
+            Product product = productRepository.findById(request.getProductId())
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+
+            // Kiểm tra giá sản phẩm không âm
+            if (product.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+                throw new IllegalArgumentException("Product price cannot be negative");
+            }
+
+            CartDocumentItem item = findItem(cart, product.getId());
+            if (item != null) {
+                item.setQuantity(item.getQuantity() + request.getQuantity());
+            } else {
+                item = new CartDocumentItem();
+                item.setProductId(product.getId());
+                item.setQuantity(request.getQuantity());
+                item.setUnitPrice(product.getPrice());
+                item.setAddedAt(LocalDateTime.now());
+                cart.getItems().add(item);
+            }
+            touch(cart);
+            cartDocumentRepository.flush();
+
+            return mapToCartItemResponseDTO(cart, item, product);
+        });
+    }
+
+    @Override
+    public CartItemResponseDTO updateItemQuantity(Integer productId, UpdateCartItemRequestDTO request, Long expectedVersion) {
+        return inCartTransaction(() -> {
+            CartDocument cart = cartDocumentRepository.findById(getCurrentUser().getId())
+                    .orElseThrow(() -> new RuntimeException("Cart item not found"));
+            checkVersion(cart, expectedVersion);
+
+            CartDocumentItem item = findItem(cart, productId);
+            if (item == null) {
+                throw new RuntimeException("Cart item not found");
+            }
+            item.setQuantity(request.getQuantity());
+            touch(cart);
+            cartDocumentRepository.flush();
+
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            return mapToCartItemResponseDTO(cart, item, product);
+        });
+    }
+
+    @Override
+    public Long removeItemFromCart(Integer productId, Long expectedVersion) {
+        return inCartTransaction(() -> {
+            CartDocument cart = cartDocumentRepository.findById(getCurrentUser().getId())
+                    .orElseThrow(() -> new RuntimeException("Cart item not found"));
+            checkVersion(cart, expectedVersion);
+
+            if (!cart.getItems().removeIf(item -> item.getProductId().equals(productId))) {
+                throw new RuntimeException("Cart item not found");
+            }
+            touch(cart);
+            cartDocumentRepository.flush();
+            return cart.getVersion();
+        });
+    }
+
+    @Override
+    public Long clearCart(Long expectedVersion) {
+        return inCartTransaction(() -> {
+            CartDocument cart = cartDocumentRepository.findById(getCurrentUser().getId())
+                    .orElseThrow(() -> new RuntimeException("Cart not found"));
+            checkVersion(cart, expectedVersion);
+
+            cart.getItems().clear();
+            touch(cart);
+            cartDocumentRepository.flush();
+            return cart.getVersion();
+        });
+    }
+
+    @Override
+    public void mergeGuestCart(Integer userId, Map<Integer, Integer> guestItems) {
+        if (guestItems.isEmpty()) {
+            return;
+        }
+        inCartTransaction(() -> {
+            CartDocument cart = findOrCreate(userId);
+            // Products that disappeared since the guest added them are dropped silently
+            for (Product product : productRepository.findAllById(guestItems.keySet())) {
+                int quantity = guestItems.get(product.getId());
+                CartDocumentItem item = findItem(cart, product.getId());
+                if (item != null) {
+                    item.setQuantity(item.getQuantity() + quantity);
+                    continue;
+                }
+                item = new CartDocumentItem();
+                item.setProductId(product.getId());
+                item.setQuantity(quantity);
+                item.setUnitPrice(product.getPrice());
+                item.setAddedAt(LocalDateTime.now());
+                cart.getItems().add(item);
+            }
+            touch(cart);
+            cartDocumentRepository.flush();
+            return null;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasItems(Integer userId) {
+        return cartDocumentRepository.hasItems(userId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<CheckoutLine> drainCart(Integer userId) {
+        CartDocument cart = cartDocumentRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Cart is empty"));
+        if (cart.getItems().isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        Map<Integer, Product> products = loadProducts(cart);
+        List<CheckoutLine> lines = cart.getItems().stream()
+                .map(item -> {
+                    Product product = products.get(item.getProductId());
+                    if (product == null) {
+                        throw new RuntimeException("Product not found");
+                    }
+                    return new CheckoutLine(product, item.getQuantity(), item.getUnitPrice());
+                })
+                .collect(Collectors.toList());
+        cart.getItems().clear();
+        touch(cart);
+        return lines;
+    }
+
+    private CartDocument findOrCreate(Integer userId) {
+        return cartDocumentRepository.findById(userId)
+                .orElseGet(() -> {
+                    CartDocument newCart = new CartDocument();
+                    newCart.setUserId(userId);
+                    return cartDocumentRepository.save(newCart);
+                });
+    }
+
+    private CartDocumentItem findItem(CartDocument cart, Integer productId) {
+        return cart.getItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Map<Integer, Product> loadProducts(CartDocument cart) {
+        List<Integer> productIds = cart.getItems().stream()
+                .map(CartDocumentItem::getProductId)
+                .collect(Collectors.toList());
+        return productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private <T> T inCartTransaction(Supplier<T> mutation) {
+        try {
+            return retryExecutor.execute(mutation);
+        } catch (OptimisticLockingFailureException e) {
+            throw new CartConflictException();
+        }
+    }
+
+    private void checkVersion(CartDocument cart, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(cart.getVersion())) {
+            throw new CartVersionMismatchException(expectedVersion, cart.getVersion());
+        }
+    }
+
+    // In-place edits of the JSON lines are not always seen by dirty checking; touching the row guarantees
+    // the document is rewritten and the version bumped
+    private void touch(CartDocument cart) {
+        cart.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private CartResponseDTO mapToCartResponseDTO(CartDocument cart) {
+        Map<Integer, Product> products = loadProducts(cart);
+
+        CartResponseDTO cartDTO = new CartResponseDTO();
+        cartDTO.setId(cart.getUserId());
+        cartDTO.setUserId(cart.getUserId());
+        cartDTO.setCreatedAt(cart.getCreatedAt());
+        cartDTO.setUpdatedAt(cart.getUpdatedAt());
+        cartDTO.setVersion(cart.getVersion());
+        cartDTO.setCartItems(cart.getItems().stream()
+                .map(item -> mapToCartItemResponseDTO(cart, item, products.get(item.getProductId())))
+                .collect(Collectors.toList()));
+
+        BigDecimal totalAmount = cart.getItems().stream()
+                .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        cartDTO.setTotalAmount(totalAmount);
+
+        return cartDTO;
+    }
+
+    private CartItemResponseDTO mapToCartItemResponseDTO(CartDocument cart, CartDocumentItem item, Product product) {
+        CartItemResponseDTO cartItemDTO = new CartItemResponseDTO();
+        cartItemDTO.setId(item.getProductId());
+        cartItemDTO.setCartId(cart.getUserId());
+        cartItemDTO.setProductId(item.getProductId());
+        if (product != null) {
+            cartItemDTO.setProductName(product.getName());
+            cartItemDTO.setImageUrl(product.getImageUrl());
+        }
+        cartItemDTO.setQuantity(item.getQuantity());
+        cartItemDTO.setUnitPrice(item.getUnitPrice());
+        cartItemDTO.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        cartItemDTO.setAddedAt(item.getAddedAt());
+        cartItemDTO.setCartVersion(cart.getVersion());
+        return cartItemDTO;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.request.AddCartItemRequestDTO;
+import com.example.bookstore.dto.request.UpdateCartItemRequestDTO;
+import com.example.bookstore.dto.response.GuestCartItemResponseDTO;
+import com.example.bookstore.dto.response.GuestCartResponseDTO;
+import com.example.bookstore.exception.ErrorCode;
+import com.example.bookstore.exception.InvalidGuestCartException;
+import com.example.bookstore.util.GuestCart;
+import com.example.bookstore.util.GuestCartCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Cart for anonymous visitors. The whole cart lives in a signed token the client sends back on every request,
+ * so nothing here touches the database; products are only resolved when the cart is merged on login.
+ */
+@Service
+public class GuestCartService {
+
+    private final GuestCartCodec codec;
+
+    @Autowired
+    public GuestCartService(GuestCartCodec codec) {
+        this.codec = codec;
+    }
+
+    public GuestCartResponseDTO getCart(String token) {
+        GuestCart cart = codec.decode(token);
+        return toResponse(cart, cart.isEmpty() ? null : token);
+    }
+
+    public GuestCartResponseDTO addItem(String token, AddCartItemRequestDTO request) {
+        return mutate(token, items -> {
+            if (!items.containsKey(request.getProductId()) && items.size() >= codec.getMaxItems()) {
+                throw new InvalidGuestCartException(ErrorCode.CART_GUEST_LIMIT_EXCEEDED);
+            }
+            items.merge(request.getProductId(), request.getQuantity(), Integer::sum);
+        });
+    }
+
+    public GuestCartResponseDTO updateItemQuantity(String token, Integer productId, UpdateCartItemRequestDTO request) {
+        return mutate(token, items -> {
+            if (items.replace(productId, request.getQuantity()) == null) {
+                throw new RuntimeException("Cart item not found");
+            }
+        });
+    }
+
+    public GuestCartResponseDTO removeItem(String token, Integer productId) {
+        return mutate(token, items -> items.remove(productId));
+    }
+
+    /**
+     * Verified contents of a guest cart token, for merging into a persistent cart.
+     */
+    public Map<Integer, Integer> readItems(String token) {
+        return codec.decode(token).items();
+    }
+
+    private GuestCartResponseDTO mutate(String token, Consumer<Map<Integer, Integer>> change) {
+        Map<Integer, Integer> items = new LinkedHashMap<>(codec.decode(token).items());
+        change.accept(items);
+        // Re-issuing on every write slides the expiry window forward for carts still in use
+        GuestCart updated = new GuestCart(Instant.now().getEpochSecond(), items);
+        return toResponse(updated, updated.isEmpty() ? null : codec.encode(updated));
+    }
+
+    private GuestCartResponseDTO toResponse(GuestCart cart, String token) {
+        GuestCartResponseDTO response = new GuestCartResponseDTO();
+        response.setToken(token);
+        response.setCartItems(cart.items().entrySet().stream()
+                .map(entry -> new GuestCartItemResponseDTO(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+        response.setTotalQuantity(cart.items().values().stream().mapToInt(Integer::intValue).sum());
+        return response;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bookstore.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves each entity id sequence past the ids already in its table. The tables used to be filled through
+ * identity columns, so on the first start after the switch to pooled sequences a fresh {@code <table>_seq}
+ * would hand out ids that exist. Runs after Hibernate has created the sequences and before any request is
+ * served; a sequence that is already ahead is left alone.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceAligner {
+
+    static final List<String> TABLES = List.of("users", "roles", "categories", "products", "product_reviews",
+            "refresh_tokens", "carts", "cart_items", "orders", "order_items");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        for (String table : TABLES) {
+            String sequence = table + "_seq";
+            List<Map<String, Object>> state = jdbcTemplate.queryForList("SELECT start_value, increment_by, last_value " +
+                    "FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?", sequence);
+            if (state.isEmpty() || !isTable(table)) {
+                continue;
+            }
+            long increment = ((Number) state.get(0).get("increment_by")).longValue();
+            Number lastValue = (Number) state.get(0).get("last_value");
+            long next = lastValue == null ? ((Number) state.get(0).get("start_value")).longValue()
+                    : lastValue.longValue() + increment;
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // The pooled optimizer hands out (value - increment, value], so the whole block must lie above maxId
+            if (maxId != null && maxId > 0 && next - increment < maxId) {
+                jdbcTemplate.queryForObject("SELECT setval(?, ?, false)", Long.class, sequence, maxId + increment);
+                log.info("Moved sequence {} to {} (max id in {} is {})", sequence, maxId + increment, table, maxId);
+            }
+        }
+    }
+
+    private boolean isTable(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+}
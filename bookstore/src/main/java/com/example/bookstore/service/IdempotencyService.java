@@ -0,0 +1,249 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.IdempotencyRecord;
+import com.example.bookstore.exception.IdempotencyKeyReusedException;
+import com.example.bookstore.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs an operation at most once per (principal, Idempotency-Key) and replays its serialized response
+ * byte-for-byte on retries.
+ * <p>
+ * Two tiers: an in-memory map answers retries and collapses concurrent duplicates on this instance without
+ * touching the database; the {@code idempotency_keys} row is claimed in the same transaction as the operation,
+ * so duplicates arriving on other instances block on the unique index and then replay the committed response.
+ * A failed operation rolls back its claim, leaving the key free for the next attempt. A key past its TTL is free
+ * as well, whether or not {@link #evictExpired} has deleted its row yet.
+ * <p>
+ * A {@code 202 Accepted} response only acknowledges work that finishes later (async checkout). It is not kept in
+ * memory, so retries read the row, which {@link #updateResponse} overwrites with the final outcome or
+ * {@link #release} deletes when the work fails.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int maxEntries;
+    private final int cleanupBatchSize;
+    private final Timer overhead;
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${orders.idempotency.max-memory-entries:100000}") int maxEntries,
+                              @Value("${orders.idempotency.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.maxEntries = maxEntries;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.overhead = Timer.builder("idempotency.overhead")
+                .description("Time spent in the idempotency layer, excluding the guarded operation")
+                .register(meterRegistry);
+        this.memoryReplays = Counter.builder("idempotency.replays")
+                .tag("source", "memory")
+                .description("Requests answered from a previous execution")
+                .register(meterRegistry);
+        this.databaseReplays = Counter.builder("idempotency.replays")
+                .tag("source", "database")
+                .description("Requests answered from a previous execution")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executes {@code operation} unless this key already has a response for the same request, in which case that
+     * response is returned instead. Concurrent calls with the same key wait for the first one.
+     */
+    public StoredResponse execute(String principal, String key, Object request, Supplier<?> operation) {
+        return execute(principal, key, request, HttpStatus.OK, operation);
+    }
+
+    public StoredResponse execute(String principal, String key, Object request, HttpStatus successStatus,
+                                  Supplier<?> operation) {
+        long startedAt = System.nanoTime();
+        String requestHash = hash(request);
+        String cacheKey = principal + '\n' + key;
+
+        Entry entry = new Entry(requestHash);
+        while (true) {
+            Entry existing = entries.putIfAbsent(cacheKey, entry);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.isExpired()) {
+                if (!existing.requestHash.equals(requestHash)) {
+                    throw new IdempotencyKeyReusedException();
+                }
+                StoredResponse response = await(existing);
+                memoryReplays.increment();
+                overhead.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                return response.asReplay();
+            }
+            entries.remove(cacheKey, existing);
+        }
+        if (entries.size() > maxEntries) {
+            // Over budget: stop remembering this one once it is done; the database row stays authoritative
+            entry.future.whenComplete((response, error) -> entries.remove(cacheKey, entry));
+        }
+
+        long[] operationNanos = new long[1];
+        try {
+            StoredResponse response = transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                if (idempotencyRecordRepository.claim(principal, key, requestHash, now, now.plus(ttl)) == 0) {
+                    return replayFromDatabase(principal, key, requestHash);
+                }
+                long operationStartedAt = System.nanoTime();
+                Object body = operation.get();
+                operationNanos[0] = System.nanoTime() - operationStartedAt;
+
+                byte[] bytes = serialize(body);
+                idempotencyRecordRepository.complete(principal, key, successStatus.value(), bytes);
+                return new StoredResponse(successStatus.value(), bytes, false);
+            });
+            entry.expiresAt = System.currentTimeMillis() + ttl.toMillis();
+            entry.future.complete(response);
+            if (response.status() == HttpStatus.ACCEPTED.value()) {
+                entries.remove(cacheKey, entry);
+            }
+            overhead.record(System.nanoTime() - startedAt - operationNanos[0], TimeUnit.NANOSECONDS);
+            return response;
+        } catch (RuntimeException e) {
+            entries.remove(cacheKey, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the stored response of a key whose work finished after its response was sent, so retries replay
+     * the outcome instead of the acknowledgement.
+     */
+    public void updateResponse(String principal, String key, HttpStatus status, Object body) {
+        byte[] bytes = serialize(body);
+        transactionTemplate.executeWithoutResult(s ->
+                idempotencyRecordRepository.complete(principal, key, status.value(), bytes));
+        entries.remove(principal + '\n' + key);
+    }
+
+    /**
+     * Frees a key whose work failed after its response was sent, so the next attempt runs it again.
+     */
+    public void release(String principal, String key) {
+        transactionTemplate.executeWithoutResult(s -> idempotencyRecordRepository.release(principal, key));
+        entries.remove(principal + '\n' + key);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-interval-ms:600000}")
+    public void evictExpired() {
+        entries.values().removeIf(Entry::isExpired);
+
+        int deleted;
+        long total = 0;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.deleteExpired(Instant.now(), cleanupBatchSize));
+            total += deleted;
+        } while (deleted >= cleanupBatchSize);
+        if (total > 0) {
+            log.debug("Deleted {} expired idempotency keys", total);
+        }
+    }
+
+    private StoredResponse replayFromDatabase(String principal, String key, String requestHash) {
+        IdempotencyRecord record = idempotencyRecordRepository.findByPrincipalAndIdempotencyKey(principal, key)
+                .orElseThrow(() -> new IllegalStateException("Idempotency key vanished while claimed: " + key));
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        databaseReplays.increment();
+        return new StoredResponse(record.getResponseStatus(), record.getResponseBody(), true);
+    }
+
+    private StoredResponse await(Entry entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Unable to fingerprint request", e);
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize response", e);
+        }
+    }
+
+    /**
+     * Serialized response of the first execution. {@code replayed} is false only for the call that executed.
+     */
+    public record StoredResponse(int status, byte[] body, boolean replayed) {
+        StoredResponse asReplay() {
+            return replayed ? this : new StoredResponse(status, body, true);
+        }
+    }
+
+    private static final class Entry {
+        private final String requestHash;
+        private final CompletableFuture<StoredResponse> future = new CompletableFuture<>();
+        // Long.MAX_VALUE while the operation is still running
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bookstore.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action in its own transaction and re-runs it when the commit loses an optimistic-lock race.
+ * Each attempt starts a fresh persistence context, so the action must re-read whatever it mutates.
+ * Must not be called from inside an existing transaction: a conflict would poison the outer one.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Counter conflicts;
+    private final Counter exhausted;
+
+    @Autowired
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cart.retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${cart.retry.base-delay-ms:10}") long baseDelayMs,
+                                   @Value("${cart.retry.max-delay-ms:200}") long maxDelayMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.conflicts = Counter.builder("optimistic.retry.conflicts")
+                .description("Optimistic lock conflicts that triggered a retry")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("optimistic.retry.exhausted")
+                .description("Operations that still conflicted after the last attempt")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Full jitter: sleep a random time in [0, min(maxDelay, baseDelay * 2^(attempt-1))]
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (delay == 0) {
+            Thread.onSpinWait();
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off an optimistic retry", e);
+        }
+    }
+}
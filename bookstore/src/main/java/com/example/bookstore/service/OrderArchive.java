@@ -0,0 +1,174 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Cold storage for orders moved out of the database by {@link OrderArchiveJob}: a directory of append-only
+ * {@link OrderArchiveSegment} files, all memory-mapped. Lookups only happen after a database miss, so the
+ * live path pays nothing while the archive is empty.
+ * <p>
+ * A segment is first written as a pending file and only renamed and opened once the rows it holds have been
+ * deleted, so an order is never live and archived at once. A pending file left by a crash is published at
+ * startup if its orders are gone from the database, and dropped if the delete never committed; the next run
+ * archives those orders again.
+ */
+@Slf4j
+@Component
+public class OrderArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String PENDING_SUFFIX = ".pending";
+
+    // The order history's order: newest first, ties by id
+    public static final Comparator<OrderResponseDTO> NEWEST_FIRST = Comparator
+            .comparing(OrderResponseDTO::getOrderDate).thenComparing(OrderResponseDTO::getId).reversed();
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int ordersPerBlock;
+    private final List<OrderArchiveSegment> segments = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public OrderArchive(ObjectMapper objectMapper,
+                        OrderRepository orderRepository,
+                        @Value("${orders.archive.directory:data/order-archive}") Path directory,
+                        @Value("${orders.archive.orders-per-block:64}") int ordersPerBlock) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.ordersPerBlock = ordersPerBlock;
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(PENDING_SUFFIX)).toList()) {
+                    recoverPending(file, orderRepository);
+                }
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                    segments.add(OrderArchiveSegment.open(file, objectMapper));
+                }
+            }
+            log.info("Opened {} order archive segments in {}", segments.size(), directory);
+        }
+    }
+
+    /**
+     * Writes {@code orders} as a new segment and makes it visible to readers. Returns the segment file.
+     */
+    public Path append(List<OrderResponseDTO> orders) {
+        return publish(writePending(orders));
+    }
+
+    /**
+     * Writes {@code orders} as a segment readers do not see yet; {@link #publish} or {@link #discard} it once the
+     * fate of the rows is known.
+     */
+    public Path writePending(List<OrderResponseDTO> orders) {
+        List<OrderResponseDTO> sorted = orders.stream().sorted(Comparator.comparing(OrderResponseDTO::getId)).toList();
+        Path file = directory.resolve(String.format("orders-%010d-%010d-%d%s", sorted.get(0).getId(),
+                sorted.get(sorted.size() - 1).getId(), System.currentTimeMillis(), PENDING_SUFFIX));
+        try {
+            Files.createDirectories(directory);
+            OrderArchiveSegment.write(file, sorted, ordersPerBlock, objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write order archive segment " + file, e);
+        }
+        return file;
+    }
+
+    public Path publish(Path pending) {
+        Path file = segmentFile(pending);
+        try {
+            Files.move(pending, file, StandardCopyOption.ATOMIC_MOVE);
+            segments.add(OrderArchiveSegment.open(file, objectMapper));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to publish order archive segment " + file, e);
+        }
+        return file;
+    }
+
+    public void discard(Path pending) {
+        try {
+            Files.deleteIfExists(pending);
+        } catch (IOException e) {
+            log.warn("Unable to delete pending order archive segment {}", pending, e);
+        }
+    }
+
+    // The archive run that wrote it stopped before or after its delete committed; the rows tell which
+    private void recoverPending(Path file, OrderRepository orderRepository) throws IOException {
+        List<Integer> ids = OrderArchiveSegment.open(file, objectMapper).orderIds();
+        if (orderRepository.findExistingIds(ids).isEmpty()) {
+            log.warn("Publishing order archive segment {} left pending by an interrupted run", file);
+            Files.move(file, segmentFile(file), StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            log.warn("Dropping order archive segment {}: its orders are still in the database", file);
+            Files.delete(file);
+        }
+    }
+
+    public Optional<OrderResponseDTO> findOrder(Integer orderId) {
+        for (OrderArchiveSegment segment : segments) {
+            Optional<OrderResponseDTO> order = segment.findOrder(orderId);
+            if (order.isPresent()) {
+                return order;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int countByUser(Integer userId) {
+        int count = 0;
+        for (OrderArchiveSegment segment : segments) {
+            count += segment.countByUser(userId);
+        }
+        return count;
+    }
+
+    /**
+     * An upper bound on the date of the user's archived orders, read from the segment footers without inflating
+     * any block; empty when none of them is archived.
+     */
+    public Optional<LocalDateTime> newestOrderDate(Integer userId) {
+        return segments.stream()
+                .filter(segment -> segment.countByUser(userId) > 0)
+                .map(OrderArchiveSegment::newestOrderDate)
+                .max(Comparator.naturalOrder());
+    }
+
+    // Newest first, like the order history
+    public List<OrderResponseDTO> findByUser(Integer userId) {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, OrderResponseDTO> orders = new LinkedHashMap<>();
+        for (OrderArchiveSegment segment : segments) {
+            segment.findByUser(userId).forEach(order -> orders.putIfAbsent(order.getId(), order));
+        }
+        return orders.values().stream().sorted(NEWEST_FIRST).toList();
+    }
+
+    private static Path segmentFile(Path pending) {
+        String name = pending.getFileName().toString();
+        return pending.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()) + SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.entity.Order;
+import com.example.bookstore.entity.OrderItem;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.repository.OrderItemRepository;
+import com.example.bookstore.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves finished orders older than {@code orders.archive.after-months} (whole months), with their items, from
+ * the database into {@link OrderArchive} segments. Each batch writes a pending segment, deletes the rows, and
+ * publishes the segment only once that transaction has committed; on rollback the segment is dropped and the
+ * rows stay live for the next run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true")
+public class OrderArchiveJob {
+
+    // Only terminal statuses: a delivered order can still be refunded, so it stays in the database whatever its age
+    private static final Set<OrderStatus> ARCHIVABLE = EnumSet.of(OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final int afterMonths;
+    private final int batchSize;
+
+    @Autowired
+    public OrderArchiveJob(OrderRepository orderRepository,
+                           OrderItemRepository orderItemRepository,
+                           OrderArchive orderArchive,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${orders.archive.after-months:24}") int afterMonths,
+                           @Value("${orders.archive.batch-size:10000}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.afterMonths = afterMonths;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 0 4 * * *}")
+    public void archiveOldOrders() {
+        LocalDateTime before = YearMonth.now().minusMonths(afterMonths).atDay(1).atStartOfDay();
+        long archived = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> archiveBatch(before));
+            archived += batch;
+        } while (batch >= batchSize);
+        if (archived > 0) {
+            log.info("Archived {} orders placed before {}", archived, before);
+        }
+    }
+
+    int archiveBatch(LocalDateTime before) {
+        List<Order> orders = orderRepository.findArchivable(before, ARCHIVABLE, PageRequest.of(0, batchSize));
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = orders.stream().map(Order::getId).toList();
+        LocalDateTime from = orders.stream().map(Order::getOrderDate).min(Comparator.naturalOrder()).get();
+        Map<Integer, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrders(ids, from, before).stream()
+                .collect(Collectors.groupingBy(orderItem -> orderItem.getOrder().getId()));
+        List<OrderResponseDTO> snapshots = orders.stream()
+                .map(order -> OrderMapper.toResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
+                .toList();
+
+        Path pending = orderArchive.writePending(snapshots);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    orderArchive.discard(pending);
+                    return;
+                }
+                try {
+                    orderArchive.publish(pending);
+                } catch (RuntimeException e) {
+                    // The rows are gone; the pending file is published at the next startup
+                    log.error("Unable to publish order archive segment {}", pending, e);
+                }
+            }
+        });
+        orderItemRepository.deleteByOrders(ids, from, before);
+        orderRepository.deleteArchived(ids, before);
+        return orders.size();
+    }
+}
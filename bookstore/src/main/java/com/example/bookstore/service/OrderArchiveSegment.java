@@ -0,0 +1,264 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable, memory-mapped archive file. Layout:
+ * <pre>
+ * header   magic:int version:int
+ * blocks   deflated JSON arrays of orders, ascending order id, {@code ordersPerBlock} orders each
+ * footer   blockCount:int (offset:long length:int rawLength:int firstOrderId:int lastOrderId:int)*
+ *          userEntryCount:int (userId:int block:int orders:int)*  -- sorted by user id, then block
+ *          newestOrderDate:long  -- epoch seconds (UTC) rounded up; since version 2
+ * trailer  footerOffset:long magic:int
+ * </pre>
+ * The footer is the sparse index: the block table locates an order id with a binary search, the user entries
+ * list the blocks holding a user's orders. Only the footer is decoded at open; a lookup inflates one block.
+ */
+final class OrderArchiveSegment {
+
+    private static final int MAGIC = 0x42534f41; // "BSOA"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int TRAILER_BYTES = 12;
+    private static final TypeReference<List<OrderResponseDTO>> BLOCK_TYPE = new TypeReference<>() {
+    };
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final MappedByteBuffer buffer;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final int[] rawLengths;
+    private final int[] firstOrderIds;
+    private final int[] lastOrderIds;
+    private final int[] userIds;
+    private final int[] userBlocks;
+    private final int[] userOrderCounts;
+    // No order in the segment is newer; LocalDateTime.MAX for version 1 segments, which do not record it
+    private final LocalDateTime newestOrderDate;
+
+    private OrderArchiveSegment(Path file, ObjectMapper objectMapper, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.buffer = buffer;
+        int size = buffer.capacity();
+        if (size < HEADER_BYTES + TRAILER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(size - 4) != MAGIC) {
+            throw new IOException("Not an order archive segment: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported archive segment version " + buffer.getInt(4) + ": " + file);
+        }
+
+        ByteBuffer footer = buffer.duplicate().position((int) buffer.getLong(size - TRAILER_BYTES));
+        int blocks = footer.getInt();
+        blockOffsets = new long[blocks];
+        blockLengths = new int[blocks];
+        rawLengths = new int[blocks];
+        firstOrderIds = new int[blocks];
+        lastOrderIds = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            blockOffsets[i] = footer.getLong();
+            blockLengths[i] = footer.getInt();
+            rawLengths[i] = footer.getInt();
+            firstOrderIds[i] = footer.getInt();
+            lastOrderIds[i] = footer.getInt();
+        }
+        int entries = footer.getInt();
+        userIds = new int[entries];
+        userBlocks = new int[entries];
+        userOrderCounts = new int[entries];
+        for (int i = 0; i < entries; i++) {
+            userIds[i] = footer.getInt();
+            userBlocks[i] = footer.getInt();
+            userOrderCounts[i] = footer.getInt();
+        }
+        newestOrderDate = version == 1 ? LocalDateTime.MAX
+                : LocalDateTime.ofEpochSecond(footer.getLong(), 0, ZoneOffset.UTC);
+    }
+
+    static OrderArchiveSegment open(Path file, ObjectMapper objectMapper) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping outlives the channel
+            return new OrderArchiveSegment(file, objectMapper, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes {@code orders} (ascending id) to {@code file} through a temporary file and an atomic rename, so a
+     * segment is either complete or absent.
+     */
+    static void write(Path file, List<OrderResponseDTO> orders, int ordersPerBlock, ObjectMapper objectMapper)
+            throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        List<long[]> blocks = new ArrayList<>();
+        // user id -> (block -> orders)
+        Map<Integer, Map<Integer, Integer>> userIndex = new TreeMap<>();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip());
+            long offset = HEADER_BYTES;
+            for (int from = 0; from < orders.size(); from += ordersPerBlock) {
+                List<OrderResponseDTO> block = orders.subList(from, Math.min(from + ordersPerBlock, orders.size()));
+                byte[] raw = objectMapper.writeValueAsBytes(block);
+                byte[] compressed = deflate(raw);
+                writeFully(channel, ByteBuffer.wrap(compressed));
+                int blockNo = blocks.size();
+                blocks.add(new long[]{offset, compressed.length, raw.length,
+                        block.get(0).getId(), block.get(block.size() - 1).getId()});
+                offset += compressed.length;
+                for (OrderResponseDTO order : block) {
+                    userIndex.computeIfAbsent(order.getUserId(), k -> new TreeMap<>()).merge(blockNo, 1, Integer::sum);
+                }
+            }
+
+            int userEntries = userIndex.values().stream().mapToInt(Map::size).sum();
+            ByteBuffer footer = ByteBuffer.allocate(4 + blocks.size() * 24 + 4 + userEntries * 12 + 8
+                    + TRAILER_BYTES);
+            footer.putInt(blocks.size());
+            for (long[] block : blocks) {
+                footer.putLong(block[0]).putInt((int) block[1]).putInt((int) block[2])
+                        .putInt((int) block[3]).putInt((int) block[4]);
+            }
+            footer.putInt(userEntries);
+            userIndex.forEach((userId, perBlock) -> perBlock.forEach((blockNo, count) ->
+                    footer.putInt(userId).putInt(blockNo).putInt(count)));
+            LocalDateTime newest = orders.stream().map(OrderResponseDTO::getOrderDate)
+                    .max(Comparator.naturalOrder()).orElse(LocalDateTime.MIN);
+            footer.putLong(newest.toEpochSecond(ZoneOffset.UTC) + (newest.getNano() > 0 ? 1 : 0));
+            footer.putLong(offset).putInt(MAGIC);
+            writeFully(channel, footer.flip());
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    LocalDateTime newestOrderDate() {
+        return newestOrderDate;
+    }
+
+    // Every order id in the segment; inflates all blocks, so only for recovery at startup
+    List<Integer> orderIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (int block = 0; block < blockOffsets.length; block++) {
+            readBlock(block).forEach(order -> ids.add(order.getId()));
+        }
+        return ids;
+    }
+
+    Optional<OrderResponseDTO> findOrder(int orderId) {
+        if (firstOrderIds.length == 0 || orderId < firstOrderIds[0] || orderId > lastOrderIds[lastOrderIds.length - 1]) {
+            return Optional.empty();
+        }
+        int found = Arrays.binarySearch(firstOrderIds, orderId);
+        int block = found >= 0 ? found : -found - 2;
+        if (block < 0 || orderId > lastOrderIds[block]) {
+            return Optional.empty();
+        }
+        return readBlock(block).stream().filter(order -> order.getId() == orderId).findFirst();
+    }
+
+    int countByUser(int userId) {
+        int count = 0;
+        for (int i = firstUserEntry(userId); i < userIds.length && userIds[i] == userId; i++) {
+            count += userOrderCounts[i];
+        }
+        return count;
+    }
+
+    List<OrderResponseDTO> findByUser(int userId) {
+        List<OrderResponseDTO> orders = new ArrayList<>();
+        for (int i = firstUserEntry(userId); i < userIds.length && userIds[i] == userId; i++) {
+            readBlock(userBlocks[i]).stream().filter(order -> order.getUserId() == userId).forEach(orders::add);
+        }
+        return orders;
+    }
+
+    private int firstUserEntry(int userId) {
+        int low = 0;
+        int high = userIds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (userIds[mid] < userId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<OrderResponseDTO> readBlock(int block) {
+        Inflater inflater = new Inflater();
+        try {
+            // Absolute slice: safe to use from several threads at once
+            inflater.setInput(buffer.slice((int) blockOffsets[block], blockLengths[block]));
+            byte[] raw = new byte[rawLengths[block]];
+            int read = 0;
+            while (read < raw.length) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                // A truncated or corrupt block would otherwise keep this loop spinning without progress
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Block ends after " + read + " of " + raw.length + " bytes");
+                }
+                read += inflated;
+            }
+            return objectMapper.readValue(raw, BLOCK_TYPE);
+        } catch (DataFormatException | IOException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in archive segment " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.response.OrderItemResponseDTO;
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.dto.response.OrderSummaryResponseDTO;
+import com.example.bookstore.entity.Order;
+import com.example.bookstore.entity.OrderItem;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Shared by the order service and the archive job, which both turn order rows into responses
+final class OrderMapper {
+
+    private OrderMapper() {
+    }
+
+    static OrderResponseDTO toResponse(Order order, List<OrderItem> orderItems) {
+        OrderResponseDTO orderDTO = new OrderResponseDTO();
+        orderDTO.setId(order.getId());
+        orderDTO.setUserId(order.getUser().getId());
+        orderDTO.setOrderDate(order.getOrderDate());
+        orderDTO.setTotalAmount(order.getTotalAmount());
+        orderDTO.setStatus(order.getStatus());
+        orderDTO.setShippingAddress(order.getShippingAddress());
+        orderDTO.setPaymentMethod(order.getPaymentMethod());
+        orderDTO.setCreatedAt(order.getCreatedAt());
+        orderDTO.setOrderItems(orderItems.stream()
+                .map(OrderMapper::toItemResponse)
+                .collect(Collectors.toList()));
+        return orderDTO;
+    }
+
+    static OrderItemResponseDTO toItemResponse(OrderItem orderItem) {
+        OrderItemResponseDTO orderItemDTO = new OrderItemResponseDTO();
+        orderItemDTO.setId(orderItem.getId());
+        orderItemDTO.setOrderId(orderItem.getOrder().getId());
+        orderItemDTO.setProductId(orderItem.getProduct().getId().intValue());
+        // Orders placed before snapshots existed fall back to the live product
+        if (orderItem.getProductName() != null) {
+            orderItemDTO.setProductName(orderItem.getProductName());
+            orderItemDTO.setImageUrl(orderItem.getImageUrl());
+        } else {
+            orderItemDTO.setProductName(orderItem.getProduct().getName());
+            orderItemDTO.setImageUrl(orderItem.getProduct().getImageUrl());
+        }
+        orderItemDTO.setQuantity(orderItem.getQuantity());
+        orderItemDTO.setPrice(orderItem.getPrice());
+        orderItemDTO.setSubtotal(orderItem.getSubtotal());
+        return orderItemDTO;
+    }
+
+    static OrderSummaryResponseDTO toSummary(OrderResponseDTO order) {
+        int itemCount = order.getOrderItems().stream().mapToInt(OrderItemResponseDTO::getQuantity).sum();
+        return new OrderSummaryResponseDTO(order.getId(), order.getOrderDate(), order.getTotalAmount(),
+                order.getStatus(), itemCount);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.bookstore.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Monthly range partitioning of {@code orders} and {@code order_items} on {@code order_date}.
+ * <p>
+ * Hibernate creates both tables as plain tables; ids come from the {@code orders_seq} and {@code order_items_seq}
+ * sequences, aligned by {@link IdSequenceAligner}. With {@code orders.partitioning.migrate-on-startup} (off by
+ * default; enable it for one deliberate start) the conversion runs in one transaction: the plain tables are
+ * renamed to {@code *_legacy} (kept until dropped by hand), partitioned replacements are created and the rows
+ * copied over. A transaction-scoped advisory lock serialises instances starting together, and the loser finds
+ * the tables already partitioned and skips the conversion. Afterwards a daily job keeps
+ * {@code months-ahead} future partitions in place and detaches partitions older than {@code retention-months}
+ * (0 keeps everything); detached partitions stay as ordinary tables for archiving. Every start also creates the
+ * {@code (user_id, order_date)} and {@code (status, order_date)} indexes the admin order search relies on, for
+ * databases whose tables predate them.
+ * <p>
+ * The primary key is {@code (id, order_date)}, so a lookup by id alone probes every partition. Ids come from a
+ * sequence and grow with {@code order_date}, so the id span of each closed month is recorded at startup and by
+ * the daily job, and {@link #orderDateRange} turns an id into the months it can be in.
+ */
+@Slf4j
+@Component
+public class OrderPartitionManager implements ApplicationRunner {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // Arbitrary application-wide key for pg_advisory_xact_lock; only the conversion takes it
+    private static final long CONVERSION_LOCK_KEY = 0x6f72646572706172L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean migrateOnStartup;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private volatile IdRanges idRanges;
+
+    @Autowired
+    public OrderPartitionManager(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${orders.partitioning.migrate-on-startup:false}") boolean migrateOnStartup,
+                                 @Value("${orders.partitioning.months-ahead:3}") int monthsAhead,
+                                 @Value("${orders.partitioning.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.migrateOnStartup = migrateOnStartup;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (migrateOnStartup && !isPartitioned()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + CONVERSION_LOCK_KEY + ")");
+                // Another instance may have converted the tables while this one waited for the lock
+                if (!isPartitioned()) {
+                    convertToPartitioned();
+                }
+            });
+        }
+        createSearchIndexes();
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${orders.partitioning.maintenance-cron:0 30 3 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            idRanges = null;
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        transactionTemplate.executeWithoutResult(status -> createPartitions(current, current.plusMonths(monthsAhead)));
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (YearMonth month : attachedMonths()) {
+                if (month.isBefore(oldestKept)) {
+                    transactionTemplate.executeWithoutResult(status -> detachPartition(month));
+                }
+            }
+        }
+        idRanges = loadIdRanges(current);
+    }
+
+    /**
+     * The {@code order_date} range, start inclusive and end exclusive, an order with this id can fall in: the
+     * closed months whose id span holds it, or the open months (current and later) for an id above every closed
+     * span. Empty when the tables are not partitioned or the id falls between spans. Pooled ids let a late insert
+     * land outside these bounds, so a lookup that misses within the range must fall back to the plain one.
+     */
+    public Optional<OrderDateRange> orderDateRange(int orderId) {
+        IdRanges ranges = idRanges;
+        if (ranges == null) {
+            return Optional.empty();
+        }
+        YearMonth first = null;
+        YearMonth last = null;
+        for (MonthIdRange range : ranges.closed()) {
+            if (orderId >= range.minId() && orderId <= range.maxId()) {
+                first = first == null ? range.month() : first;
+                last = range.month();
+            }
+        }
+        if (first == null) {
+            if (orderId <= ranges.maxClosedId()) {
+                return Optional.empty();
+            }
+            first = ranges.openFrom();
+            last = ranges.lastAttached();
+        }
+        return Optional.of(new OrderDateRange(first.atDay(1).atStartOfDay(),
+                last.plusMonths(1).atDay(1).atStartOfDay()));
+    }
+
+    boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('orders'))",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private void convertToPartitioned() {
+        jdbcTemplate.execute("LOCK TABLE orders, order_items IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE order_items RENAME TO order_items_legacy");
+        jdbcTemplate.execute("ALTER TABLE orders RENAME TO orders_legacy");
+        // Index and constraint names are schema-wide; free them for the new tables
+        renamePrimaryKey("orders_legacy");
+        renamePrimaryKey("order_items_legacy");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_orders_user_order_date RENAME TO idx_orders_legacy_user_order_date");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_orders_status_order_date RENAME TO idx_orders_legacy_status_order_date");
+
+        jdbcTemplate.execute("CREATE TABLE orders (" +
+                "id integer NOT NULL, " +
+                "user_id integer NOT NULL REFERENCES users (id), " +
+                "order_date timestamp(6) NOT NULL, " +
+                "total_amount numeric(10,2) NOT NULL, " +
+                "item_count integer, " +
+                "status varchar(50) NOT NULL, " +
+                "shipping_address varchar(255) NOT NULL, " +
+                "payment_method varchar(50) NOT NULL, " +
+                "created_at timestamp(6), " +
+                "CONSTRAINT orders_pkey PRIMARY KEY (id, order_date)" +
+                ") PARTITION BY RANGE (order_date)");
+        jdbcTemplate.execute("CREATE TABLE order_items (" +
+                "id integer NOT NULL, " +
+                "order_id integer NOT NULL, " +
+                "order_date timestamp(6) NOT NULL, " +
+                "product_id integer NOT NULL REFERENCES products (id), " +
+                "product_name varchar(255), " +
+                "image_url varchar(512), " +
+                "quantity integer NOT NULL, " +
+                "price numeric(10,2) NOT NULL, " +
+                "subtotal numeric(10,2) NOT NULL, " +
+                "CONSTRAINT order_items_pkey PRIMARY KEY (id, order_date), " +
+                "CONSTRAINT fk_order_items_order FOREIGN KEY (order_id, order_date) REFERENCES orders (id, order_date)" +
+                ") PARTITION BY RANGE (order_date)");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_user_order_date ON orders (user_id, order_date)");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_status_order_date ON orders (status, order_date)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_items_order ON order_items (order_id, order_date)");
+
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(COALESCE(order_date, created_at)) FROM orders_legacy", Timestamp.class);
+        YearMonth current = YearMonth.now();
+        YearMonth first = oldest == null ? current : YearMonth.from(oldest.toLocalDateTime());
+        createPartitions(first.isAfter(current) ? current : first, current.plusMonths(monthsAhead));
+
+        int orders = jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, total_amount, item_count, " +
+                "status, shipping_address, payment_method, created_at) " +
+                "SELECT id, user_id, COALESCE(order_date, created_at, now()), total_amount, item_count, status, " +
+                "shipping_address, payment_method, created_at FROM orders_legacy");
+        int items = jdbcTemplate.update("INSERT INTO order_items (id, order_id, order_date, product_id, " +
+                "product_name, image_url, quantity, price, subtotal) " +
+                "SELECT oi.id, oi.order_id, COALESCE(o.order_date, o.created_at, now()), oi.product_id, " +
+                "oi.product_name, oi.image_url, oi.quantity, oi.price, oi.subtotal " +
+                "FROM order_items_legacy oi JOIN orders_legacy o ON o.id = oi.order_id");
+        log.info("Converted orders ({} rows) and order_items ({} rows) to monthly partitions from {}",
+                orders, items, first);
+    }
+
+    // Indexes behind the admin order search; idempotent, and cascades to every partition of a partitioned table
+    private void createSearchIndexes() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_user_order_date ON orders (user_id, order_date)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_status_order_date ON orders (status, order_date)");
+    }
+
+    private void renamePrimaryKey(String table) {
+        String name = jdbcTemplate.queryForObject("SELECT conname FROM pg_constraint " +
+                "WHERE conrelid = CAST(? AS regclass) AND contype = 'p'", String.class, table);
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME CONSTRAINT " + name + " TO " + table + "_pkey");
+    }
+
+    private void createPartitions(YearMonth from, YearMonth through) {
+        for (YearMonth month = from; !month.isAfter(through); month = month.plusMonths(1)) {
+            String bounds = " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_p" + month.format(SUFFIX) +
+                    " PARTITION OF orders" + bounds);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_items_p" + month.format(SUFFIX) +
+                    " PARTITION OF order_items" + bounds);
+        }
+    }
+
+    private List<YearMonth> attachedMonths() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'orders'::regclass AND c.relname ~ '^orders_p[0-9]{6}$' ORDER BY c.relname",
+                        String.class).stream()
+                .map(name -> YearMonth.parse(name.substring("orders_p".length()), SUFFIX))
+                .toList();
+    }
+
+    // Closed partitions only lose rows (archiving, detaching), so their recorded spans stay valid supersets
+    private IdRanges loadIdRanges(YearMonth current) {
+        List<YearMonth> months = attachedMonths();
+        List<MonthIdRange> closed = new ArrayList<>();
+        int maxClosedId = Integer.MIN_VALUE;
+        for (YearMonth month : months) {
+            if (!month.isBefore(current)) {
+                continue;
+            }
+            Map<String, Object> span = jdbcTemplate.queryForMap(
+                    "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM orders_p" + month.format(SUFFIX));
+            if (span.get("min_id") != null) {
+                MonthIdRange range = new MonthIdRange(month, ((Number) span.get("min_id")).intValue(),
+                        ((Number) span.get("max_id")).intValue());
+                closed.add(range);
+                maxClosedId = Math.max(maxClosedId, range.maxId());
+            }
+        }
+        YearMonth lastAttached = months.isEmpty() ? current : months.get(months.size() - 1);
+        return new IdRanges(List.copyOf(closed), maxClosedId, current,
+                lastAttached.isBefore(current) ? current : lastAttached);
+    }
+
+    private void detachPartition(YearMonth month) {
+        String suffix = month.format(SUFFIX);
+        // Items first: the orders partition cannot leave while rows still reference it through the foreign key
+        jdbcTemplate.execute("ALTER TABLE order_items DETACH PARTITION order_items_p" + suffix);
+        jdbcTemplate.execute("ALTER TABLE order_items_p" + suffix + " DROP CONSTRAINT IF EXISTS fk_order_items_order");
+        jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION orders_p" + suffix);
+        log.info("Detached order partitions for {}", month);
+    }
+
+    public record OrderDateRange(LocalDateTime from, LocalDateTime to) {
+    }
+
+    private record MonthIdRange(YearMonth month, int minId, int maxId) {
+    }
+
+    private record IdRanges(List<MonthIdRange> closed, int maxClosedId, YearMonth openFrom, YearMonth lastAttached) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.request.OrderSearchRequestDTO;
+import com.example.bookstore.dto.response.AdminOrderSummaryResponseDTO;
+import com.example.bookstore.dto.response.OrderSearchResponseDTO;
+import com.example.bookstore.entity.Order;
+import com.example.bookstore.exception.InvalidOrderSearchException;
+import com.example.bookstore.repository.OrderRepository;
+import com.example.bookstore.repository.OrderSpecifications;
+import com.example.bookstore.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Admin order search: optional filters combined into one Criteria query, newest first, keyset-paged on
+ * (order_date, id) so deep pages cost the same as the first. A filter on email or status is required, because
+ * those lead the only indexes that can serve the search ({@code idx_orders_user_order_date} and
+ * {@code idx_orders_status_order_date}); date and amount filters narrow what those indexes return.
+ */
+@Service
+public class OrderSearchService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id"));
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public OrderSearchService(OrderRepository orderRepository, UserRepository userRepository) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderSearchResponseDTO search(OrderSearchRequestDTO request) {
+        List<Specification<Order>> filters = new ArrayList<>();
+        if (request.getEmail() != null && !request.getEmail().isBlank()) {
+            filters.add(OrderSpecifications.hasUserEmail(request.getEmail().trim()));
+        }
+        if (request.getStatus() != null) {
+            filters.add(OrderSpecifications.hasStatus(request.getStatus()));
+        }
+        if (filters.isEmpty()) {
+            throw new InvalidOrderSearchException("filter by email or status");
+        }
+        if (request.getFrom() != null && request.getTo() != null && request.getTo().isBefore(request.getFrom())) {
+            throw new InvalidOrderSearchException("'to' must not be before 'from'");
+        }
+        if (request.getFrom() != null) {
+            filters.add(OrderSpecifications.placedFrom(request.getFrom().atStartOfDay()));
+        }
+        if (request.getTo() != null) {
+            filters.add(OrderSpecifications.placedBefore(request.getTo().plusDays(1).atStartOfDay()));
+        }
+        if (request.getMinAmount() != null) {
+            filters.add(OrderSpecifications.totalAtLeast(request.getMinAmount()));
+        }
+        if (request.getMaxAmount() != null) {
+            filters.add(OrderSpecifications.totalAtMost(request.getMaxAmount()));
+        }
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            Cursor cursor = Cursor.decode(request.getCursor());
+            filters.add(OrderSpecifications.after(cursor.orderDate(), cursor.id()));
+        }
+
+        int size = Math.min(Math.max(request.getSize(), 1), OrderSearchRequestDTO.MAX_SIZE);
+        // One row more than the page tells whether another page exists without a count query
+        List<Order> orders = orderRepository.findBy(Specification.allOf(filters),
+                query -> query.sortBy(NEWEST_FIRST).limit(size + 1).all());
+        boolean hasMore = orders.size() > size;
+        if (hasMore) {
+            orders = orders.subList(0, size);
+        }
+
+        Map<Integer, String> emails = orders.isEmpty() ? Map.of() : userRepository.findEmailsByIdIn(
+                        orders.stream().map(order -> order.getUser().getId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(UserRepository.IdAndEmail::getId, UserRepository.IdAndEmail::getEmail));
+
+        OrderSearchResponseDTO response = new OrderSearchResponseDTO();
+        response.setOrders(orders.stream()
+                .map(order -> new AdminOrderSummaryResponseDTO(order.getId(), order.getUser().getId(),
+                        emails.get(order.getUser().getId()), order.getOrderDate(), order.getTotalAmount(),
+                        order.getStatus(), order.getItemCount()))
+                .collect(Collectors.toList()));
+        if (hasMore) {
+            Order last = orders.get(orders.size() - 1);
+            response.setNextCursor(new Cursor(last.getOrderDate(), last.getId()).encode());
+        }
+        return response;
+    }
+
+    // Opaque to clients: base64url of "<orderDate>|<id>"
+    record Cursor(LocalDateTime orderDate, Integer id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((orderDate + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('|');
+                return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                        Integer.valueOf(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new InvalidOrderSearchException("malformed cursor");
+            }
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.bookstore.service;
 
 import com.example.bookstore.dto.request.CreateOrderRequestDTO;
+import com.example.bookstore.dto.response.OrderHistoryResponseDTO;
 import com.example.bookstore.dto.response.OrderResponseDTO;
 
 import java.util.List;
 
 public interface OrderService {
     OrderResponseDTO createOrder(CreateOrderRequestDTO request);
+    // For callers without a security context, e.g. the async checkout workers
+    OrderResponseDTO createOrderForUser(Integer userId, CreateOrderRequestDTO request);
     List<OrderResponseDTO> getOrders();
     OrderResponseDTO getOrder(Integer orderId);
+    OrderHistoryResponseDTO getOrderHistory(int page, int size);
 }
\ No newline at end of file
@@ -1,137 +1,269 @@
 package com.example.bookstore.service;
 
+import com.example.bookstore.dto.event.OrderEventDTO;
 import com.example.bookstore.dto.request.CreateOrderRequestDTO;
-import com.example.bookstore.dto.response.OrderItemResponseDTO;
+import com.example.bookstore.dto.response.OrderHistoryResponseDTO;
 import com.example.bookstore.dto.response.OrderResponseDTO;
-import com.example.bookstore.entity.Cart;
+import com.example.bookstore.dto.response.OrderSummaryResponseDTO;
 import com.example.bookstore.entity.Order;
 import com.example.bookstore.entity.OrderItem;
 import com.example.bookstore.entity.User;
-import com.example.bookstore.repository.CartRepository;
 import com.example.bookstore.repository.OrderItemRepository;
 import com.example.bookstore.repository.OrderRepository;
 import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.security.AuthenticatedUser;
 import com.example.bookstore.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Comparator<OrderSummaryResponseDTO> SUMMARY_NEWEST_FIRST = Comparator
+            .comparing(OrderSummaryResponseDTO::getOrderDate).thenComparing(OrderSummaryResponseDTO::getId).reversed();
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
-    private final CartRepository cartRepository;
+    private final CartService cartService;
     private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final OrderArchive orderArchive;
+    private final OrderPartitionManager orderPartitionManager;
 
     @Autowired
     public OrderServiceImpl(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
-                            CartRepository cartRepository, UserRepository userRepository) {
+                            CartService cartService, UserRepository userRepository, OutboxService outboxService,
+                            OrderArchive orderArchive, OrderPartitionManager orderPartitionManager) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
-        this.cartRepository = cartRepository;
+        this.cartService = cartService;
         this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.orderArchive = orderArchive;
+        this.orderPartitionManager = orderPartitionManager;
     }
 
-    private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private Integer currentUserId() {
+        // Taken from the verified access token; no user lookup per order call
+        return AuthenticatedUser.current().id();
     }
 
     @Override
     @Transactional
     public OrderResponseDTO createOrder(CreateOrderRequestDTO request) {
-        User user = getCurrentUser();
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new RuntimeException("Cart is empty"));
+        return placeOrder(userRepository.getReferenceById(currentUserId()), request);
+    }
 
-        if (cart.getCartItems().isEmpty()) {
-            throw new RuntimeException("Cart is empty");
-        }
+    @Override
+    @Transactional
+    public OrderResponseDTO createOrderForUser(Integer userId, CreateOrderRequestDTO request) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return placeOrder(user, request);
+    }
+
+    private OrderResponseDTO placeOrder(User user, CreateOrderRequestDTO request) {
+        List<CartService.CheckoutLine> cartLines = cartService.drainCart(user.getId());
 
+        LocalDateTime orderDate = LocalDateTime.now();
         Order order = new Order();
         order.setUser(user);
+        order.setOrderDate(orderDate);
         order.setShippingAddress(request.getShippingAddress());
         order.setPaymentMethod(request.getPaymentMethod());
 
-        BigDecimal totalAmount = cart.getCartItems().stream()
-                .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+        BigDecimal totalAmount = cartLines.stream()
+                .map(line -> line.unitPrice().multiply(BigDecimal.valueOf(line.quantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         order.setTotalAmount(totalAmount);
 
-        List<OrderItem> orderItems = cart.getCartItems().stream().map(cartItem -> {
+        List<OrderItem> orderItems = cartLines.stream().map(line -> {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setProduct(cartItem.getProduct());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(cartItem.getUnitPrice());
-            orderItem.setSubtotal(cartItem.getUnitPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+            orderItem.setOrderDate(orderDate);
+            orderItem.setProduct(line.product());
+            orderItem.setProductName(line.product().getName());
+            orderItem.setImageUrl(line.product().getImageUrl());
+            orderItem.setQuantity(line.quantity());
+            orderItem.setPrice(line.unitPrice());
+            orderItem.setSubtotal(line.unitPrice().multiply(BigDecimal.valueOf(line.quantity())));
             return orderItem;
         }).collect(Collectors.toList());
 
         order.setOrderItems(orderItems);
+        order.setItemCount(cartLines.stream().mapToInt(CartService.CheckoutLine::quantity).sum());
         orderRepository.save(order);
+        outboxService.publish(OutboxService.AGGREGATE_ORDER, order.getId(), OutboxService.ORDER_CREATED,
+                toOrderEvent(order));
 
-        cart.getCartItems().clear();
-        cartRepository.save(cart);
-
-        return mapToOrderResponseDTO(order);
+        return OrderMapper.toResponse(order, orderItems);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrders() {
-        User user = getCurrentUser();
-        return orderRepository.findByUserId(user.getId()).stream()
-                .map(this::mapToOrderResponseDTO)
+        Integer userId = currentUserId();
+        List<Order> orders = orderRepository.findByUserId(userId);
+        if (orders.isEmpty()) {
+            return orderArchive.findByUser(userId);
+        }
+        // One item query bounded by the orders' date span, so only those months' partitions are read
+        LocalDateTime from = orders.stream().map(Order::getOrderDate).min(Comparator.naturalOrder()).get();
+        LocalDateTime to = orders.stream().map(Order::getOrderDate).max(Comparator.naturalOrder()).get();
+        Map<Integer, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrders(
+                        orders.stream().map(Order::getId).toList(), from, to).stream()
+                .collect(Collectors.groupingBy(orderItem -> orderItem.getOrder().getId()));
+        List<OrderResponseDTO> responses = orders.stream()
+                .map(order -> OrderMapper.toResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
                 .collect(Collectors.toList());
+        List<OrderResponseDTO> archived = orderArchive.findByUser(userId);
+        if (!archived.isEmpty()) {
+            // Delivered orders stay live at any age, so archived ones interleave with them
+            responses.addAll(archived);
+            responses.sort(OrderArchive.NEWEST_FIRST);
+        }
+        return responses;
     }
 
     @Override
     @Transactional(readOnly = true)
     public OrderResponseDTO getOrder(Integer orderId) {
-        User user = getCurrentUser();
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+        Integer userId = currentUserId();
+        // Read only the months the id can be in; the plain lookup covers ids outside the recorded spans
+        Optional<Order> order = orderPartitionManager.orderDateRange(orderId)
+                .flatMap(range -> orderRepository.findByIdInRange(orderId, range.from(), range.to()))
+                .or(() -> orderRepository.findById(orderId));
+        if (order.isEmpty()) {
+            // Not in the database: it may have been moved to the cold archive
+            OrderResponseDTO archived = orderArchive.findOrder(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (!archived.getUserId().equals(userId)) {
+                throw new RuntimeException("Unauthorized access to order");
+            }
+            return archived;
+        }
 
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.get().getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized access to order");
         }
 
-        return mapToOrderResponseDTO(order);
+        return OrderMapper.toResponse(order.get(),
+                orderItemRepository.findByOrder(orderId, order.get().getOrderDate()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderHistoryResponseDTO getOrderHistory(int page, int size) {
+        Integer userId = currentUserId();
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE),
+                Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id")));
+        Page<OrderSummaryResponseDTO> summaries = orderRepository.findSummariesByUserId(userId, pageable);
+
+        // Archived orders interleave with live ones, since delivered orders stay live at any age. The archive is
+        // only read once the page reaches the date of the newest archived order
+        List<OrderSummaryResponseDTO> content = summaries.getContent();
+        int archivedCount = orderArchive.countByUser(userId);
+        if (archivedCount > 0 && !newerThanArchive(userId, content, pageable.getPageSize())) {
+            content = mergeArchived(userId, pageable, content);
+        }
+        long totalElements = summaries.getTotalElements() + archivedCount;
+
+        OrderHistoryResponseDTO history = new OrderHistoryResponseDTO();
+        history.setOrders(content);
+        history.setPage(summaries.getNumber());
+        history.setSize(summaries.getSize());
+        history.setTotalElements(totalElements);
+        history.setTotalPages((int) ((totalElements + pageable.getPageSize() - 1) / pageable.getPageSize()));
+        return history;
+    }
+
+    // A full live page ending after every archived order: no archived order comes before or within it
+    private boolean newerThanArchive(Integer userId, List<OrderSummaryResponseDTO> livePage, int pageSize) {
+        if (livePage.size() < pageSize) {
+            return false;
+        }
+        LocalDateTime last = livePage.get(livePage.size() - 1).getOrderDate();
+        return orderArchive.newestOrderDate(userId).map(last::isAfter).orElse(true);
+    }
+
+    /**
+     * The page of the live and archived orders merged newest first. Finds how many archived orders come before
+     * the page by binary search over their merged positions (one count per step), then merges the live rows from
+     * the matching offset with the archived orders that follow.
+     */
+    private List<OrderSummaryResponseDTO> mergeArchived(Integer userId, Pageable pageable,
+                                                        List<OrderSummaryResponseDTO> livePage) {
+        List<OrderResponseDTO> archived = orderArchive.findByUser(userId);
+        long offset = pageable.getOffset();
+        int low = 0;
+        int high = archived.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            OrderResponseDTO order = archived.get(mid);
+            if (mid + orderRepository.countNewerThan(userId, order.getOrderDate(), order.getId()) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int archivedBefore = low;
+
+        List<OrderSummaryResponseDTO> merged = new ArrayList<>(archivedBefore == 0 ? livePage
+                : liveSummaries(userId, offset - archivedBefore, pageable));
+        archived.stream()
+                .skip(archivedBefore)
+                .limit(pageable.getPageSize())
+                .map(OrderMapper::toSummary)
+                .forEach(merged::add);
+        merged.sort(SUMMARY_NEWEST_FIRST);
+        return merged.subList(0, Math.min(pageable.getPageSize(), merged.size()));
     }
 
-    private OrderResponseDTO mapToOrderResponseDTO(Order order) {
-        OrderResponseDTO orderDTO = new OrderResponseDTO();
-        orderDTO.setId(order.getId());
-        orderDTO.setUserId(order.getUser().getId());
-        orderDTO.setOrderDate(order.getOrderDate());
-        orderDTO.setTotalAmount(order.getTotalAmount());
-        orderDTO.setStatus(order.getStatus());
-        orderDTO.setShippingAddress(order.getShippingAddress());
-        orderDTO.setPaymentMethod(order.getPaymentMethod());
-        orderDTO.setCreatedAt(order.getCreatedAt());
-        orderDTO.setOrderItems(order.getOrderItems().stream()
-                .map(this::mapToOrderItemResponseDTO)
-                .collect(Collectors.toList()));
-        return orderDTO;
+    // One page worth of live rows from an offset off the page grid: the covering page and, if needed, the next
+    private List<OrderSummaryResponseDTO> liveSummaries(Integer userId, long offset, Pageable pageable) {
+        int size = pageable.getPageSize();
+        int page = (int) (offset / size);
+        int skip = (int) (offset % size);
+        List<OrderSummaryResponseDTO> rows = new ArrayList<>(orderRepository.findSummariesByUserId(userId,
+                PageRequest.of(page, size, pageable.getSort())).getContent());
+        if (skip > 0 && rows.size() == size) {
+            rows.addAll(orderRepository.findSummariesByUserId(userId,
+                    PageRequest.of(page + 1, size, pageable.getSort())).getContent());
+        }
+        return rows.subList(Math.min(skip, rows.size()), Math.min(skip + size, rows.size()));
     }
 
-    private OrderItemResponseDTO mapToOrderItemResponseDTO(OrderItem orderItem) {
-        OrderItemResponseDTO orderItemDTO = new OrderItemResponseDTO();
-        orderItemDTO.setId(orderItem.getId());
-        orderItemDTO.setOrderId(orderItem.getOrder().getId());
-        orderItemDTO.setProductId(orderItem.getProduct().getId().intValue());
-        orderItemDTO.setProductName(orderItem.getProduct().getName());
-        orderItemDTO.setQuantity(orderItem.getQuantity());
-        orderItemDTO.setPrice(orderItem.getPrice());
-        orderItemDTO.setSubtotal(orderItem.getSubtotal());
-        return orderItemDTO;
+    private OrderEventDTO toOrderEvent(Order order) {
+        OrderEventDTO event = new OrderEventDTO();
+        event.setOrderId(order.getId());
+        event.setUserId(order.getUser().getId());
+        event.setOrderDate(order.getOrderDate());
+        event.setTotalAmount(order.getTotalAmount());
+        event.setItemCount(order.getItemCount());
+        event.setStatus(order.getStatus());
+        event.setItems(order.getOrderItems().stream().map(orderItem -> {
+            OrderEventDTO.Item item = new OrderEventDTO.Item();
+            item.setProductId(orderItem.getProduct().getId());
+            item.setCategoryId(orderItem.getProduct().getCategory().getId());
+            item.setQuantity(orderItem.getQuantity());
+            item.setSubtotal(orderItem.getSubtotal());
+            return item;
+        }).collect(Collectors.toList()));
+        return event;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.event.OrderEventDTO;
+import com.example.bookstore.dto.request.OrderStatusTransitionRequestDTO;
+import com.example.bookstore.dto.response.OrderStatusTransitionResponseDTO;
+import com.example.bookstore.dto.response.OrderSummaryResponseDTO;
+import com.example.bookstore.entity.Order;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.exception.InvalidOrderStatusTransitionException;
+import com.example.bookstore.exception.OrderNotFoundException;
+import com.example.bookstore.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Admin-driven order status changes, validated against the {@link OrderStatus} state machine.
+ * <p>
+ * Bulk transitions are set-based: each chunk of ids is moved by one conditional
+ * {@code UPDATE ... WHERE status IN (allowed sources)} that also writes the outbox events, and runs in its own
+ * short transaction. Only ids that did not move are looked up again, to explain why in the report.
+ */
+@Slf4j
+@Service
+public class OrderStatusService {
+
+    private final OrderRepository orderRepository;
+    private final OutboxService outboxService;
+    private final OrderPartitionManager orderPartitionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public OrderStatusService(OrderRepository orderRepository,
+                              OutboxService outboxService,
+                              OrderPartitionManager orderPartitionManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${orders.status-transition.chunk-size:2500}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.outboxService = outboxService;
+        this.orderPartitionManager = orderPartitionManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    public OrderSummaryResponseDTO changeStatus(Integer orderId, OrderStatus target) {
+        Order order = orderPartitionManager.orderDateRange(orderId)
+                .flatMap(range -> orderRepository.findByIdInRangeForUpdate(orderId, range.from(), range.to()))
+                .or(() -> orderRepository.findByIdForUpdate(orderId))
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        OrderStatus previous = order.getStatus();
+        order.transitionTo(target);
+
+        OrderEventDTO event = new OrderEventDTO();
+        event.setOrderId(order.getId());
+        event.setUserId(order.getUser().getId());
+        event.setOrderDate(order.getOrderDate());
+        event.setTotalAmount(order.getTotalAmount());
+        event.setItemCount(order.getItemCount());
+        event.setStatus(target);
+        event.setPreviousStatus(previous);
+        outboxService.publish(OutboxService.AGGREGATE_ORDER, order.getId(), OutboxService.ORDER_STATUS_CHANGED, event);
+
+        return new OrderSummaryResponseDTO(order.getId(), order.getOrderDate(), order.getTotalAmount(),
+                order.getStatus(), order.getItemCount());
+    }
+
+    public OrderStatusTransitionResponseDTO changeStatuses(OrderStatusTransitionRequestDTO request) {
+        OrderStatus target = request.getTargetStatus();
+        OrderStatus expected = request.getExpectedStatus();
+        Set<OrderStatus> sources = OrderStatus.sourcesOf(target);
+        if (expected != null) {
+            if (!expected.canTransitionTo(target)) {
+                throw new InvalidOrderStatusTransitionException(null, expected, target);
+            }
+            sources = Set.of(expected);
+        } else if (sources.isEmpty()) {
+            throw new InvalidOrderStatusTransitionException(null, null, target);
+        }
+        List<String> fromStatuses = sources.stream().map(Enum::name).toList();
+        List<Integer> ids = request.getOrderIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+
+        OrderStatusTransitionResponseDTO response = new OrderStatusTransitionResponseDTO();
+        response.setTargetStatus(target);
+        response.setRequested(ids.size());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            transactionTemplate.executeWithoutResult(status -> applyChunk(chunk, fromStatuses, target, expected, response));
+        }
+        log.info("Bulk status change to {}: {} of {} orders updated, {} failed", target, response.getUpdated(),
+                response.getRequested(), response.getFailures().size());
+        return response;
+    }
+
+    private void applyChunk(List<Integer> chunk, List<String> fromStatuses, OrderStatus target, OrderStatus expected,
+                            OrderStatusTransitionResponseDTO response) {
+        List<Integer> moved = orderRepository.transitionStatuses(chunk, fromStatuses, target.name(),
+                OutboxService.AGGREGATE_ORDER, OutboxService.ORDER_STATUS_CHANGED);
+        response.setUpdated(response.getUpdated() + moved.size());
+        if (moved.size() == chunk.size()) {
+            return;
+        }
+
+        Set<Integer> movedIds = new HashSet<>(moved);
+        List<Integer> missed = chunk.stream().filter(id -> !movedIds.contains(id)).toList();
+        Map<Integer, OrderStatus> current = orderRepository.findStatusesByIdIn(missed).stream()
+                .collect(Collectors.toMap(OrderRepository.IdAndStatus::getId, OrderRepository.IdAndStatus::getStatus));
+        for (Integer id : missed) {
+            OrderStatus status = current.get(id);
+            response.getFailures().add(new OrderStatusTransitionResponseDTO.Failure(id, status,
+                    failureReason(status, target, expected)));
+        }
+    }
+
+    private OrderStatusTransitionResponseDTO.FailureReason failureReason(OrderStatus current, OrderStatus target,
+                                                                         OrderStatus expected) {
+        if (current == null) {
+            return OrderStatusTransitionResponseDTO.FailureReason.NOT_FOUND;
+        }
+        if (current == target) {
+            return OrderStatusTransitionResponseDTO.FailureReason.ALREADY_IN_STATUS;
+        }
+        if (expected != null && current != expected) {
+            return OrderStatusTransitionResponseDTO.FailureReason.STATUS_MISMATCH;
+        }
+        return OrderStatusTransitionResponseDTO.FailureReason.INVALID_TRANSITION;
+    }
+}
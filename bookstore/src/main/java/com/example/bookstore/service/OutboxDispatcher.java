@@ -0,0 +1,216 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.OutboxEvent;
+import com.example.bookstore.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox events to in-process {@link OutboxEventListener}s.
+ * <p>
+ * Each batch is claimed in a short transaction: due events are locked with {@code FOR UPDATE SKIP LOCKED} and
+ * leased by pushing {@code next_attempt_at} out by {@code lease-seconds}, so no row lock is held while listeners
+ * run and several instances can dispatch concurrently without delivering the same event twice at once. Only the
+ * oldest undelivered event of each aggregate is ever due, which keeps an aggregate's events strictly in order
+ * across batches and instances: a failed or parked event holds back everything after it. The events of a batch
+ * therefore belong to distinct aggregates and are delivered in parallel; each outcome is recorded on its own, so
+ * one failure never undoes another event's delivery. A delivery that outlives its lease may be repeated.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventListener> listeners;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration retentionPeriod;
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter dispatched;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    @Autowired
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            ObjectProvider<OutboxEventListener> listeners,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${outbox.dispatcher.parallelism:4}") int parallelism,
+                            @Value("${outbox.dispatcher.batch-size:100}") int batchSize,
+                            @Value("${outbox.dispatcher.max-batches-per-poll:10}") int maxBatchesPerPoll,
+                            @Value("${outbox.dispatcher.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.dispatcher.lease-seconds:60}") long leaseSeconds,
+                            @Value("${outbox.retention-hours:72}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.listeners = listeners.orderedStream().toList();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().name("outbox-", 0).factory());
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retentionPeriod = Duration.ofHours(retentionHours);
+        this.dispatched = Counter.builder("outbox.events.dispatched")
+                .description("Outbox events delivered to every listener")
+                .register(meterRegistry);
+        this.failed = Counter.builder("outbox.events.failed")
+                .description("Outbox event deliveries that threw and will be retried")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.dispatch.batch")
+                .description("Time to claim, deliver and record one batch of outbox events")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest outbox event still waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatcher.poll-interval-ms:500}")
+    public void poll() {
+        // A short batch does not mean the outbox is drained: delivering an event makes the next one of its
+        // aggregate due, so keep going until nothing is claimable
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            Integer claimed = batchTimer.record(this::dispatchBatch);
+            if (claimed == null || claimed == 0) {
+                break;
+            }
+        }
+        Instant oldest = outboxEventRepository.findOldestPendingCreatedAt();
+        lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toSeconds()));
+    }
+
+    @Scheduled(cron = "${outbox.cleanup.cron:0 15 * * * *}")
+    public void deletePublishedEvents() {
+        Instant cutoff = Instant.now().minus(retentionPeriod);
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    outboxEventRepository.deletePublishedBefore(cutoff, batchSize * 10));
+        } while (deleted >= batchSize * 10);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            // Whatever is still running is redelivered once its lease runs out
+            log.warn("Outbox deliveries still running at shutdown");
+            executor.shutdownNow();
+        }
+    }
+
+    int dispatchBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<RuntimeException>> deliveries = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            deliveries.add(executor.submit(() -> deliver(event)));
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<OutboxEvent> failures = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                RuntimeException error = deliveries.get(i).get();
+                if (error == null) {
+                    delivered.add(event.getId());
+                } else {
+                    recordFailure(event, error);
+                    failures.add(event);
+                }
+            } catch (InterruptedException e) {
+                // Record what finished; the rest is retried when its lease runs out
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Outbox event {} ({}) could not be delivered; retried when its lease runs out",
+                        event.getId(), event.getEventType(), e.getCause());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.markPublished(delivered, Instant.now());
+            }
+            if (!failures.isEmpty()) {
+                outboxEventRepository.saveAll(failures);
+            }
+        });
+        dispatched.increment(delivered.size());
+        return batch.size();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockDueBatch(now, batchSize);
+        if (!batch.isEmpty()) {
+            outboxEventRepository.lease(batch.stream().map(OutboxEvent::getId).toList(), now.plus(lease));
+        }
+        return batch;
+    }
+
+    // Returns the listener's exception instead of throwing it, so it can be recorded against the event
+    private RuntimeException deliver(OutboxEvent event) {
+        OutboxMessage message = new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreatedAt(), event.getAttempts() + 1);
+        try {
+            for (OutboxEventListener listener : listeners) {
+                if (listener.supports(event.getEventType())) {
+                    listener.onEvent(message);
+                }
+            }
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException e) {
+        failed.increment();
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        String message = String.valueOf(e.getMessage());
+        event.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (attempts >= maxAttempts) {
+            // Parked: only a manual reset of next_attempt_at brings it (and the rest of its aggregate) back
+            event.setNextAttemptAt(null);
+            log.error("Outbox event {} ({}) parked after {} attempts", event.getId(), event.getEventType(), attempts, e);
+        } else {
+            long backoffSeconds = Math.min(300, 1L << Math.min(attempts, 8));
+            event.setNextAttemptAt(Instant.now().plusSeconds(backoffSeconds));
+            log.warn("Outbox event {} ({}) failed on attempt {}: {}", event.getId(), event.getEventType(), attempts,
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bookstore.service;
+
+/**
+ * In-process consumer of outbox events. Delivery is at-least-once: an event is redelivered to every listener
+ * if any of them throws, or if the process dies before the delivery is recorded, so handlers must be idempotent
+ * (e.g. keyed on {@link OutboxMessage#id()}). Events of one aggregate are delivered in order.
+ */
+public interface OutboxEventListener {
+
+    default boolean supports(String eventType) {
+        return true;
+    }
+
+    void onEvent(OutboxMessage message);
+}
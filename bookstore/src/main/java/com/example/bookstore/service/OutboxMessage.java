@@ -0,0 +1,10 @@
+package com.example.bookstore.service;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of an outbox event handed to {@link OutboxEventListener}s. {@code payload} is JSON.
+ */
+public record OutboxMessage(Long id, String aggregateType, String aggregateId, String eventType,
+                            String payload, Instant createdAt, int attempt) {
+}
@@ -0,0 +1,132 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The application's {@link PasswordEncoder}: BCrypt, run on a small fixed pool instead of the request thread.
+ * <p>
+ * At most {@code threads} hashes run at once, so a login storm uses a bounded share of the CPU and the rest of
+ * the traffic keeps its threads. Up to {@code max-queue-depth} more wait; beyond that, or after {@code timeout-ms},
+ * the caller gets {@link PasswordHashingBusyException} (503) at once instead of piling up behind the queue.
+ * {@link #upgradeEncoding} reports hashes made with a lower cost than {@code bcrypt-strength}, which the
+ * authentication provider re-hashes on the next successful login.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${auth.password-hashing.bcrypt-strength:10}") int strength,
+                                  @Value("${auth.password-hashing.threads:0}") int threads,
+                                  @Value("${auth.password-hashing.max-queue-depth:64}") int maxQueueDepth,
+                                  @Value("${auth.password-hashing.timeout-ms:5000}") long timeoutMs) {
+        this(meterRegistry, new BCryptPasswordEncoder(strength), threads, maxQueueDepth, timeoutMs);
+    }
+
+    PasswordHashingService(MeterRegistry meterRegistry, PasswordEncoder delegate, int threads, int maxQueueDepth,
+                           long timeoutMs) {
+        this.delegate = delegate;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueueDepth),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+        this.encodeTimer = Timer.builder("password.hash")
+                .tag("operation", "encode")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("password.hash")
+                .tag("operation", "verify")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("password.hash.queue.wait")
+                .description("Time a hash waited for a hashing thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hash.rejected")
+                .description("Hashes refused because the hashing queue was full or too slow")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", executor.getQueue(), BlockingQueue::size)
+                .description("Hashes waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(verifyTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Supplier<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
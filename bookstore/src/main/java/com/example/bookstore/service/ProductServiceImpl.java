@@ -1,5 +1,6 @@
 package com.example.bookstore.service;
 
+import com.example.bookstore.dto.event.ProductEventDTO;
 import com.example.bookstore.dto.request.ProductDTO;
 import com.example.bookstore.dto.response.ProductResponseDTO;
 import com.example.bookstore.entity.Category;
@@ -10,6 +11,7 @@ import org.modelmapper.ModelMapper;
 import org.modelmapper.PropertyMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,12 +21,15 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final CategoryService categoryService; // Assumed to exist for category validation
     private final ModelMapper modelMapper;
+    private final OutboxService outboxService;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository, CategoryService categoryService, ModelMapper modelMapper) {
+    public ProductServiceImpl(ProductRepository productRepository, CategoryService categoryService, ModelMapper modelMapper,
+                              OutboxService outboxService) {
         this.productRepository = productRepository;
         this.categoryService = categoryService;
         this.modelMapper = modelMapper;
+        this.outboxService = outboxService;
 
         // Custom mapping for ProductRequestDTO to Product (categoryId to category)
         modelMapper.addMappings(new PropertyMap<ProductDTO, Product>() {
@@ -52,6 +57,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public ProductResponseDTO createProduct(ProductDTO request) {
         // Validate category
         Category category = categoryService.findCategoryById(request.getCategoryId())
@@ -68,10 +74,12 @@ public class ProductServiceImpl implements ProductService {
 
         // Save product
         Product savedProduct = productRepository.save(product);
+        publishProductEvent(OutboxService.PRODUCT_CREATED, savedProduct);
         return modelMapper.map(savedProduct, ProductResponseDTO.class);
     }
 
     @Override
+    @Transactional
     public ProductResponseDTO updateProduct(Integer id, ProductDTO request) {
         // Find existing product
         Product product = productRepository.findById(id)
@@ -92,6 +100,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Save updated product
         Product updatedProduct = productRepository.save(product);
+        publishProductEvent(OutboxService.PRODUCT_UPDATED, updatedProduct);
         return modelMapper.map(updatedProduct, ProductResponseDTO.class);
     }
 
@@ -128,9 +137,21 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public void deleteProduct(Integer id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + id));
         productRepository.delete(product); // Soft delete due to @SQLDelete
+        publishProductEvent(OutboxService.PRODUCT_DELETED, product);
+    }
+
+    private void publishProductEvent(String eventType, Product product) {
+        ProductEventDTO event = new ProductEventDTO();
+        event.setProductId(product.getId());
+        event.setName(product.getName());
+        event.setPrice(product.getPrice());
+        event.setCategoryId(product.getCategory() != null ? product.getCategory().getId() : null);
+        event.setStock(product.getStock());
+        outboxService.publish(OutboxService.AGGREGATE_PRODUCT, product.getId(), eventType, event);
     }
 }
@@ -1,59 +1,184 @@
 package com.example.bookstore.service;
 
-import com.example.bookstore.entity.RefreshToken;
 import com.example.bookstore.entity.User;
 import com.example.bookstore.repository.RefreshTokenRepository;
 import com.example.bookstore.repository.UserRepository;
-import com.example.bookstore.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Refresh tokens: random opaque strings handed to the client, stored only as their SHA-256 so a copy of the table
+ * cannot be replayed. Each user has one row; login replaces it with a single upsert, and a refresh swaps the
+ * presented token for the next one with a single conditional update.
+ * <p>
+ * A small LRU map from digest to user answers the lookup without a query. It is only a hint: the conditional
+ * update still checks the digest in the database, so a token rotated or revoked on another instance is refused
+ * even while this one remembers it. Expired rows are deleted in chunks by a scheduled sweep.
+ */
+@Slf4j
 @Service
 public class RefreshTokenService {
     private static final long REFRESH_TOKEN_VALIDITY = 1000 * 60 * 60 * 24 * 7; // 7 days
+    private static final int TOKEN_BYTES = 32;
 
-    @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
-
-    @Autowired
-    private UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CachedToken> tokensByHash;
+    private final int cleanupBatchSize;
+    private final SecureRandom random = new SecureRandom();
 
     @Autowired
-    private JwtUtil jwtUtil;
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-token.cache.max-entries:10000}") int maxCachedTokens,
+                               @Value("${jwt.refresh-token.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cleanupBatchSize = cleanupBatchSize;
+        // Access-ordered, so the least recently presented token is dropped first
+        this.tokensByHash = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                return size() > maxCachedTokens;
+            }
+        };
+    }
 
+    /**
+     * Issues a new refresh token for the user, replacing the previous one, and returns the raw token.
+     */
     @Transactional
-    public RefreshToken createRefreshToken(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+    public String createRefreshToken(Integer userId) {
+        String token = newToken();
+        String tokenHash = hash(token);
+        Instant expiryDate = Instant.now().plusMillis(REFRESH_TOKEN_VALIDITY);
+        refreshTokenRepository.upsert(userId, tokenHash, expiryDate);
+        remember(tokenHash, new CachedToken(userId, expiryDate));
+        return token;
+    }
 
-        refreshTokenRepository.deleteByUser(user);
+    /**
+     * Redeems a refresh token: the presented token stops working and the user and their next token are returned.
+     */
+    @Transactional
+    public Rotation rotate(String token) {
+        if (token == null || token.isBlank()) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        String tokenHash = hash(token);
+        CachedToken cached = lookup(tokenHash);
+        Instant now = Instant.now();
+        if (cached == null) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        if (!now.isBefore(cached.expiryDate())) {
+            forget(tokenHash);
+            throw new RuntimeException("Refresh token has expired");
+        }
 
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(Instant.now().plusMillis(REFRESH_TOKEN_VALIDITY));
-        return refreshTokenRepository.save(refreshToken);
-    }
+        String next = newToken();
+        String nextHash = hash(next);
+        Instant expiryDate = now.plusMillis(REFRESH_TOKEN_VALIDITY);
+        forget(tokenHash);
+        if (refreshTokenRepository.rotate(cached.userId(), tokenHash, nextHash, expiryDate, now) == 0) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        remember(nextHash, new CachedToken(cached.userId(), expiryDate));
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        User user = userRepository.findById(cached.userId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return new Rotation(user, next);
     }
 
     @Transactional
     public void deleteByUser(User user) {
         refreshTokenRepository.deleteByUser(user);
+        synchronized (tokensByHash) {
+            tokensByHash.values().removeIf(cached -> cached.userId().equals(user.getId()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        Instant now = Instant.now();
+        synchronized (tokensByHash) {
+            tokensByHash.values().removeIf(cached -> !now.isBefore(cached.expiryDate()));
+        }
+
+        int deleted;
+        long total = 0;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    refreshTokenRepository.deleteExpired(now, cleanupBatchSize));
+            total += deleted;
+        } while (deleted >= cleanupBatchSize);
+        if (total > 0) {
+            log.debug("Deleted {} expired refresh tokens", total);
+        }
+    }
+
+    private CachedToken lookup(String tokenHash) {
+        CachedToken cached;
+        synchronized (tokensByHash) {
+            cached = tokensByHash.get(tokenHash);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        return refreshTokenRepository.findByTokenHash(tokenHash)
+                .map(row -> new CachedToken(row.getUser().getId(), row.getExpiryDate()))
+                .orElse(null);
     }
 
-    public boolean verifyExpiration(RefreshToken token) {
-        if (token.isExpired()) {
-            refreshTokenRepository.delete(token);
-            return false;
+    private void remember(String tokenHash, CachedToken cached) {
+        synchronized (tokensByHash) {
+            tokensByHash.put(tokenHash, cached);
         }
-        return true;
     }
-}
\ No newline at end of file
+
+    private void forget(String tokenHash) {
+        synchronized (tokensByHash) {
+            tokensByHash.remove(tokenHash);
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    record CachedToken(Integer userId, Instant expiryDate) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every role, loaded at startup into an immutable snapshot and swapped for a fresh one whenever
+ * {@link RoleServiceImpl} has committed a change to a role. Users carry only their role id; its name and authority
+ * come from here, so loading a user needs no join and authenticating a request allocates no authority list.
+ * <p>
+ * Changes made on another instance are picked up by the reload every {@code roles.refresh-interval-ms}, and a
+ * role created there the first time its id is asked for.
+ */
+@Slf4j
+@Service
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    @Autowired
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${roles.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        Map<Integer, RoleEntry> byId = new HashMap<>();
+        Map<String, RoleEntry> byAuthority = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            RoleEntry entry = RoleEntry.of(role.getId(), role.getName());
+            byId.put(entry.id(), entry);
+            byAuthority.put(entry.authorityName(), entry);
+        }
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byAuthority));
+        log.debug("Loaded {} roles", byId.size());
+    }
+
+    /**
+     * Reloads once the current transaction has committed, so the snapshot holds the change being written rather
+     * than the rows as they were before it; immediately when no transaction is active.
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    public RoleEntry get(Integer id) {
+        if (id == null) {
+            throw new RuntimeException("Role not found with ID: null");
+        }
+        RoleEntry entry = snapshot.byId().get(id);
+        if (entry == null) {
+            reload();
+            entry = snapshot.byId().get(id);
+        }
+        if (entry == null) {
+            throw new RuntimeException("Role not found with ID: " + id);
+        }
+        return entry;
+    }
+
+    /**
+     * The shared authority list for an authority name carried in a token; a fresh one for a role this instance
+     * does not know (yet).
+     */
+    public List<GrantedAuthority> authoritiesFor(String authorityName) {
+        RoleEntry entry = snapshot.byAuthority().get(authorityName);
+        return entry != null ? entry.authorities() : List.of(new SimpleGrantedAuthority(authorityName));
+    }
+
+    /**
+     * A role as the application sees it: its authority is the lower-cased name, built once and shared.
+     */
+    public record RoleEntry(Integer id, String name, List<GrantedAuthority> authorities) {
+
+        public static RoleEntry of(Integer id, String name) {
+            String authority = name.toLowerCase(Locale.ROOT);
+            return new RoleEntry(id, name, List.of(new SimpleGrantedAuthority(authority)));
+        }
+
+        public String authorityName() {
+            return authorities.get(0).getAuthority();
+        }
+    }
+
+    private record Snapshot(Map<Integer, RoleEntry> byId, Map<String, RoleEntry> byAuthority) {
+    }
+}
@@ -8,6 +8,7 @@ import org.modelmapper.ModelMapper;
 import org.modelmapper.PropertyMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,11 +18,13 @@ public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
     private final ModelMapper modelMapper;
+    private final RoleRegistry roleRegistry;
 
     @Autowired
-    public RoleServiceImpl(RoleRepository roleRepository, ModelMapper modelMapper) {
+    public RoleServiceImpl(RoleRepository roleRepository, ModelMapper modelMapper, RoleRegistry roleRegistry) {
         this.roleRepository = roleRepository;
         this.modelMapper = modelMapper;
+        this.roleRegistry = roleRegistry;
 
         // Custom mapping for RoleRequestDTO to Role (skip fields that shouldn't be updated)
         modelMapper.addMappings(new PropertyMap<RoleDTO, Role>() {
@@ -31,12 +34,12 @@ public class RoleServiceImpl implements RoleService {
                 skip(destination.getCreatedAt()); // Skip audit fields
                 skip(destination.getUpdatedAt());
                 skip(destination.getIsDeleted());
-                skip(destination.getUsers());
             }
         });
     }
 
     @Override
+    @Transactional
     public RoleResponseDTO createRole(RoleDTO request) {
         // Validate role name uniqueness
         if (roleRepository.existsByName(request.getName())) {
@@ -48,10 +51,12 @@ public class RoleServiceImpl implements RoleService {
 
         // Save role
         Role savedRole = roleRepository.save(role);
+        roleRegistry.reloadAfterCommit();
         return modelMapper.map(savedRole, RoleResponseDTO.class);
     }
 
     @Override
+    @Transactional
     public RoleResponseDTO updateRole(Integer id, RoleDTO request) {
         // Find existing role
         Role role = roleRepository.findById(id)
@@ -67,6 +72,7 @@ public class RoleServiceImpl implements RoleService {
 
         // Save updated role
         Role updatedRole = roleRepository.save(role);
+        roleRegistry.reloadAfterCommit();
         return modelMapper.map(updatedRole, RoleResponseDTO.class);
     }
 
@@ -85,9 +91,11 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
+    @Transactional
     public void deleteRole(Integer id) {
         Role role = roleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Role not found with ID: " + id));
         roleRepository.delete(role); // Soft delete due to @SQLDelete
+        roleRegistry.reloadAfterCommit();
     }
 }
\ No newline at end of file
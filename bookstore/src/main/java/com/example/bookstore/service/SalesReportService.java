@@ -0,0 +1,41 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.response.SalesRollupResponseDTO;
+import com.example.bookstore.entity.enums.SalesDimension;
+import com.example.bookstore.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Admin sales reports. Reads only {@code sales_rollups}; never aggregates orders at request time.
+ */
+@Service
+public class SalesReportService {
+
+    private static final int MAX_TOP_LIMIT = 100;
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    public SalesReportService(SalesRollupRepository salesRollupRepository) {
+        this.salesRollupRepository = salesRollupRepository;
+    }
+
+    // One row per day, or per day and category/product
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponseDTO> getByDay(SalesDimension dimension, LocalDate from, LocalDate to) {
+        return salesRollupRepository.findByDay(dimension, from, to);
+    }
+
+    // Categories or products ranked by revenue over the whole range
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponseDTO> getTop(SalesDimension dimension, LocalDate from, LocalDate to, int limit) {
+        return salesRollupRepository.findTotals(dimension, from, to,
+                PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_TOP_LIMIT)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.repository.SalesRollupMarkerRepository;
+import com.example.bookstore.repository.SalesRollupRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Keeps the sales rollups current from order events: a created order is added, a cancellation or refund takes
+ * it back out. The marker row for the order and the rollup change commit together, which makes redelivery safe.
+ */
+@Component
+public class SalesRollupListener implements OutboxEventListener {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesRollupMarkerRepository salesRollupMarkerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SalesRollupListener(SalesRollupRepository salesRollupRepository,
+                               SalesRollupMarkerRepository salesRollupMarkerRepository,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.salesRollupMarkerRepository = salesRollupMarkerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxService.ORDER_CREATED.equals(eventType) || OutboxService.ORDER_STATUS_CHANGED.equals(eventType);
+    }
+
+    @Override
+    public void onEvent(OutboxMessage message) {
+        JsonNode payload = readPayload(message);
+        Integer orderId = payload.get("orderId").asInt();
+        if (OutboxService.ORDER_CREATED.equals(message.eventType())) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (salesRollupMarkerRepository.markCounted(orderId) == 1) {
+                    salesRollupRepository.applyOrder(orderId, 1);
+                }
+            });
+            return;
+        }
+
+        OrderStatus newStatus = OrderStatus.valueOf(payload.get("status").asText());
+        if (newStatus != OrderStatus.CANCELLED && newStatus != OrderStatus.REFUNDED) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Boolean> claimed = salesRollupMarkerRepository.markReversed(orderId);
+            if (!claimed.isEmpty() && Boolean.TRUE.equals(claimed.get(0))) {
+                salesRollupRepository.applyOrder(orderId, -1);
+            }
+        });
+    }
+
+    private JsonNode readPayload(OutboxMessage message) {
+        try {
+            return objectMapper.readTree(message.payload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed payload in outbox event " + message.id(), e);
+        }
+    }
+}
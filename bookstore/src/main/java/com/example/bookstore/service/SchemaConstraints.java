@@ -0,0 +1,94 @@
+package com.example.bookstore.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Creates the constraints queries depend on but {@code ddl-auto=update} only adds on a fresh table, or not at
+ * all when existing rows violate them (Hibernate then just logs the failed DDL). Runs after Hibernate has
+ * created the tables and before any request is served; a constraint that cannot be created stops the startup
+ * rather than leaving every statement that relies on it to fail later.
+ * <p>
+ * {@code uk_refresh_tokens_user_id}: the refresh-token upsert names {@code ON CONFLICT (user_id)}. Rows from
+ * before one token per user are reduced to the latest-expiring token of each user first.
+ * <p>
+ * {@code fk_users_role_id}: {@code users.role_id} is a plain column resolved through {@link RoleRegistry}, so
+ * Hibernate no longer declares the foreign key to {@code roles}. Databases that still have the key it created
+ * for the former association keep that one.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaConstraints {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SchemaConstraints(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void createConstraints() {
+        createIfMissing("refresh_tokens", "uk_refresh_tokens_user_id",
+                () -> hasConstraint("refresh_tokens", "uk_refresh_tokens_user_id"), () -> {
+            int removed = jdbcTemplate.update("DELETE FROM refresh_tokens t USING refresh_tokens k " +
+                    "WHERE t.user_id = k.user_id AND (t.expiry_date, t.id) < (k.expiry_date, k.id)");
+            if (removed > 0) {
+                log.info("Removed {} superseded refresh tokens", removed);
+            }
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens " +
+                    "ADD CONSTRAINT uk_refresh_tokens_user_id UNIQUE (user_id)");
+        });
+        if (isTable("roles")) {
+            createIfMissing("users", "fk_users_role_id", () -> hasForeignKey("users", "role_id", "roles"),
+                    () -> jdbcTemplate.execute("ALTER TABLE users " +
+                            "ADD CONSTRAINT fk_users_role_id FOREIGN KEY (role_id) REFERENCES roles (id)"));
+        }
+    }
+
+    private void createIfMissing(String table, String constraint, BooleanSupplier present, Runnable create) {
+        if (!isTable(table) || present.getAsBoolean()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Blocks writers and other instances starting together; whoever waited finds the constraint there
+                jdbcTemplate.execute("LOCK TABLE " + table + " IN SHARE ROW EXCLUSIVE MODE");
+                if (!present.getAsBoolean()) {
+                    create.run();
+                    log.info("Created constraint {} on {}", constraint, table);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Unable to create constraint " + constraint + " on " + table, e);
+        }
+    }
+
+    private boolean hasConstraint(String table, String constraint) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_constraint " +
+                "WHERE conrelid = to_regclass(?) AND conname = ?)", Boolean.class, table, constraint));
+    }
+
+    // Any foreign key from this single column to the referenced table, whatever it is called
+    private boolean hasForeignKey(String table, String column, String referenced) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_constraint c " +
+                "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1] " +
+                "WHERE c.contype = 'f' AND c.conrelid = to_regclass(?) AND c.confrelid = to_regclass(?) " +
+                "AND cardinality(c.conkey) = 1 AND a.attname = ?)", Boolean.class, table, referenced, column));
+    }
+
+    private boolean isTable(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.RevokedToken;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.repository.RevokedTokenRepository;
+import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.util.AccessTokenClaims;
+import com.example.bookstore.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation of access tokens before they expire, without giving up stateless verification.
+ * <p>
+ * The denylist is persisted in {@code revoked_tokens} and mirrored in memory as two exact maps (revoked jtis, and
+ * per-user cut-offs for "revoke everything") behind a {@link BloomFilter}. A token that was never revoked, which is
+ * nearly every one, is cleared by the filter after a few bit reads; only a filter hit consults the maps. Entries
+ * are dropped once the tokens they cover have expired, and the filter is rebuilt from what remains.
+ * <p>
+ * Revocations made on another instance are picked up by the periodic {@link #refresh()}, so they take effect
+ * there within {@code jwt.revocation.refresh-interval-ms}. Local revocations reach the maps and the filter once
+ * their row is committed, so a rolled-back revocation never rejects tokens here that other instances accept.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.001;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final TransactionTemplate transactionTemplate;
+    private final long accessTokenValidity;
+    private final int expectedEntries;
+    private final int cleanupBatchSize;
+
+    // jti -> expiry of that token
+    private final Map<String, Instant> revokedTokenIds = new ConcurrentHashMap<>();
+    // user id -> cut-off: the user's tokens issued before it are revoked
+    private final Map<Integer, Instant> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  UserRepository userRepository,
+                                  RefreshTokenService refreshTokenService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jwt.expiration}") long accessTokenValidity,
+                                  @Value("${jwt.revocation.expected-entries:10000}") int expectedEntries,
+                                  @Value("${jwt.revocation.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accessTokenValidity = accessTokenValidity;
+        this.expectedEntries = expectedEntries;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_PROBABILITY);
+    }
+
+    /**
+     * Whether the verified token has been revoked, by its jti or by a revocation of all of its user's tokens.
+     */
+    public boolean isRevoked(AccessTokenClaims claims) {
+        BloomFilter current = filter;
+        String tokenId = claims.tokenId();
+        if (tokenId != null && current.mightContain(BloomFilter.hash(tokenId))
+                && revokedTokenIds.containsKey(tokenId)) {
+            return true;
+        }
+        if (claims.userId() != null && current.mightContain(BloomFilter.hash(claims.userId()))) {
+            Instant cutoff = revokedUsers.get(claims.userId());
+            return cutoff != null && (claims.issuedAt() == null || claims.issuedAt().isBefore(cutoff));
+        }
+        return false;
+    }
+
+    /**
+     * Revokes the presented token and the user's refresh token, as on logout.
+     */
+    @Transactional
+    public void revokeToken(AccessTokenClaims claims) {
+        if (claims.tokenId() == null) {
+            // Issued before tokens carried a jti: only a cut-off can reach it
+            revokeAllForUser(claims.userId());
+            return;
+        }
+        refreshTokenService.deleteByUser(userRepository.getReferenceById(claims.userId()));
+        if (revokedTokenIds.containsKey(claims.tokenId())) {
+            return;
+        }
+        RevokedToken entry = new RevokedToken();
+        entry.setTokenId(claims.tokenId());
+        entry.setUserId(claims.userId());
+        entry.setExpiresAt(claims.expiresAt());
+        revokedTokenRepository.save(entry);
+        afterCommit(() -> {
+            synchronized (this) {
+                revokedTokenIds.put(claims.tokenId(), claims.expiresAt());
+                filter.add(BloomFilter.hash(claims.tokenId()));
+            }
+        });
+    }
+
+    /**
+     * Revokes every access token issued to the user so far, and their refresh token. JWT issue times have whole
+     * seconds, so the cut-off is rounded up: a token issued in the same second as the revocation is revoked too.
+     */
+    @Transactional
+    public void revokeAllForUser(Integer userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        refreshTokenService.deleteByUser(user);
+
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        RevokedToken entry = new RevokedToken();
+        entry.setUserId(userId);
+        entry.setRevokedBefore(cutoff);
+        entry.setExpiresAt(cutoff.plusMillis(accessTokenValidity));
+        revokedTokenRepository.save(entry);
+        afterCommit(() -> {
+            synchronized (this) {
+                revokedUsers.merge(userId, cutoff, (a, b) -> a.isAfter(b) ? a : b);
+                filter.add(BloomFilter.hash(userId));
+            }
+        });
+    }
+
+    /**
+     * Reloads the denylist, so revocations made on other instances apply here, drops entries whose tokens have
+     * expired and deletes their rows in chunks.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        Instant now = Instant.now();
+        List<RevokedToken> live = transactionTemplate.execute(status ->
+                revokedTokenRepository.findByExpiresAtAfter(now));
+        synchronized (this) {
+            for (RevokedToken entry : live) {
+                if (entry.getTokenId() != null) {
+                    revokedTokenIds.putIfAbsent(entry.getTokenId(), entry.getExpiresAt());
+                } else if (entry.getRevokedBefore() != null) {
+                    revokedUsers.merge(entry.getUserId(), entry.getRevokedBefore(), (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+            revokedTokenIds.values().removeIf(expiresAt -> !now.isBefore(expiresAt));
+            revokedUsers.values().removeIf(cutoff -> !now.isBefore(cutoff.plusMillis(accessTokenValidity)));
+
+            BloomFilter rebuilt = new BloomFilter(
+                    Math.max(expectedEntries, 2 * (revokedTokenIds.size() + revokedUsers.size())),
+                    FALSE_POSITIVE_PROBABILITY);
+            revokedTokenIds.keySet().forEach(tokenId -> rebuilt.add(BloomFilter.hash(tokenId)));
+            revokedUsers.keySet().forEach(userId -> rebuilt.add(BloomFilter.hash(userId)));
+            filter = rebuilt;
+        }
+
+        int deleted;
+        long total = 0;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    revokedTokenRepository.deleteExpired(now, cleanupBatchSize));
+            total += deleted;
+        } while (deleted >= cleanupBatchSize);
+        if (total > 0) {
+            log.debug("Deleted {} expired token revocations", total);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
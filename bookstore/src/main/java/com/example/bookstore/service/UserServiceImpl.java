@@ -1,9 +1,7 @@
 package com.example.bookstore.service;
 
 import com.example.bookstore.dto.request.UserDTO;
-import com.example.bookstore.dto.response.RoleResponseDTO;
 import com.example.bookstore.dto.response.UserResponseDTO;
-import com.example.bookstore.entity.Role;
 import com.example.bookstore.entity.User;
 import com.example.bookstore.repository.UserRepository;
 import com.example.bookstore.security.BookstoreUserDetails;
@@ -12,6 +10,7 @@ import org.modelmapper.PropertyMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,36 +21,33 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final RoleService roleService;
+    private final RoleRegistry roleRegistry;
     private final ModelMapper modelMapper;
+    private final PasswordEncoder passwordEncoder;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, RoleService roleService, ModelMapper modelMapper) {
+    public UserServiceImpl(UserRepository userRepository, RoleRegistry roleRegistry, ModelMapper modelMapper,
+                           PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
-        this.roleService = roleService;
+        this.roleRegistry = roleRegistry;
         this.modelMapper = modelMapper;
+        this.passwordEncoder = passwordEncoder;
 
         modelMapper.addMappings(new PropertyMap<UserDTO, User>() {
             @Override
             protected void configure() {
                 skip(destination.getId());
+                skip(destination.getPassword());
                 skip(destination.getCreatedAt());
                 skip(destination.getUpdatedAt());
                 skip(destination.getIsDeleted());
                 skip(destination.getIsActive());
-                skip(destination.getRole());
+                skip(destination.getRoleId());
                 skip(destination.getReviews());
                 skip(destination.getCart());
                 skip(destination.getOrders());
             }
         });
-
-        modelMapper.addMappings(new PropertyMap<User, UserResponseDTO>() {
-            @Override
-            protected void configure() {
-                map(source.getRole().getName(), destination.getRoleName());
-            }
-        });
     }
 
 
@@ -59,8 +55,7 @@ public class UserServiceImpl implements UserService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        System.out.println("User role from DB: " + user.getRole().getName());
-        return new BookstoreUserDetails(user);
+        return new BookstoreUserDetails(user, roleRegistry.get(user.getRoleId()));
     }
 
     @Override
@@ -70,17 +65,15 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("User with email '" + request.getEmail() + "' already exists");
         }
 
-        RoleResponseDTO roleResponseDTO = roleService.getRoleById(request.getRoleId());
-        Role role = new Role();
-        role.setId(roleResponseDTO.getId());
-        role.setName(roleResponseDTO.getName().toLowerCase());
+        RoleRegistry.RoleEntry role = roleRegistry.get(request.getRoleId());
 
         User user = modelMapper.map(request, User.class);
-        user.setRole(role);
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setRoleId(role.id());
         user.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
 
         User savedUser = userRepository.save(user);
-        return modelMapper.map(savedUser, UserResponseDTO.class);
+        return toResponse(savedUser);
     }
 
     @Override
@@ -93,17 +86,18 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("User with email '" + request.getEmail() + "' already exists");
         }
 
-        RoleResponseDTO roleResponseDTO = roleService.getRoleById(request.getRoleId());
-        Role role = new Role();
-        role.setId(roleResponseDTO.getId());
-        role.setName(roleResponseDTO.getName());
+        RoleRegistry.RoleEntry role = roleRegistry.get(request.getRoleId());
 
         modelMapper.map(request, user);
-        user.setRole(role);
+        // A blank password on update keeps the current one
+        if (request.getPassword() != null && !request.getPassword().isBlank()) {
+            user.setPassword(passwordEncoder.encode(request.getPassword()));
+        }
+        user.setRoleId(role.id());
         user.setIsActive(request.getIsActive() != null ? request.getIsActive() : user.getIsActive());
 
         User updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserResponseDTO.class);
+        return toResponse(updatedUser);
     }
 
     @Override
@@ -111,14 +105,14 @@ public class UserServiceImpl implements UserService {
     public UserResponseDTO getUserById(Integer id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
-        return modelMapper.map(user, UserResponseDTO.class);
+        return toResponse(user);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<UserResponseDTO> getAllUsers() {
         return userRepository.findAll().stream()
-                .map(user -> modelMapper.map(user, UserResponseDTO.class))
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
@@ -135,6 +129,12 @@ public class UserServiceImpl implements UserService {
     public UserResponseDTO getUserProfile(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-        return modelMapper.map(user, UserResponseDTO.class);
+        return toResponse(user);
+    }
+
+    private UserResponseDTO toResponse(User user) {
+        UserResponseDTO response = modelMapper.map(user, UserResponseDTO.class);
+        response.setRoleName(roleRegistry.get(user.getRoleId()).name());
+        return response;
     }
 }
\ No newline at end of file
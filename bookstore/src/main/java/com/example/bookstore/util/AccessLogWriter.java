@@ -0,0 +1,129 @@
+package com.example.bookstore.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The access log: one JSON line per request on the {@code access} logger.
+ * <p>
+ * Request threads only decide whether to keep the record and drop it into a {@link RingBuffer}; formatting and
+ * the logging framework run on a single background thread. When the buffer is full the record is discarded and
+ * counted, so a slow log sink never holds up a request. Apart from errors and slow requests, which are always
+ * kept, only {@code sample-rate} of the requests are recorded.
+ */
+@Component
+public class AccessLogWriter {
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("access");
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final RingBuffer<Entry> buffer;
+    private final Counter dropped;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public AccessLogWriter(MeterRegistry meterRegistry,
+                           @Value("${access-log.enabled:true}") boolean enabled,
+                           @Value("${access-log.sample-rate:1.0}") double sampleRate,
+                           @Value("${access-log.slow-threshold-ms:1000}") long slowThresholdMs,
+                           @Value("${access-log.buffer-size:8192}") int bufferSize) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.dropped = Counter.builder("access.log.dropped")
+                .description("Access log records discarded because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("access.log.buffer.depth", buffer, RingBuffer::size)
+                .description("Access log records waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("access-log-writer").daemon().start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Queues the record of a finished request, unless it is sampled out; never blocks.
+     */
+    public void record(String method, String route, int status, long latencyNanos, Integer userId, int queries) {
+        if (!enabled) {
+            return;
+        }
+        boolean alwaysKept = status >= 500 || latencyNanos >= slowThresholdNanos;
+        if (!alwaysKept && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        if (!buffer.offer(new Entry(method, route, status, latencyNanos, userId, queries))) {
+            dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (drain() > 0) {
+            // flush what was queued before shutdown
+        }
+    }
+
+    private int drain() {
+        int written = 0;
+        Entry entry;
+        while (written < DRAIN_BATCH && (entry = buffer.poll()) != null) {
+            ACCESS_LOG.info(format(entry));
+            written++;
+        }
+        return written;
+    }
+
+    public static String format(Entry entry) {
+        StringBuilder line = new StringBuilder(128)
+                .append("{\"method\":\"").append(entry.method())
+                .append("\",\"route\":\"").append(entry.route())
+                .append("\",\"status\":").append(entry.status())
+                .append(",\"latencyMs\":")
+                .append(String.format(Locale.ROOT, "%.3f", entry.latencyNanos() / 1_000_000.0))
+                .append(",\"userId\":").append(entry.userId())
+                .append(",\"queries\":").append(entry.queries())
+                .append('}');
+        return line.toString();
+    }
+
+    public record Entry(String method, String route, int status, long latencyNanos, Integer userId, int queries) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bookstore.util;
+
+import java.time.Instant;
+
+/**
+ * The claims of an access token whose signature has been verified. Immutable, so one instance can be cached
+ * and shared by every request presenting the same token. {@code tokenId} is the jti, null for tokens issued
+ * before it was added.
+ */
+public record AccessTokenClaims(String subject, Integer userId, String role, Instant issuedAt, Instant expiresAt,
+                                String tokenId) {
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
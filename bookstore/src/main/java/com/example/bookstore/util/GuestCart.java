@@ -0,0 +1,23 @@
+package com.example.bookstore.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contents of an anonymous cart as carried in the guest-cart token: product id to quantity, in insertion order.
+ */
+public record GuestCart(long issuedAt, Map<Integer, Integer> items) {
+
+    public GuestCart {
+        items = Collections.unmodifiableMap(new LinkedHashMap<>(items));
+    }
+
+    public static GuestCart empty() {
+        return new GuestCart(0, Map.of());
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.exception.InvalidGuestCartException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes guest carts as {@code base64url(payload).base64url(mac)}. The payload is a format byte followed by
+ * varints: issued-at epoch seconds, item count, then (product id, quantity) pairs. The MAC is HMAC-SHA256 under
+ * a key derived from the JWT secret, truncated to 128 bits to keep the header small.
+ */
+@Component
+public class GuestCartCodec {
+
+    private static final byte FORMAT = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final Duration ttl;
+    private final int maxItems;
+
+    @Autowired
+    public GuestCartCodec(JwtUtil jwtUtil,
+                          @Value("${cart.guest.ttl-days:30}") long ttlDays,
+                          @Value("${cart.guest.max-items:50}") int maxItems) {
+        this.key = new SecretKeySpec(jwtUtil.deriveKey("guest-cart"), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.ttl = Duration.ofDays(ttlDays);
+        this.maxItems = maxItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public String encode(GuestCart cart) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + cart.items().size() * 6);
+        out.write(FORMAT);
+        writeVarLong(out, cart.issuedAt());
+        writeVarLong(out, cart.items().size());
+        cart.items().forEach((productId, quantity) -> {
+            writeVarLong(out, productId);
+            writeVarLong(out, quantity);
+        });
+        byte[] payload = out.toByteArray();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Verifies and parses a token. A null or blank token is an empty cart; anything tampered, malformed
+     * or older than the TTL is rejected.
+     */
+    public GuestCart decode(String token) {
+        if (token == null || token.isBlank()) {
+            return GuestCart.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            throw new InvalidGuestCartException();
+        }
+
+        byte[] payload;
+        byte[] mac;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            mac = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGuestCartException();
+        }
+        if (!MessageDigest.isEqual(sign(payload), mac)) {
+            throw new InvalidGuestCartException();
+        }
+
+        try {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            if (in.get() != FORMAT) {
+                throw new InvalidGuestCartException();
+            }
+            long issuedAt = readVarLong(in);
+            if (Instant.ofEpochSecond(issuedAt).plus(ttl).isBefore(Instant.now())) {
+                throw new InvalidGuestCartException();
+            }
+            long count = readVarLong(in);
+            if (count > maxItems) {
+                throw new InvalidGuestCartException();
+            }
+            Map<Integer, Integer> items = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                items.put(Math.toIntExact(readVarLong(in)), Math.toIntExact(readVarLong(in)));
+            }
+            if (in.hasRemaining()) {
+                throw new InvalidGuestCartException();
+            }
+            return new GuestCart(issuedAt, items);
+        } catch (BufferUnderflowException | ArithmeticException e) {
+            throw new InvalidGuestCartException();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return Arrays.copyOf(macs.get().doFinal(payload), MAC_LENGTH);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidGuestCartException();
+    }
+}
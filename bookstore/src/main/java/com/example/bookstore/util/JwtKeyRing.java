@@ -0,0 +1,268 @@
+package com.example.bookstore.util;
+
+import com.example.bookstore.entity.JwtSigningKey;
+import com.example.bookstore.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Asymmetric access-token keys ({@code jwt.signing.algorithm=ES256} or {@code EdDSA}). The keys live in
+ * {@code jwt_signing_keys} so every node signs with the same current key and can verify every key still in use;
+ * verifiers elsewhere only need the public keys from {@code /.well-known/jwks.json}, not {@code jwt.secret}.
+ * <p>
+ * Each refresh rotates in a new key once the current one is older than {@code jwt.keys.rotation-interval-ms}
+ * (one node at a time, under an advisory lock), then reloads the table. A retired key stays verifiable until the
+ * last token it signed has expired. Public keys are parsed once per key id and kept in memory; an unknown key id
+ * triggers an early reload, at most every few seconds, so keys rotated in by another node are picked up at once.
+ * With {@code HS512} the ring is idle and tokens are signed with the shared secret as before.
+ * <p>
+ * After a switch away from {@code HS512}, tokens without a kid (signed with the shared secret) are accepted only
+ * until the oldest key is {@code jwt.expiration} old, i.e. until every token issued before the switch has expired,
+ * unless {@code jwt.signing.accept-shared-secret-tokens} keeps them accepted for good.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private static final long ROTATION_LOCK_ID = 0x6a77745f6b657973L;
+    private static final long MISSED_KEY_RELOAD_INTERVAL_MS = 5_000;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final JwtSigningKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    // JWS algorithm of new keys, null when tokens are signed with the shared secret
+    private final String algorithm;
+    private final SecretKey wrappingKey;
+    private final long rotationIntervalMs;
+    private final long accessTokenValidity;
+    private final boolean acceptSharedSecretTokens;
+    // How long a retired key must keep verifying: other nodes may sign with it until their next refresh
+    private final long retiredKeyLifetimeMs;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, VerificationKey> verificationKeys = new ConcurrentHashMap<>();
+    private volatile ActiveKey activeKey;
+    private volatile List<PublicJwk<?>> publicJwks = List.of();
+    // When tokens signed with the shared secret before the switch have all expired; null while no key is loaded
+    private volatile Instant sharedSecretTokensUntil;
+    private volatile long lastReload;
+
+    @Autowired
+    public JwtKeyRing(JwtSigningKeyRepository repository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long accessTokenValidity,
+                      @Value("${jwt.signing.algorithm:HS512}") String algorithm,
+                      @Value("${jwt.keys.rotation-interval-ms:604800000}") long rotationIntervalMs,
+                      @Value("${jwt.keys.refresh-interval-ms:60000}") long refreshIntervalMs,
+                      @Value("${jwt.signing.accept-shared-secret-tokens:false}") boolean acceptSharedSecretTokens) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.algorithm = switch (algorithm) {
+            case "HS512" -> null;
+            case "ES256", "EdDSA" -> algorithm;
+            default -> throw new IllegalArgumentException("Unsupported jwt.signing.algorithm: " + algorithm);
+        };
+        this.wrappingKey = new SecretKeySpec(JwtUtil.deriveKey(secret, "jwt-signing-keys"), "AES");
+        this.rotationIntervalMs = rotationIntervalMs;
+        this.accessTokenValidity = accessTokenValidity;
+        this.acceptSharedSecretTokens = acceptSharedSecretTokens;
+        this.retiredKeyLifetimeMs = accessTokenValidity + refreshIntervalMs;
+    }
+
+    public boolean isEnabled() {
+        return algorithm != null;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> rotateIfDue());
+        reload();
+    }
+
+    /**
+     * The key new tokens are signed with, or {@code null} when tokens are signed with the shared secret.
+     */
+    public ActiveKey activeKey() {
+        return activeKey;
+    }
+
+    /**
+     * The public key for a token's {@code kid}, or {@code null} when no live key has that id.
+     */
+    public PublicKey verificationKey(String kid) {
+        VerificationKey key = verificationKeys.get(kid);
+        if (key == null && isEnabled() && System.currentTimeMillis() - lastReload > MISSED_KEY_RELOAD_INTERVAL_MS) {
+            reload();
+            key = verificationKeys.get(kid);
+        }
+        return key == null ? null : key.publicKey();
+    }
+
+    /**
+     * Whether a token without a kid, signed with the shared secret, is still accepted.
+     */
+    public boolean acceptsSharedSecretTokens() {
+        if (!isEnabled() || acceptSharedSecretTokens) {
+            return true;
+        }
+        Instant until = sharedSecretTokensUntil;
+        // No key loaded yet: this node still signs with the shared secret itself
+        return until == null || Instant.now().isBefore(until);
+    }
+
+    public List<PublicJwk<?>> publicJwks() {
+        return publicJwks;
+    }
+
+    private void rotateIfDue() {
+        if (!repository.tryLockRotation(ROTATION_LOCK_ID)) {
+            return;
+        }
+        Instant now = Instant.now();
+        Optional<JwtSigningKey> current = repository.findFirstByVerifyUntilIsNullOrderByCreatedAtDesc();
+        if (current.isPresent() && current.get().getAlgorithm().equals(algorithm)
+                && current.get().getCreatedAt().plusMillis(rotationIntervalMs).isAfter(now)) {
+            return;
+        }
+        KeyPair keyPair = generateKeyPair();
+        JwtSigningKey key = new JwtSigningKey();
+        key.setKid(UUID.randomUUID().toString());
+        key.setAlgorithm(algorithm);
+        key.setKeyAlgorithm(keyPair.getPublic().getAlgorithm());
+        key.setPublicKey(keyPair.getPublic().getEncoded());
+        key.setPrivateKey(encrypt(keyPair.getPrivate().getEncoded()));
+        key.setCreatedAt(now);
+        repository.save(key);
+        repository.flush();
+        repository.retireAllExcept(key.getKid(), now.plusMillis(retiredKeyLifetimeMs));
+        repository.deleteExpired(now);
+        log.info("Rotated in JWT signing key {} ({})", key.getKid(), key.getAlgorithm());
+    }
+
+    private synchronized void reload() {
+        List<JwtSigningKey> keys = repository.findByVerifyUntilIsNullOrVerifyUntilAfter(Instant.now());
+        Set<String> live = new HashSet<>();
+        JwtSigningKey newest = null;
+        Instant oldest = null;
+        for (JwtSigningKey key : keys) {
+            live.add(key.getKid());
+            if (oldest == null || key.getCreatedAt().isBefore(oldest)) {
+                oldest = key.getCreatedAt();
+            }
+            verificationKeys.computeIfAbsent(key.getKid(), kid -> new VerificationKey(key.getAlgorithm(),
+                    decodePublic(key)));
+            if (key.getVerifyUntil() == null && (newest == null || key.getCreatedAt().isAfter(newest.getCreatedAt()))) {
+                newest = key;
+            }
+        }
+        verificationKeys.keySet().retainAll(live);
+        // A key is only deleted well after the next one was created plus jwt.expiration, so the oldest live key
+        // gives this bound even once the very first key is gone
+        sharedSecretTokensUntil = oldest == null ? null : oldest.plusMillis(accessTokenValidity);
+
+        if (newest != null && (activeKey == null || !activeKey.kid().equals(newest.getKid()))) {
+            activeKey = new ActiveKey(newest.getKid(), decodePrivate(newest));
+        }
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        verificationKeys.forEach((kid, key) -> jwks.add(Jwks.builder().key(key.publicKey())
+                .id(kid).algorithm(key.algorithm()).publicKeyUse("sig").build()));
+        publicJwks = List.copyOf(jwks);
+        lastReload = System.currentTimeMillis();
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            if (algorithm.equals("ES256")) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"), random);
+                return generator.generateKeyPair();
+            }
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate a " + algorithm + " key pair", e);
+        }
+    }
+
+    private static PublicKey decodePublic(JwtSigningKey key) {
+        try {
+            return KeyFactory.getInstance(key.getKeyAlgorithm())
+                    .generatePublic(new X509EncodedKeySpec(key.getPublicKey()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unreadable public key " + key.getKid(), e);
+        }
+    }
+
+    private PrivateKey decodePrivate(JwtSigningKey key) {
+        try {
+            return KeyFactory.getInstance(key.getKeyAlgorithm())
+                    .generatePrivate(new PKCS8EncodedKeySpec(decrypt(key.getPrivateKey())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unreadable private key " + key.getKid(), e);
+        }
+    }
+
+    // IV followed by the AES-GCM ciphertext
+    private byte[] encrypt(byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plain);
+            return ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt signing key", e);
+        }
+    }
+
+    private byte[] decrypt(byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, stored, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(stored, GCM_IV_LENGTH, stored.length - GCM_IV_LENGTH);
+    }
+
+    public record ActiveKey(String kid, PrivateKey privateKey) {
+    }
+
+    private record VerificationKey(String algorithm, PublicKey publicKey) {
+    }
+}
@@ -1,60 +1,158 @@
 package com.example.bookstore.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secret;
+    private final String secret;
 
-    @Value("${jwt.expiration}")
-    private long accessTokenValidity;
+    private final long accessTokenValidity;
 
     private final long refreshTokenValidity = 1000 * 60 * 60 * 24 * 7; // 7 days
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Derived once: the key and the parser are immutable and safe to share between threads
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // Asymmetric keys by kid when jwt.signing.algorithm is ES256 or EdDSA; null or idle for the shared secret
+    private final JwtKeyRing keyRing;
+
+    // SHA-256 of the whole token (signature included) -> its verified claims, dropped once the token expires
+    private final Map<ByteBuffer, AccessTokenClaims> verifiedTokens = new ConcurrentHashMap<>();
+    private final int maxCachedTokens;
+
+    public JwtUtil(String secret, long accessTokenValidity, int maxCachedTokens) {
+        this(secret, accessTokenValidity, maxCachedTokens, null);
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long accessTokenValidity,
+                   @Value("${jwt.verified-cache.max-entries:10000}") int maxCachedTokens,
+                   JwtKeyRing keyRing) {
+        this.secret = secret;
+        this.accessTokenValidity = accessTokenValidity;
+        this.maxCachedTokens = maxCachedTokens;
+        this.keyRing = keyRing;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        // A token with a kid was signed by a key of the ring; one without by the shared secret, which the ring
+        // stops accepting once the tokens issued before the switch to key pairs have expired
+        this.parser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String kid = header.getKeyId();
+                if (kid == null) {
+                    if (keyRing != null && !keyRing.acceptsSharedSecretTokens()) {
+                        throw new MalformedJwtException("Token signed with the retired shared secret");
+                    }
+                    return signingKey;
+                }
+                Key key = keyRing == null ? null : keyRing.verificationKey(kid);
+                if (key == null) {
+                    throw new MalformedJwtException("Unknown signing key " + kid);
+                }
+                return key;
+            }
+        }).build();
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Derives an independent HMAC-SHA256 key from the JWT secret for another signing purpose,
+     * so tokens of one kind can never be replayed as another.
+     */
+    public byte[] deriveKey(String purpose) {
+        return deriveKey(secret, purpose);
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    static byte[] deriveKey(String secret, String purpose) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(purpose.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive key for " + purpose, e);
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verifies an access token once and returns its claims. A token verified before is answered from the cache
+     * until it expires; anything else is parsed and checked in full. Throws {@link ExpiredJwtException} for an
+     * expired token and another {@link io.jsonwebtoken.JwtException} (or {@link IllegalArgumentException}) for
+     * any other invalid one.
+     */
+    public AccessTokenClaims verify(String token) {
+        ByteBuffer digest = digest(token);
+        Instant now = Instant.now();
+        AccessTokenClaims cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verifiedTokens.remove(digest, cached);
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        String role = claims.get("role", String.class);
+        Integer userId = claims.get("uid", Integer.class);
+        if (role == null || userId == null || claims.getExpiration() == null) {
+            // Refresh tokens share the key but carry no role; they must not authenticate requests.
+            // Tokens issued before the user id was added are refused too and renewed through the refresh token
+            throw new MalformedJwtException("Not an access token");
+        }
+        AccessTokenClaims verified = new AccessTokenClaims(claims.getSubject(), userId, role,
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant(), claims.getId());
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            evictExpired();
+        }
+        if (verifiedTokens.size() < maxCachedTokens) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    @Scheduled(fixedDelayString = "${jwt.verified-cache.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        verifiedTokens.values().removeIf(claims -> claims.isExpired(now));
     }
 
-    public String generateToken(String username, String role) {
+    /**
+     * Issues an access token carrying the user id and role next to the email, so an authenticated request needs
+     * no lookup to know who is calling, and a random jti by which it can be revoked.
+     */
+    public String generateToken(Integer userId, String username, String role) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        claims.put("uid", userId);
         claims.put("role", role);
         return createToken(claims, username, accessTokenValidity);
     }
@@ -64,17 +162,25 @@ public class JwtUtil {
     }
 
     private String createToken(Map<String, Object> claims, String subject, long validity) {
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + validity))
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + validity));
+        JwtKeyRing.ActiveKey activeKey = keyRing == null ? null : keyRing.activeKey();
+        if (activeKey != null) {
+            builder.header().keyId(activeKey.kid()).and().signWith(activeKey.privateKey());
+        } else {
+            builder.signWith(signingKey);
+        }
+        return builder.compact();
     }
 
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.bookstore.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue on a power-of-two ring of slots (Vyukov's bounded MPMC design). Each slot carries a
+ * sequence number telling producers and consumers whose turn it is, so {@link #offer} and {@link #poll} are one
+ * compare-and-set each and never block: a full ring refuses the item, an empty one returns null.
+ */
+public final class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public RingBuffer(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.items = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    public boolean offer(T item) {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long gap = sequences.get(index) - position;
+            if (gap == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    items.set(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = head.get();
+            } else if (gap < 0) {
+                return false;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    public T poll() {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long gap = sequences.get(index) - (position + 1);
+            if (gap == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    T item = items.get(index);
+                    items.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return item;
+                }
+                position = tail.get();
+            } else if (gap < 0) {
+                return null;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    public int size() {
+        return (int) Math.max(0, head.get() - tail.get());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.request.AddCartItemRequestDTO;
+import com.example.bookstore.service.CartService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent quantity increments on one cart line through {@code CartServiceImpl}, so every attempt goes through
+ * Hibernate's {@code @Version} check on {@code carts}/{@code cart_items} and the retry executor. Asserts that no
+ * increment is lost and reports commits/s and conflicts. Runs only when a scratch database is supplied, e.g.
+ * {@code mvn test -Dtest=CartOptimisticLockBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/bench}
+ * (optionally {@code -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...}); the schema is created by
+ * {@code ddl-auto} and the cart of user 1 is reset before and after.
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+@SpringBootTest(properties = {
+        "cart.storage=rows",
+        "cart.retry.max-attempts=1000",
+        "cart.retry.base-delay-ms=1",
+        "cart.retry.max-delay-ms=8"
+})
+public class CartOptimisticLockBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 200;
+    private static final int PRODUCT_ID = 900_001;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.jdbc.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.jdbc.user", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.jdbc.password", ""));
+    }
+
+    @BeforeEach
+    void setUp() {
+        // CartServiceImpl always works on the cart of user 1
+        jdbcTemplate.update("INSERT INTO roles (id, name, is_deleted) VALUES (900001, 'bench', false) " +
+                "ON CONFLICT DO NOTHING");
+        jdbcTemplate.update("INSERT INTO users (id, role_id, email, password, is_active, is_deleted) " +
+                "VALUES (1, 900001, 'bench@example.com', 'x', true, false) ON CONFLICT DO NOTHING");
+        jdbcTemplate.update("INSERT INTO categories (id, name, is_deleted) VALUES (900001, 'bench', false) " +
+                "ON CONFLICT DO NOTHING");
+        jdbcTemplate.update("INSERT INTO products (id, category_id, name, image_url, price, author, stock, " +
+                "is_deleted) VALUES (?, 900001, 'bench', 'bench.png', 9.99, 'bench', 0, false) ON CONFLICT DO NOTHING",
+                PRODUCT_ID);
+        resetCart();
+        // Create the cart and its line up front, so the measured calls only increment
+        cartService.addItemToCart(request(), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resetCart();
+    }
+
+    @Test
+    void concurrentIncrements() throws Exception {
+        double conflictsBefore = meterRegistry.get("optimistic.retry.conflicts").counter().count();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    cartService.addItemToCart(request(), null);
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        pool.shutdown();
+
+        int commits = THREADS * INCREMENTS_PER_THREAD;
+        double conflicts = meterRegistry.get("optimistic.retry.conflicts").counter().count() - conflictsBefore;
+        System.out.printf("cart increments: %d threads, %d commits, %.0f conflicts, %.0f commits/s%n",
+                THREADS, commits, conflicts, commits / (elapsedNanos / 1_000_000_000.0));
+
+        Integer quantity = jdbcTemplate.queryForObject("SELECT ci.quantity FROM cart_items ci " +
+                "JOIN carts c ON c.id = ci.cart_id WHERE c.user_id = 1 AND ci.product_id = ?", Integer.class, PRODUCT_ID);
+        assertEquals(commits + 1, quantity);
+    }
+
+    private void resetCart() {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (SELECT id FROM carts WHERE user_id = 1)");
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id = 1");
+    }
+
+    private static AddCartItemRequestDTO request() {
+        AddCartItemRequestDTO request = new AddCartItemRequestDTO();
+        request.setProductId(PRODUCT_ID);
+        request.setQuantity(1);
+        return request;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.bookstore.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the row-per-item and JSONB document cart layouts on a real PostgreSQL: p50/p99 latency of a full
+ * cart read and of a one-line quantity change, plus WAL bytes generated per write.
+ * Runs only when a scratch database is supplied, e.g.
+ * {@code mvn test -Dtest=CartStorageBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/bench}
+ * (optionally {@code -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...}).
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+public class CartStorageBenchmarkTest {
+
+    private static final int CARTS = 2_000;
+    private static final int LINES_PER_CART = 30;
+    private static final int OPERATIONS = 5_000;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        connection.setAutoCommit(true);
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_cart_items, bench_carts, bench_cart_documents");
+            st.execute("CREATE TABLE bench_carts (id serial PRIMARY KEY, user_id int UNIQUE NOT NULL, " +
+                    "updated_at timestamp NOT NULL DEFAULT now(), version bigint NOT NULL DEFAULT 0)");
+            st.execute("CREATE TABLE bench_cart_items (id serial PRIMARY KEY, cart_id int NOT NULL REFERENCES bench_carts, " +
+                    "product_id int NOT NULL, quantity int NOT NULL, unit_price numeric(10,2) NOT NULL, " +
+                    "added_at timestamp NOT NULL DEFAULT now(), version bigint NOT NULL DEFAULT 0)");
+            st.execute("CREATE INDEX ON bench_cart_items (cart_id)");
+            st.execute("CREATE TABLE bench_cart_documents (user_id int PRIMARY KEY, items jsonb NOT NULL, " +
+                    "updated_at timestamp NOT NULL DEFAULT now(), version bigint NOT NULL DEFAULT 0)");
+            st.execute("INSERT INTO bench_carts (user_id) SELECT g FROM generate_series(1, " + CARTS + ") g");
+            st.execute("INSERT INTO bench_cart_items (cart_id, product_id, quantity, unit_price) " +
+                    "SELECT c.id, p, 1 + p % 3, 9.99 + p FROM bench_carts c, generate_series(1, " + LINES_PER_CART + ") p");
+            st.execute("INSERT INTO bench_cart_documents (user_id, items) SELECT c.user_id, " +
+                    "jsonb_agg(jsonb_build_object('productId', ci.product_id, 'quantity', ci.quantity, " +
+                    "'unitPrice', ci.unit_price, 'addedAt', ci.added_at) ORDER BY ci.id) " +
+                    "FROM bench_carts c JOIN bench_cart_items ci ON ci.cart_id = c.id GROUP BY c.user_id");
+            st.execute("ANALYZE bench_carts, bench_cart_items, bench_cart_documents");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_cart_items, bench_carts, bench_cart_documents");
+        }
+        connection.close();
+    }
+
+    @Test
+    void compareLayouts() throws SQLException {
+        try (PreparedStatement cart = connection.prepareStatement("SELECT id, version FROM bench_carts WHERE user_id = ?");
+             PreparedStatement items = connection.prepareStatement(
+                     "SELECT id, product_id, quantity, unit_price, added_at FROM bench_cart_items WHERE cart_id = ?")) {
+            report("rows     read ", measure(() -> {
+                cart.setInt(1, randomUser());
+                int cartId;
+                try (ResultSet rs = cart.executeQuery()) {
+                    rs.next();
+                    cartId = rs.getInt(1);
+                }
+                items.setInt(1, cartId);
+                drain(items.executeQuery());
+            }), -1);
+        }
+
+        try (PreparedStatement document = connection.prepareStatement(
+                "SELECT items, version FROM bench_cart_documents WHERE user_id = ?")) {
+            report("document read ", measure(() -> {
+                document.setInt(1, randomUser());
+                drain(document.executeQuery());
+            }), -1);
+        }
+
+        // Mirrors CartServiceImpl: bump the line (its own version) and touch the cart row (cart version)
+        try (PreparedStatement item = connection.prepareStatement(
+                "UPDATE bench_cart_items SET quantity = quantity % 5 + 1, version = version + 1 " +
+                        "WHERE cart_id = ? AND product_id = ?");
+             PreparedStatement touch = connection.prepareStatement(
+                     "UPDATE bench_carts SET updated_at = now(), version = version + 1 WHERE id = ?")) {
+            long walBefore = walPosition();
+            long[] latencies = measure(() -> {
+                int cartId = randomUser();
+                item.setInt(1, cartId);
+                item.setInt(2, 1 + ThreadLocalRandom.current().nextInt(LINES_PER_CART));
+                item.executeUpdate();
+                touch.setInt(1, cartId);
+                touch.executeUpdate();
+            });
+            report("rows     write", latencies, walPosition() - walBefore);
+        }
+
+        // Mirrors DocumentCartServiceImpl: the application rewrites the whole document
+        try (PreparedStatement read = connection.prepareStatement(
+                "SELECT items::text FROM bench_cart_documents WHERE user_id = ?");
+             PreparedStatement write = connection.prepareStatement(
+                     "UPDATE bench_cart_documents SET items = ?::jsonb, updated_at = now(), version = version + 1 " +
+                             "WHERE user_id = ?")) {
+            String[] documents = new String[CARTS + 1];
+            for (int user = 1; user <= CARTS; user++) {
+                read.setInt(1, user);
+                try (ResultSet rs = read.executeQuery()) {
+                    rs.next();
+                    documents[user] = rs.getString(1);
+                }
+            }
+            long walBefore = walPosition();
+            long[] latencies = measure(() -> {
+                int user = randomUser();
+                write.setString(1, documents[user]);
+                write.setInt(2, user);
+                write.executeUpdate();
+            });
+            report("document write", latencies, walPosition() - walBefore);
+        }
+    }
+
+    private long[] measure(SqlAction action) throws SQLException {
+        for (int i = 0; i < OPERATIONS / 10; i++) {
+            action.run();
+        }
+        long[] latencies = new long[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private long walPosition() throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')::bigint")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void report(String label, long[] sortedNanos, long walBytes) {
+        // Warm-up writes are inside the WAL window, so divide by every write issued
+        String wal = walBytes < 0 ? "" : String.format(", WAL %.0f B/op", walBytes / (OPERATIONS * 1.1));
+        System.out.printf("%s p50 %.1f us, p99 %.1f us%s%n", label,
+                sortedNanos[sortedNanos.length / 2] / 1_000.0,
+                sortedNanos[(int) (sortedNanos.length * 0.99)] / 1_000.0, wal);
+    }
+
+    private static void drain(ResultSet rs) throws SQLException {
+        try (rs) {
+            while (rs.next()) {
+                rs.getObject(1);
+            }
+        }
+    }
+
+    private static int randomUser() {
+        return 1 + ThreadLocalRandom.current().nextInt(CARTS);
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+}
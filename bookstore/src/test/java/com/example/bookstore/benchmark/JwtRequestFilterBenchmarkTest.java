@@ -0,0 +1,94 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.repository.RevokedTokenRepository;
+import com.example.bookstore.repository.RoleRepository;
+import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.security.JwtRequestFilter;
+import com.example.bookstore.security.PublicRoutes;
+import com.example.bookstore.service.RefreshTokenService;
+import com.example.bookstore.service.RoleRegistry;
+import com.example.bookstore.service.TokenRevocationService;
+import com.example.bookstore.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request cost of {@link JwtRequestFilter} on an authenticated request, with the verified-token cache
+ * disabled (every request parses and checks the HMAC once) and enabled (repeat requests with the same token).
+ * A plain JUnit harness in the style of the other benchmarks rather than JMH, which is not on the build path:
+ * warm-up, then per-request latencies and throughput on one thread. The principal is built from the claims alone,
+ * so only token handling is measured; the revocation check runs against an empty denylist, the common case of
+ * a token nobody revoked. Runs only on request, e.g.
+ * {@code mvn test -Dtest=JwtRequestFilterBenchmarkTest -Dbenchmark.cpu=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.cpu", matches = "true")
+public class JwtRequestFilterBenchmarkTest {
+
+    private static final String SECRET = "6f1f1356dcb404aa532b06dc9b7cf5f3b1327b3f933c2720597df8eba010f9e4";
+    private static final int WARMUP = 50_000;
+    private static final int REQUESTS = 200_000;
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void measureFilterPerRequestCost() throws Exception {
+        run("no cache   ", new JwtUtil(SECRET, 86_400_000, 0));
+        run("token cache", new JwtUtil(SECRET, 86_400_000, 10_000));
+    }
+
+    private void run(String label, JwtUtil jwtUtil) throws ServletException, IOException {
+        TokenRevocationService revocations = new TokenRevocationService(mock(RevokedTokenRepository.class),
+                mock(UserRepository.class), mock(RefreshTokenService.class), mock(PlatformTransactionManager.class),
+                86_400_000, 10_000, 1000);
+        Role role = new Role();
+        role.setId(1);
+        role.setName("user");
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(role));
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.reload();
+        JwtRequestFilter filter = new JwtRequestFilter(jwtUtil, new PublicRoutes(), revocations, roleRegistry);
+        String header = "Bearer " + jwtUtil.generateToken(7, "reader@example.com", "user");
+        for (int i = 0; i < WARMUP; i++) {
+            filterOnce(filter, header);
+        }
+        long[] latencies = new long[REQUESTS];
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            filterOnce(filter, header);
+            latencies[i] = System.nanoTime() - start;
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        System.out.printf("%s p50 %.2f us, p99 %.2f us, %.0f requests/s%n", label,
+                latencies[REQUESTS / 2] / 1_000.0, latencies[(int) (REQUESTS * 0.99)] / 1_000.0, REQUESTS / seconds);
+    }
+
+    private static void filterOnce(JwtRequestFilter filter, String header) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", header);
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+}
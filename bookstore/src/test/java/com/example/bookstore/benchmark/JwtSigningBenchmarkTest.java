@@ -0,0 +1,72 @@
+package com.example.bookstore.benchmark;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Signature verification cost of an access token for the shared-secret HS512 against the asymmetric ES256 and
+ * EdDSA (Ed25519) keys of the key ring: a full parse and check per call, as on a cache miss in {@code JwtUtil}.
+ * A plain JUnit harness like the other benchmarks: warm-up, then per-call latencies and throughput on one thread.
+ * Runs only on request, e.g. {@code mvn test -Dtest=JwtSigningBenchmarkTest -Dbenchmark.cpu=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.cpu", matches = "true")
+public class JwtSigningBenchmarkTest {
+
+    private static final String SECRET = "6f1f1356dcb404aa532b06dc9b7cf5f3b1327b3f933c2720597df8eba010f9e4"
+            + "57a3a56ca87cbba7e2dd5b11d4282ca9eb6affc91fd7204c3d675a7bad713e65";
+    private static final int WARMUP = 5_000;
+    private static final int CALLS = 20_000;
+
+    private static volatile Object sink;
+
+    @Test
+    void measureVerifyCost() throws Exception {
+        var secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        run("HS512  ", secretKey, Jwts.parser().verifyWith(secretKey).build());
+
+        KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+        ec.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair es256 = ec.generateKeyPair();
+        run("ES256  ", es256.getPrivate(), Jwts.parser().verifyWith(es256.getPublic()).build());
+
+        KeyPair ed25519 = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        run("Ed25519", ed25519.getPrivate(), Jwts.parser().verifyWith(ed25519.getPublic()).build());
+    }
+
+    private static void run(String label, Key signingKey, JwtParser parser) {
+        String token = Jwts.builder()
+                .subject("reader@example.com")
+                .claim("uid", 7)
+                .claim("role", "user")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 86_400_000))
+                .signWith(signingKey)
+                .compact();
+        for (int i = 0; i < WARMUP; i++) {
+            sink = parser.parseSignedClaims(token);
+        }
+        long[] latencies = new long[CALLS];
+        long started = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            long start = System.nanoTime();
+            sink = parser.parseSignedClaims(token);
+            latencies[i] = System.nanoTime() - start;
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        System.out.printf("%s p50 %.1f us, p99 %.1f us, %.0f verifications/s, token %d bytes%n", label,
+                latencies[CALLS / 2] / 1_000.0, latencies[(int) (CALLS * 0.99)] / 1_000.0, CALLS / seconds,
+                token.length());
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.bookstore.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Checkout insert cost before and after the switch from identity columns to pooled sequences: one order plus
+ * its items, written the way Hibernate does in each case. With identity every row is its own
+ * {@code INSERT ... RETURNING id} round trip; with a pooled sequence (allocation 50) ids are assigned in memory,
+ * one {@code nextval} per 50 rows, and the rows go out as one JDBC batch per table, which
+ * {@code reWriteBatchedInserts} turns into multi-row inserts. Runs only when a scratch database is supplied, e.g.
+ * {@code mvn test -Dtest=OrderInsertBenchmarkTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/bench}
+ * (optionally {@code -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...}).
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+public class OrderInsertBenchmarkTest {
+
+    private static final int[] CART_SIZES = {5, 20, 100};
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int CHECKOUTS = 1_000;
+
+    private Connection connection;
+    private long statements;
+    private long nextId;
+    private long hiId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc.url");
+        connection = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            dropTables(st);
+            st.execute("CREATE TABLE bench_identity_orders (id serial PRIMARY KEY, user_id int NOT NULL, " +
+                    "order_date timestamp NOT NULL, total_amount numeric(10,2) NOT NULL)");
+            st.execute("CREATE TABLE bench_identity_items (id serial PRIMARY KEY, order_id int NOT NULL, " +
+                    "product_id int NOT NULL, quantity int NOT NULL, subtotal numeric(10,2) NOT NULL)");
+            st.execute("CREATE TABLE bench_seq_orders (id int PRIMARY KEY, user_id int NOT NULL, " +
+                    "order_date timestamp NOT NULL, total_amount numeric(10,2) NOT NULL)");
+            st.execute("CREATE TABLE bench_seq_items (id int PRIMARY KEY, order_id int NOT NULL, " +
+                    "product_id int NOT NULL, quantity int NOT NULL, subtotal numeric(10,2) NOT NULL)");
+            st.execute("CREATE SEQUENCE bench_ids INCREMENT BY " + ALLOCATION_SIZE + " START WITH " + ALLOCATION_SIZE);
+        }
+        connection.commit();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            dropTables(st);
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Test
+    void compareIdStrategies() throws SQLException {
+        for (int cartSize : CART_SIZES) {
+            try (PreparedStatement order = connection.prepareStatement("INSERT INTO bench_identity_orders " +
+                    "(user_id, order_date, total_amount) VALUES (?, ?, ?) RETURNING id");
+                 PreparedStatement item = connection.prepareStatement("INSERT INTO bench_identity_items " +
+                         "(order_id, product_id, quantity, subtotal) VALUES (?, ?, ?, ?) RETURNING id")) {
+                long[] latencies = measure(() -> {
+                    fillOrder(order, 0);
+                    int orderId = insertReturningId(order);
+                    for (int i = 0; i < cartSize; i++) {
+                        fillItem(item, 0, orderId, i);
+                        insertReturningId(item);
+                    }
+                });
+                report("identity cart " + cartSize, latencies);
+            }
+
+            try (PreparedStatement sequence = connection.prepareStatement("SELECT nextval('bench_ids')");
+                 PreparedStatement order = connection.prepareStatement("INSERT INTO bench_seq_orders " +
+                         "(id, user_id, order_date, total_amount) VALUES (?, ?, ?, ?)");
+                 PreparedStatement item = connection.prepareStatement("INSERT INTO bench_seq_items " +
+                         "(id, order_id, product_id, quantity, subtotal) VALUES (?, ?, ?, ?, ?)")) {
+                long[] latencies = measure(() -> {
+                    int orderId = (int) pooledId(sequence);
+                    order.setInt(1, orderId);
+                    fillOrder(order, 1);
+                    order.executeUpdate();
+                    statements++;
+                    for (int i = 0; i < cartSize; i++) {
+                        item.setInt(1, (int) pooledId(sequence));
+                        fillItem(item, 1, orderId, i);
+                        item.addBatch();
+                    }
+                    item.executeBatch();
+                    statements++;
+                });
+                report("sequence cart " + cartSize, latencies);
+            }
+        }
+        System.out.printf("%d checkouts per case, generated %s%n", CHECKOUTS, LocalDateTime.now());
+    }
+
+    // Mirrors Hibernate's pooled optimizer: nextval returns the top of a block of ALLOCATION_SIZE ids
+    private long pooledId(PreparedStatement sequence) throws SQLException {
+        if (nextId == 0 || nextId > hiId) {
+            try (ResultSet rs = sequence.executeQuery()) {
+                rs.next();
+                hiId = rs.getLong(1);
+            }
+            statements++;
+            nextId = hiId - ALLOCATION_SIZE + 1;
+        }
+        return nextId++;
+    }
+
+    private int insertReturningId(PreparedStatement insert) throws SQLException {
+        statements++;
+        try (ResultSet rs = insert.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void fillOrder(PreparedStatement order, int offset) throws SQLException {
+        order.setInt(offset + 1, 42);
+        order.setTimestamp(offset + 2, Timestamp.valueOf(LocalDateTime.now()));
+        order.setBigDecimal(offset + 3, new BigDecimal("99.90"));
+    }
+
+    private static void fillItem(PreparedStatement item, int offset, int orderId, int line) throws SQLException {
+        item.setInt(offset + 1, orderId);
+        item.setInt(offset + 2, 1 + line);
+        item.setInt(offset + 3, 1);
+        item.setBigDecimal(offset + 4, new BigDecimal("9.99"));
+    }
+
+    private long[] measure(SqlAction checkout) throws SQLException {
+        for (int i = 0; i < CHECKOUTS / 10; i++) {
+            checkout.run();
+            connection.commit();
+        }
+        statements = 0;
+        long[] latencies = new long[CHECKOUTS];
+        for (int i = 0; i < CHECKOUTS; i++) {
+            long start = System.nanoTime();
+            checkout.run();
+            connection.commit();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void dropTables(Statement st) throws SQLException {
+        st.execute("DROP TABLE IF EXISTS bench_identity_orders, bench_identity_items, " +
+                "bench_seq_orders, bench_seq_items");
+        st.execute("DROP SEQUENCE IF EXISTS bench_ids");
+    }
+
+    private void report(String label, long[] sortedNanos) {
+        System.out.printf("%-18s p50 %.1f us, p99 %.1f us, %.2f statements/checkout%n", label,
+                sortedNanos[sortedNanos.length / 2] / 1_000.0,
+                sortedNanos[(int) (sortedNanos.length * 0.99)] / 1_000.0,
+                (double) statements / sortedNanos.length);
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+}
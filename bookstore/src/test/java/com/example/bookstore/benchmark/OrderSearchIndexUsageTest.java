@@ -0,0 +1,258 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.dto.request.OrderSearchRequestDTO;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.service.OrderSearchService;
+import com.example.bookstore.util.QueryCountInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.scheduling.config.ScheduledTask;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every filter combination the admin order search accepts is served by an index on a generated
+ * dataset: two years of orders in the monthly partitions {@code OrderPartitionManager} creates, with the
+ * {@code (user_id, order_date)} and {@code (status, order_date)} indexes. Each combination goes through
+ * {@link OrderSearchService}; the orders statement Hibernate generates is recorded by {@link QueryCountInspector}
+ * and EXPLAINed with the same values bound. A plan that reads any orders partition holding rows with a sequential
+ * scan fails the test; the empty partitions ahead of the current month cost nothing either way. Runs only when a scratch database is supplied, e.g.
+ * {@code mvn test -Dtest=OrderSearchIndexUsageTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/bench}
+ * (optionally {@code -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...}); the application schema is created
+ * by {@code ddl-auto} in a {@code bench_search} schema that is dropped afterwards.
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+@SpringBootTest(properties = "orders.partitioning.migrate-on-startup=true")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OrderSearchIndexUsageTest {
+
+    private static final String SCHEMA = "bench_search";
+    private static final int YEARS = 2;
+    private static final int ORDERS = 1_000_000;
+    private static final int USERS = 50_000;
+    private static final int PAGE = 20;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ScheduledAnnotationBeanPostProcessor scheduledTasks;
+
+    private Set<String> populatedPartitions;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        // The schema has to exist before Hibernate creates the tables in it
+        try (Connection connection = connect(); Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+        }
+        String url = System.getProperty("benchmark.jdbc.url");
+        registry.add("spring.datasource.url", () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA);
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.jdbc.user", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.jdbc.password", ""));
+    }
+
+    @AfterAll
+    void dropSchema() throws SQLException {
+        // Stop the scheduled jobs first, or they fail on the missing tables until the context is closed
+        scheduledTasks.getScheduledTasks().forEach(ScheduledTask::cancel);
+        try (Connection connection = connect(); Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeAll
+    void setUp() {
+        // The application only creates partitions from the current month on
+        YearMonth current = YearMonth.now();
+        for (YearMonth month = current.minusYears(YEARS); month.isBefore(current); month = month.plusMonths(1)) {
+            String bounds = " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_p" + month.format(SUFFIX) + " PARTITION OF orders" + bounds);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_items_p" + month.format(SUFFIX) +
+                    " PARTITION OF order_items" + bounds);
+        }
+        jdbcTemplate.update("INSERT INTO roles (id, name, is_deleted) VALUES (1, 'bench', false) ON CONFLICT DO NOTHING");
+        jdbcTemplate.update("INSERT INTO users (id, role_id, email, password, is_active, is_deleted) " +
+                "SELECT g, 1, 'user' || g || '@example.com', 'x', true, false FROM generate_series(1, " + USERS + ") g " +
+                "ON CONFLICT DO NOTHING");
+        // Mostly finished orders, a few in flight, like a live shop
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, total_amount, status, shipping_address, " +
+                "payment_method) SELECT g, 1 + g % " + USERS + ", " +
+                "now() - make_interval(secs => (" + ORDERS + " - g) * (" + YEARS + " * 365.0 * 86400 / " + ORDERS + ")), " +
+                "5 + (g * 37) % 500, CASE WHEN g % 100 < 80 THEN 'DELIVERED' WHEN g % 100 < 90 THEN 'CANCELLED' " +
+                "WHEN g % 100 < 95 THEN 'SHIPPED' WHEN g % 100 < 98 THEN 'PROCESSING' ELSE 'PENDING' END, " +
+                "'bench', 'COD' FROM generate_series(1, " + ORDERS + ") g ON CONFLICT DO NOTHING");
+        jdbcTemplate.execute("ANALYZE users, orders");
+        populatedPartitions = Set.copyOf(jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'orders'::regclass AND c.reltuples > 0",
+                String.class));
+    }
+
+    @Test
+    void everySupportedFilterCombinationUsesAnIndex() {
+        Consumer<OrderSearchRequestDTO> email = request -> request.setEmail("user4242@example.com");
+        Consumer<OrderSearchRequestDTO> date = request -> {
+            request.setFrom(LocalDate.now().minusMonths(3));
+            request.setTo(LocalDate.now().minusMonths(1));
+        };
+        Consumer<OrderSearchRequestDTO> amount = request -> {
+            request.setMinAmount(new BigDecimal("100"));
+            request.setMaxAmount(new BigDecimal("250"));
+        };
+        Consumer<OrderSearchRequestDTO> keyset = request -> request.setCursor(
+                cursor(LocalDateTime.now().minusDays(30).truncatedTo(ChronoUnit.SECONDS), 990_000));
+
+        Map<String, Consumer<OrderSearchRequestDTO>> combinations = new LinkedHashMap<>();
+        combinations.put("email", email);
+        combinations.put("email + date", email.andThen(date));
+        combinations.put("email + amount", email.andThen(amount));
+        combinations.put("email + status", email.andThen(request -> request.setStatus(OrderStatus.DELIVERED)));
+        combinations.put("email + everything", email.andThen(request -> request.setStatus(OrderStatus.DELIVERED))
+                .andThen(date).andThen(amount));
+        for (OrderStatus status : new OrderStatus[]{OrderStatus.PENDING, OrderStatus.DELIVERED}) {
+            Consumer<OrderSearchRequestDTO> byStatus = request -> request.setStatus(status);
+            combinations.put("status " + status, byStatus);
+            combinations.put("status " + status + " + date", byStatus.andThen(date));
+            combinations.put("status " + status + " + amount", byStatus.andThen(amount));
+            combinations.put("status " + status + " + date + amount", byStatus.andThen(date).andThen(amount));
+            combinations.put("status " + status + " next page", byStatus.andThen(keyset));
+        }
+        combinations.put("email next page", email.andThen(keyset));
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Consumer<OrderSearchRequestDTO>> combination : combinations.entrySet()) {
+            OrderSearchRequestDTO request = new OrderSearchRequestDTO();
+            request.setSize(PAGE);
+            combination.getValue().accept(request);
+
+            QueryCountInspector.startRecording();
+            orderSearchService.search(request);
+            String sql = QueryCountInspector.stopRecording().get(0);
+            assertTrue(sql.contains(" from orders "), "Expected the orders query first, was: " + sql);
+
+            String plan = explain(sql, parameters(request));
+            boolean indexed = plan.contains("Index Scan") || plan.contains("Index Only Scan");
+            if (!indexed || scansPopulatedPartition(plan)) {
+                failures.add(combination.getKey() + ":\n" + sql + "\n" + plan);
+            }
+            System.out.printf("%-34s %s%n", combination.getKey(), indexed ? "index" : "NO INDEX");
+        }
+        assertTrue(failures.isEmpty(), "Filter combinations not served by an index:\n" + String.join("\n", failures));
+    }
+
+    private boolean scansPopulatedPartition(String plan) {
+        Matcher scan = SEQ_SCAN.matcher(plan);
+        while (scan.find()) {
+            if (scan.group(1).equals("orders") || populatedPartitions.contains(scan.group(1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The values the search binds, in the order OrderSearchService adds its filters, then the row limit
+    private static List<Object> parameters(OrderSearchRequestDTO request) {
+        List<Object> values = new ArrayList<>();
+        if (request.getEmail() != null) {
+            values.add(request.getEmail());
+        }
+        if (request.getStatus() != null) {
+            values.add(request.getStatus().name());
+        }
+        if (request.getFrom() != null) {
+            values.add(request.getFrom().atStartOfDay());
+        }
+        if (request.getTo() != null) {
+            values.add(request.getTo().plusDays(1).atStartOfDay());
+        }
+        if (request.getMinAmount() != null) {
+            values.add(request.getMinAmount());
+        }
+        if (request.getMaxAmount() != null) {
+            values.add(request.getMaxAmount());
+        }
+        if (request.getCursor() != null) {
+            String[] cursor = new String(Base64.getUrlDecoder().decode(request.getCursor()), StandardCharsets.UTF_8)
+                    .split("\\|");
+            LocalDateTime orderDate = LocalDateTime.parse(cursor[0]);
+            values.add(orderDate);
+            values.add(orderDate);
+            values.add(Integer.valueOf(cursor[1]));
+        }
+        values.add(request.getSize() + 1);
+        return values;
+    }
+
+    private String explain(String sql, List<Object> values) {
+        assertEquals(values.size(), sql.chars().filter(c -> c == '?').count(),
+                "Bound values do not match the placeholders of: " + sql);
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement st = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < values.size(); i++) {
+                    st.setObject(i + 1, values.get(i));
+                }
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+            }
+            return plan.toString();
+        });
+    }
+
+    // Same encoding as the nextCursor the search returns: base64url of "<orderDate>|<id>"
+    private static String cursor(LocalDateTime orderDate, int id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((orderDate + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(System.getProperty("benchmark.jdbc.url"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""));
+    }
+}
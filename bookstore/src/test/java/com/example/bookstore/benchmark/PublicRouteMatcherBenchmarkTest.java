@@ -0,0 +1,80 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.security.PublicRoutes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.function.BiPredicate;
+
+/**
+ * Cost per request of deciding whether an endpoint is public: the former regex-and-startsWith chain of the JWT
+ * filter against the compiled {@link PublicRoutes} trie, over a mix of public and protected requests. A plain
+ * JUnit harness like the other benchmarks: warm-up, then per-call latencies and throughput on one thread. Runs
+ * only on request, e.g. {@code mvn test -Dtest=PublicRouteMatcherBenchmarkTest -Dbenchmark.cpu=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.cpu", matches = "true")
+public class PublicRouteMatcherBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int CALLS = 1_000_000;
+    private static final String[][] REQUESTS = {
+            {"GET", "/api/products/42"},
+            {"GET", "/api/products/42/details"},
+            {"GET", "/api/products/featured"},
+            {"POST", "/api/auth/login"},
+            {"GET", "/api/categories/3"},
+            {"GET", "/api/orders"},
+            {"GET", "/api/orders/history"},
+            {"POST", "/api/reviews"},
+            {"GET", "/api/users/profile"},
+            {"GET", "/api/admin/orders"},
+    };
+
+    private static volatile boolean sink;
+
+    @Test
+    void measureMatcherCost() {
+        PublicRoutes publicRoutes = new PublicRoutes();
+        run("regex chain ", PublicRouteMatcherBenchmarkTest::legacyIsPublicEndpoint);
+        run("route trie  ", (method, path) -> publicRoutes.matches(method, path));
+    }
+
+    private static void run(String label, BiPredicate<String, String> matcher) {
+        for (int i = 0; i < WARMUP; i++) {
+            String[] request = REQUESTS[i % REQUESTS.length];
+            sink = matcher.test(request[0], request[1]);
+        }
+        long[] latencies = new long[CALLS / REQUESTS.length];
+        long started = System.nanoTime();
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            for (String[] request : REQUESTS) {
+                sink = matcher.test(request[0], request[1]);
+            }
+            latencies[i] = (System.nanoTime() - start) / REQUESTS.length;
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        System.out.printf("%s p50 %d ns, p99 %d ns, %.0f matches/s%n", label,
+                latencies[latencies.length / 2], latencies[(int) (latencies.length * 0.99)], CALLS / seconds);
+    }
+
+    // The check JwtRequestFilter ran on every request before the shared route table
+    private static boolean legacyIsPublicEndpoint(String method, String requestURI) {
+        if (requestURI.matches("/api/products/\\d+") && "GET".equalsIgnoreCase(method)) {
+            return true;
+        }
+        return requestURI.startsWith("/api/auth") ||
+                requestURI.startsWith("/api/categories") ||
+                requestURI.startsWith("/api/products/featured") ||
+                requestURI.startsWith("/api/products/category/") ||
+                requestURI.matches("/api/products/\\d+/details") ||
+                requestURI.startsWith("/swagger-ui") ||
+                requestURI.startsWith("/api/auth/register") ||
+                requestURI.startsWith("/v3/api-docs") ||
+                requestURI.startsWith("/api/orders/") ||
+                requestURI.startsWith("/api/cart/") ||
+                requestURI.startsWith("/api/roles/");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.util.AccessLogWriter;
+import com.example.bookstore.util.RingBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessLogWriterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    void testRingBuffer_FifoAndRefusesWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(2));
+        assertFalse(buffer.offer(3));
+        assertEquals(1, buffer.poll());
+        assertTrue(buffer.offer(3));
+        assertEquals(2, buffer.poll());
+        assertEquals(3, buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void testRecord_BufferFull_DropsAndCounts() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Not started, so nothing drains the buffer
+        AccessLogWriter writer = new AccessLogWriter(meterRegistry, true, 1.0, 1000, 2);
+
+        for (int i = 0; i < 3; i++) {
+            writer.record("GET", "/api/products/{id}", 200, FAST, 5, 1);
+        }
+
+        assertEquals(2, meterRegistry.get("access.log.buffer.depth").gauge().value());
+        assertEquals(1, meterRegistry.get("access.log.dropped").counter().count());
+    }
+
+    @Test
+    void testRecord_SampledOut_ExceptErrorsAndSlowRequests() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AccessLogWriter writer = new AccessLogWriter(meterRegistry, true, 0.0, 1000, 16);
+
+        writer.record("GET", "/api/products/{id}", 200, FAST, 5, 1);
+        writer.record("GET", "/api/products/{id}", 500, FAST, 5, 1);
+        writer.record("GET", "/api/orders", 200, TimeUnit.SECONDS.toNanos(2), 5, 40);
+
+        assertEquals(2, meterRegistry.get("access.log.buffer.depth").gauge().value());
+    }
+
+    @Test
+    void testFormat_OneJsonLine() {
+        String line = AccessLogWriter.format(new AccessLogWriter.Entry("GET", "/api/products/{id}", 200,
+                1_500_000, null, 2));
+
+        assertEquals("{\"method\":\"GET\",\"route\":\"/api/products/{id}\",\"status\":200,"
+                + "\"latencyMs\":1.500,\"userId\":null,\"queries\":2}", line);
+    }
+}
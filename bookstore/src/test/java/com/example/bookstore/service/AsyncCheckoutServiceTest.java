@@ -0,0 +1,224 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.request.CreateOrderRequestDTO;
+import com.example.bookstore.dto.response.CheckoutStatusResponseDTO;
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.entity.enums.CheckoutStatus;
+import com.example.bookstore.exception.CheckoutNotFoundException;
+import com.example.bookstore.exception.CheckoutQueueFullException;
+import com.example.bookstore.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncCheckoutServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(5, "user@example.com", "user"), null, List.of()));
+        lenient().when(cartService.hasItems(5)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        SecurityContextHolder.clearContext();
+        if (asyncCheckoutService != null) {
+            asyncCheckoutService.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmit_ProcessesUserCheckoutsInSubmissionOrder() throws Exception {
+        asyncCheckoutService = new AsyncCheckoutService(orderService, cartService, idempotencyService, meterRegistry, 4, 10, 30);
+        List<String> processed = new CopyOnWriteArrayList<>();
+        when(orderService.createOrderForUser(eq(5), any(CreateOrderRequestDTO.class))).thenAnswer(invocation -> {
+            CreateOrderRequestDTO request = invocation.getArgument(1);
+            processed.add(request.getShippingAddress());
+            OrderResponseDTO order = new OrderResponseDTO();
+            order.setId(processed.size());
+            return order;
+        });
+
+        CheckoutStatusResponseDTO first = asyncCheckoutService.submit(request("first"));
+        CheckoutStatusResponseDTO second = asyncCheckoutService.submit(request("second"));
+        assertEquals(CheckoutStatus.QUEUED, first.getStatus());
+
+        CheckoutStatusResponseDTO done = asyncCheckoutService.whenDone(second.getHandle()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(CheckoutStatus.COMPLETED, done.getStatus());
+        assertEquals(2, done.getOrderId());
+        assertEquals(List.of("first", "second"), processed);
+        assertEquals(2, meterRegistry.get("checkout.processing").timer().count());
+    }
+
+    @Test
+    void testSubmit_FullPartitionQueue_RejectsWithBackpressure() throws Exception {
+        asyncCheckoutService = new AsyncCheckoutService(orderService, cartService, idempotencyService, meterRegistry, 1, 1, 30);
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrderForUser(eq(5), any(CreateOrderRequestDTO.class))).thenAnswer(invocation -> {
+            workerBusy.countDown();
+            release.await();
+            return new OrderResponseDTO();
+        });
+
+        asyncCheckoutService.submit(request("in progress"));
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+        asyncCheckoutService.submit(request("queued"));
+
+        assertThrows(CheckoutQueueFullException.class, () -> asyncCheckoutService.submit(request("rejected")));
+        assertEquals(1.0, meterRegistry.get("checkout.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("checkout.queue.depth").gauge().value());
+        release.countDown();
+    }
+
+    @Test
+    void testSubmit_FailedConversion_ReportsError() throws Exception {
+        asyncCheckoutService = new AsyncCheckoutService(orderService, cartService, idempotencyService, meterRegistry, 2, 10, 30);
+        when(orderService.createOrderForUser(eq(5), any(CreateOrderRequestDTO.class)))
+                .thenThrow(new RuntimeException("Cart is empty"));
+
+        CheckoutStatusResponseDTO submitted = asyncCheckoutService.submit(request("address"));
+        CheckoutStatusResponseDTO done = asyncCheckoutService.whenDone(submitted.getHandle()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(CheckoutStatus.FAILED, done.getStatus());
+        assertEquals("Cart is empty", done.getError());
+        assertNull(done.getOrderId());
+    }
+
+    @Test
+    void testSubmit_InsideTransaction_QueuedOnlyAfterCommit() throws Exception {
+        asyncCheckoutService = new AsyncCheckoutService(orderService, cartService, idempotencyService, meterRegistry, 1, 1, 30);
+        when(orderService.createOrderForUser(eq(5), any(CreateOrderRequestDTO.class))).thenReturn(new OrderResponseDTO());
+
+        CheckoutStatusResponseDTO rolledBack = inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        CheckoutStatusResponseDTO committed = inTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // The rolled-back submission gave its slot back, so the second one fit in the one-slot queue
+        assertThrows(CheckoutNotFoundException.class, () -> asyncCheckoutService.getStatus(rolledBack.getHandle()));
+        CheckoutStatusResponseDTO done = asyncCheckoutService.whenDone(committed.getHandle()).get(5, TimeUnit.SECONDS);
+        assertEquals(CheckoutStatus.COMPLETED, done.getStatus());
+        verify(orderService, times(1)).createOrderForUser(eq(5), any(CreateOrderRequestDTO.class));
+    }
+
+    @Test
+    void testSubmit_EmptyCart_RejectedBeforeQueueing() {
+        asyncCheckoutService = new AsyncCheckoutService(orderService, cartService, idempotencyService, meterRegistry,
+                1, 1, 30);
+        when(cartService.hasItems(5)).thenReturn(false, true);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> asyncCheckoutService.submit(request("address")));
+
+        assertEquals("Cart is empty", e.getMessage());
+        // The one slot is still free
+        asyncCheckoutService.submit(request("address"), null);
+        verify(orderService, timeout(5000)).createOrderForUser(eq(5), any(CreateOrderRequestDTO.class));
+    }
+
+    @Test
+    void testSubmit_WithIdempotencyKey_OutcomeReplacesTheAcknowledgement() throws Exception {
+        asyncCheckoutService = new AsyncCheckoutService(orderService, cartService, idempotencyService, meterRegistry,
+                1, 10, 30);
+        OrderResponseDTO order = new OrderResponseDTO();
+        order.setId(11);
+        when(orderService.createOrderForUser(eq(5), any(CreateOrderRequestDTO.class)))
+                .thenReturn(order)
+                .thenThrow(new RuntimeException("Product out of stock"));
+
+        CheckoutStatusResponseDTO completed = asyncCheckoutService.submit(request("first"), "key-1");
+        asyncCheckoutService.whenDone(completed.getHandle()).get(5, TimeUnit.SECONDS);
+        CheckoutStatusResponseDTO failed = asyncCheckoutService.submit(request("second"), "key-2");
+        asyncCheckoutService.whenDone(failed.getHandle()).get(5, TimeUnit.SECONDS);
+
+        verify(idempotencyService).updateResponse(eq("user@example.com"), eq("key-1"), eq(HttpStatus.OK),
+                argThat(body -> body instanceof CheckoutStatusResponseDTO status
+                        && status.getStatus() == CheckoutStatus.COMPLETED && status.getOrderId() == 11));
+        verify(idempotencyService).release("user@example.com", "key-2");
+    }
+
+    @Test
+    void testShutdown_WaitsForSubmissionStillInItsTransaction() throws Exception {
+        asyncCheckoutService = new AsyncCheckoutService(orderService, cartService, idempotencyService, meterRegistry,
+                1, 1, 30);
+        when(orderService.createOrderForUser(eq(5), any(CreateOrderRequestDTO.class))).thenReturn(new OrderResponseDTO());
+        TransactionSynchronizationManager.initSynchronization();
+        CheckoutStatusResponseDTO submitted;
+        Thread stopping;
+        try {
+            submitted = asyncCheckoutService.submit(request("address"));
+            stopping = Thread.ofPlatform().start(() -> {
+                try {
+                    asyncCheckoutService.shutdown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread.sleep(200);
+            assertTrue(stopping.isAlive());
+            assertThrows(CheckoutQueueFullException.class, () -> asyncCheckoutService.submit(request("late")));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        CheckoutStatusResponseDTO done = asyncCheckoutService.whenDone(submitted.getHandle()).get(5, TimeUnit.SECONDS);
+        stopping.join(5000);
+
+        assertEquals(CheckoutStatus.COMPLETED, done.getStatus());
+        assertFalse(stopping.isAlive());
+    }
+
+    private CheckoutStatusResponseDTO inTransaction(int outcome) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CheckoutStatusResponseDTO submitted = asyncCheckoutService.submit(request("address"));
+            verify(orderService, never()).createOrderForUser(eq(5), any(CreateOrderRequestDTO.class));
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(outcome));
+            return submitted;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private CreateOrderRequestDTO request(String shippingAddress) {
+        CreateOrderRequestDTO request = new CreateOrderRequestDTO();
+        request.setShippingAddress(shippingAddress);
+        return request;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.security.AuthRateLimiter;
+import com.example.bookstore.security.StripedTokenBuckets;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testTryAcquire_BurstThenRefillOverTime() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(2, 60, 4, 100, now::get);
+
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        long wait = buckets.tryAcquire("10.0.0.1");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait, TimeUnit.MILLISECONDS.toNanos(1));
+
+        now.addAndGet(wait);
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(0, buckets.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    void testTryAcquire_KeysBeyondBoundEvictLeastRecentlyUsed() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 1, 1, 2, now::get);
+        buckets.tryAcquire("a");
+        buckets.tryAcquire("b");
+        assertTrue(buckets.tryAcquire("a") > 0);
+
+        buckets.tryAcquire("c");
+
+        // "b" was the least recently used key, so it was dropped and starts over with a full bucket
+        assertEquals(0, buckets.tryAcquire("b"));
+        assertTrue(buckets.tryAcquire("c") > 0);
+    }
+
+    @Test
+    void testTryAcquire_LoginLimitedPerEmailAcrossClients() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthRateLimiter limiter = limiter(meterRegistry, true);
+
+        assertEquals(0, limiter.tryAcquire(AuthRateLimiter.Endpoint.LOGIN, "10.0.0.1", "reader@example.com"));
+        assertEquals(0, limiter.tryAcquire(AuthRateLimiter.Endpoint.LOGIN, "10.0.0.2", "Reader@Example.com"));
+        long retryAfter = limiter.tryAcquire(AuthRateLimiter.Endpoint.LOGIN, "10.0.0.3", "reader@example.com");
+
+        assertTrue(retryAfter >= 1);
+        assertEquals(1, meterRegistry.get("auth.rate-limit.rejected")
+                .tag("endpoint", "login").tag("key", "email").counter().count());
+        assertEquals(0, limiter.tryAcquire(AuthRateLimiter.Endpoint.REGISTER, "10.0.0.3", "reader@example.com"));
+    }
+
+    @Test
+    void testTryAcquire_IpLimitCoversRequestsWithoutEmail() {
+        AuthRateLimiter limiter = limiter(new SimpleMeterRegistry(), true);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(AuthRateLimiter.Endpoint.REGISTER, "10.0.0.1", null));
+        }
+        assertTrue(limiter.tryAcquire(AuthRateLimiter.Endpoint.REGISTER, "10.0.0.1", null) > 0);
+    }
+
+    @Test
+    void testTryAcquire_Disabled_AlwaysAllows() {
+        AuthRateLimiter limiter = limiter(new SimpleMeterRegistry(), false);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire(AuthRateLimiter.Endpoint.LOGIN, "10.0.0.1", "reader@example.com"));
+        }
+    }
+
+    private static AuthRateLimiter limiter(SimpleMeterRegistry meterRegistry, boolean enabled) {
+        return new AuthRateLimiter(meterRegistry, enabled, 8, 1000, 10, 1, 2, 1, 3, 1, 2, 1);
+    }
+}
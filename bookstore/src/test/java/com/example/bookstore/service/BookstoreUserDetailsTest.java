@@ -1,6 +1,5 @@
 package com.example.bookstore.service;
 
-import com.example.bookstore.entity.Role;
 import com.example.bookstore.entity.User;
 import com.example.bookstore.security.BookstoreUserDetails;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +9,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BookstoreUserDetailsTest {
@@ -19,18 +19,14 @@ public class BookstoreUserDetailsTest {
 
     @BeforeEach
     void setUp() {
-        Role role = new Role();
-        role.setId(1);
-        role.setName("admin");
-
         user = new User();
         user.setEmail("admin4@gmail.com");
         user.setPassword("password");
-        user.setRole(role);
+        user.setRoleId(1);
         user.setIsActive(true);
         user.setIsDeleted(false);
 
-        userDetails = new BookstoreUserDetails(user);
+        userDetails = new BookstoreUserDetails(user, RoleRegistry.RoleEntry.of(1, "Admin"));
     }
 
     @Test
@@ -39,6 +35,11 @@ public class BookstoreUserDetailsTest {
         assertTrue(userDetails.getAuthorities().contains(new SimpleGrantedAuthority("admin")));
     }
 
+    @Test
+    void testGetAuthorities_SharedBetweenCalls() {
+        assertSame(userDetails.getAuthorities(), userDetails.getAuthorities());
+    }
+
     @Test
     void testGetPassword_ReturnsUserPassword() {
         assertEquals("password", userDetails.getPassword());
@@ -0,0 +1,94 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.repository.CartDocumentRepository;
+import com.example.bookstore.repository.CartItemRepository;
+import com.example.bookstore.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CartPurgeJobTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private CartDocumentRepository cartDocumentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartPurgeJob cartPurgeJob;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cartPurgeJob = new CartPurgeJob(cartRepository, cartItemRepository, cartDocumentRepository,
+                transactionManager, meterRegistry, 30, 2, 0);
+    }
+
+    @Test
+    void testPurgeIdleCarts_DeletesInKeysetChunks() {
+        when(cartRepository.lockIdleCartIds(any(LocalDateTime.class), eq(0), eq(2))).thenReturn(List.of(3, 7));
+        when(cartRepository.lockIdleCartIds(any(LocalDateTime.class), eq(7), eq(2))).thenReturn(List.of(9));
+        when(cartItemRepository.purgeByCartIds(List.of(3, 7))).thenReturn(5);
+        when(cartItemRepository.purgeByCartIds(List.of(9))).thenReturn(1);
+        when(cartRepository.purgeByIds(List.of(3, 7))).thenReturn(2);
+        when(cartRepository.purgeByIds(List.of(9))).thenReturn(1);
+
+        cartPurgeJob.purgeIdleCarts();
+
+        // The short second chunk ends the run without probing for a third one
+        verify(cartRepository, times(2)).lockIdleCartIds(any(LocalDateTime.class), anyInt(), eq(2));
+        verify(cartRepository, never()).findAll();
+        assertEquals(3.0, meterRegistry.get("cart.purge.carts.removed").counter().count());
+        assertEquals(6.0, meterRegistry.get("cart.purge.items.removed").counter().count());
+        // Two row chunks plus the empty probe of cart_documents
+        assertEquals(3, meterRegistry.get("cart.purge.chunk").timer().count());
+    }
+
+    @Test
+    void testPurgeIdleCarts_DeletesIdleDocumentsInKeysetChunks() {
+        when(cartDocumentRepository.lockIdleUserIds(any(LocalDateTime.class), eq(0), eq(2))).thenReturn(List.of(4, 8));
+        when(cartDocumentRepository.lockIdleUserIds(any(LocalDateTime.class), eq(8), eq(2))).thenReturn(List.of());
+        when(cartDocumentRepository.purgeByUserIds(List.of(4, 8))).thenReturn(2);
+
+        cartPurgeJob.purgeIdleCarts();
+
+        verify(cartDocumentRepository, times(2)).lockIdleUserIds(any(LocalDateTime.class), anyInt(), eq(2));
+        verify(cartRepository, never()).purgeByIds(any());
+        assertEquals(2.0, meterRegistry.get("cart.purge.documents.removed").counter().count());
+        assertEquals(0.0, meterRegistry.get("cart.purge.carts.removed").counter().count());
+    }
+
+    @Test
+    void testPurgeIdleCarts_NothingIdle_DeletesNothing() {
+        when(cartRepository.lockIdleCartIds(any(LocalDateTime.class), eq(0), eq(2))).thenReturn(Collections.emptyList());
+
+        cartPurgeJob.purgeIdleCarts();
+
+        verify(cartItemRepository, never()).purgeByCartIds(any());
+        verify(cartRepository, never()).purgeByIds(any());
+        verify(cartDocumentRepository, never()).purgeByUserIds(any());
+        assertEquals(0.0, meterRegistry.get("cart.purge.carts.removed").counter().count());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.exception.InvalidGuestCartException;
+import com.example.bookstore.util.GuestCart;
+import com.example.bookstore.util.GuestCartCodec;
+import com.example.bookstore.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GuestCartCodecTest {
+
+    private GuestCartCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil jwtUtil = new JwtUtil("test-secret-key-which-is-long-enough-for-hmac", 60_000, 100);
+        codec = new GuestCartCodec(jwtUtil, 30, 3);
+    }
+
+    @Test
+    void testEncodeDecode_RoundTripsItemsInOrder() {
+        Map<Integer, Integer> items = new LinkedHashMap<>();
+        items.put(42, 1);
+        items.put(7, 3);
+        items.put(100000, 2);
+        GuestCart cart = new GuestCart(Instant.now().getEpochSecond(), items);
+
+        String token = codec.encode(cart);
+        GuestCart decoded = codec.decode(token);
+
+        assertEquals(cart, decoded);
+        assertEquals(List.of(42, 7, 100000), List.copyOf(decoded.items().keySet()));
+        assertTrue(token.length() < 64, "token should stay compact: " + token);
+    }
+
+    @Test
+    void testDecode_MissingToken_IsEmptyCart() {
+        assertTrue(codec.decode(null).isEmpty());
+        assertTrue(codec.decode("").isEmpty());
+    }
+
+    @Test
+    void testDecode_TamperedPayload_Rejected() {
+        String token = codec.encode(new GuestCart(Instant.now().getEpochSecond(), Map.of(1, 1)));
+        String forged = codec.encode(new GuestCart(Instant.now().getEpochSecond(), Map.of(1, 99)));
+        String spliced = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        assertThrows(InvalidGuestCartException.class, () -> codec.decode(spliced));
+        assertThrows(InvalidGuestCartException.class, () -> codec.decode("not-a-token"));
+    }
+
+    @Test
+    void testDecode_ExpiredToken_Rejected() {
+        long issuedAt = Instant.now().minus(Duration.ofDays(31)).getEpochSecond();
+        String token = codec.encode(new GuestCart(issuedAt, Map.of(1, 1)));
+
+        assertThrows(InvalidGuestCartException.class, () -> codec.decode(token));
+    }
+
+    @Test
+    void testDecode_TokenFromDifferentSecret_Rejected() {
+        JwtUtil otherJwtUtil = new JwtUtil("another-secret-key-which-is-long-enough-too", 60_000, 100);
+        String token = new GuestCartCodec(otherJwtUtil, 30, 3)
+                .encode(new GuestCart(Instant.now().getEpochSecond(), Map.of(1, 1)));
+
+        assertThrows(InvalidGuestCartException.class, () -> codec.decode(token));
+    }
+}
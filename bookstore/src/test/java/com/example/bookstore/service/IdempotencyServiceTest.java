@@ -0,0 +1,181 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.IdempotencyRecord;
+import com.example.bookstore.exception.IdempotencyKeyReusedException;
+import com.example.bookstore.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, transactionManager, objectMapper,
+                meterRegistry, 24, 1000, 100);
+    }
+
+    @Test
+    void testExecute_RetryReplaysOriginalBytesFromMemory() {
+        when(idempotencyRecordRepository.claim(eq("user@example.com"), eq("key-1"), anyString(), any(), any()))
+                .thenReturn(1);
+        AtomicInteger executions = new AtomicInteger();
+        Map<String, String> request = Map.of("shippingAddress", "1 Main St");
+
+        IdempotencyService.StoredResponse first = idempotencyService.execute("user@example.com", "key-1", request,
+                () -> Map.of("orderId", executions.incrementAndGet()));
+        IdempotencyService.StoredResponse retry = idempotencyService.execute("user@example.com", "key-1", request,
+                () -> Map.of("orderId", executions.incrementAndGet()));
+
+        assertEquals(1, executions.get());
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertArrayEquals(first.body(), retry.body());
+        verify(idempotencyRecordRepository, times(1)).claim(anyString(), anyString(), anyString(), any(), any());
+        verify(idempotencyRecordRepository).complete("user@example.com", "key-1", 200, first.body());
+        assertEquals(2, meterRegistry.get("idempotency.overhead").timer().count());
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequest_Rejected() {
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), anyString(), any(), any())).thenReturn(1);
+        idempotencyService.execute("user@example.com", "key-1", Map.of("shippingAddress", "1 Main St"), () -> "ok");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("user@example.com",
+                "key-1", Map.of("shippingAddress", "2 Other St"), () -> "ok"));
+    }
+
+    @Test
+    void testExecute_KeyCompletedOnAnotherInstance_ReplaysFromDatabase() throws Exception {
+        Map<String, String> request = Map.of("shippingAddress", "1 Main St");
+        byte[] storedBody = "{\"orderId\":42}".getBytes();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRequestHash(hashOf(request));
+        record.setResponseStatus(200);
+        record.setResponseBody(storedBody);
+        record.setExpiresAt(Instant.now().plusSeconds(60));
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), anyString(), any(), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findByPrincipalAndIdempotencyKey("user@example.com", "key-1"))
+                .thenReturn(Optional.of(record));
+
+        IdempotencyService.StoredResponse response = idempotencyService.execute("user@example.com", "key-1", request,
+                () -> fail("operation must not run again"));
+
+        assertTrue(response.replayed());
+        assertArrayEquals(storedBody, response.body());
+        verify(idempotencyRecordRepository, never()).complete(anyString(), anyString(), anyInt(), any());
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicates_CollapseToOneExecution() throws Exception {
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), anyString(), any(), any())).thenReturn(1);
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+
+        List<Future<IdempotencyService.StoredResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(pool.submit(() -> idempotencyService.execute("user@example.com", "key-1",
+                    Map.of("shippingAddress", "1 Main St"), () -> {
+                        executions.incrementAndGet();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return Map.of("orderId", 7);
+                    })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        byte[] expected = objectMapper.writeValueAsBytes(Map.of("orderId", 7));
+        int replays = 0;
+        for (Future<IdempotencyService.StoredResponse> future : futures) {
+            IdempotencyService.StoredResponse response = future.get(10, TimeUnit.SECONDS);
+            assertArrayEquals(expected, response.body());
+            replays += response.replayed() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(callers - 1, replays);
+    }
+
+    @Test
+    void testExecute_AcceptedResponse_RetryReadsTheUpdatedRow() throws Exception {
+        Map<String, String> request = Map.of("shippingAddress", "1 Main St");
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(1, 0);
+        idempotencyService.execute("user@example.com", "key-1", request, HttpStatus.ACCEPTED,
+                () -> Map.of("status", "QUEUED"));
+
+        idempotencyService.updateResponse("user@example.com", "key-1", HttpStatus.OK, Map.of("status", "COMPLETED"));
+        byte[] outcome = objectMapper.writeValueAsBytes(Map.of("status", "COMPLETED"));
+        verify(idempotencyRecordRepository).complete("user@example.com", "key-1", 200, outcome);
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRequestHash(hashOf(request));
+        record.setResponseStatus(200);
+        record.setResponseBody(outcome);
+        when(idempotencyRecordRepository.findByPrincipalAndIdempotencyKey("user@example.com", "key-1"))
+                .thenReturn(Optional.of(record));
+        IdempotencyService.StoredResponse retry = idempotencyService.execute("user@example.com", "key-1", request,
+                HttpStatus.ACCEPTED, () -> fail("operation must not run again"));
+
+        assertEquals(200, retry.status());
+        assertArrayEquals(outcome, retry.body());
+    }
+
+    @Test
+    void testRelease_DeletesTheKey() {
+        idempotencyService.release("user@example.com", "key-1");
+
+        verify(idempotencyRecordRepository).release("user@example.com", "key-1");
+    }
+
+    private String hashOf(Object request) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.JwtSigningKey;
+import com.example.bookstore.repository.JwtSigningKeyRepository;
+import com.example.bookstore.util.JwtKeyRing;
+import com.example.bookstore.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtKeyRingTest {
+
+    private static final String SECRET = "test-secret-key-which-is-long-enough-for-hmac";
+
+    @Mock
+    private JwtSigningKeyRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<JwtSigningKey> table = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(repository.tryLockRotation(anyLong())).thenReturn(true);
+        lenient().when(repository.findFirstByVerifyUntilIsNullOrderByCreatedAtDesc())
+                .thenAnswer(invocation -> table.stream().filter(key -> key.getVerifyUntil() == null).findFirst());
+        lenient().when(repository.save(any(JwtSigningKey.class))).thenAnswer(invocation -> {
+            table.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        lenient().when(repository.findByVerifyUntilIsNullOrVerifyUntilAfter(any(Instant.class)))
+                .thenAnswer(invocation -> List.copyOf(table));
+    }
+
+    @Test
+    void testRefresh_NoKey_RotatesInAndSignsWithKid() {
+        JwtKeyRing keyRing = keyRing("ES256");
+        keyRing.refresh();
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100, keyRing);
+        String token = jwtUtil.generateToken(7, "reader@example.com", "user");
+
+        assertEquals(1, table.size());
+        assertEquals("ES256", table.get(0).getAlgorithm());
+        assertEquals(table.get(0).getKid(), keyRing.activeKey().kid());
+        String kid = Jwts.parser().verifyWith(keyRing.verificationKey(keyRing.activeKey().kid())).build()
+                .parseSignedClaims(token).getHeader().getKeyId();
+        assertEquals(keyRing.activeKey().kid(), kid);
+        assertEquals(7, jwtUtil.verify(token).userId());
+        assertEquals(1, keyRing.publicJwks().size());
+    }
+
+    @Test
+    void testVerify_TokenFromAnotherNode_UsesSharedKey() {
+        JwtKeyRing issuer = keyRing("EdDSA");
+        issuer.refresh();
+        String token = new JwtUtil(SECRET, 60_000, 100, issuer).generateToken(7, "reader@example.com", "user");
+
+        // A second node loads the same row instead of rotating in its own key
+        JwtKeyRing verifier = keyRing("EdDSA");
+        verifier.refresh();
+
+        assertEquals(1, table.size());
+        assertEquals("reader@example.com", new JwtUtil(SECRET, 60_000, 100, verifier).verify(token).subject());
+    }
+
+    @Test
+    void testVerify_UnknownKid_Rejected() {
+        JwtKeyRing keyRing = keyRing("ES256");
+        keyRing.refresh();
+        String token = new JwtUtil(SECRET, 60_000, 100, keyRing).generateToken(7, "reader@example.com", "user");
+        table.clear();
+
+        JwtKeyRing otherRing = keyRing("ES256");
+        otherRing.refresh();
+
+        assertThrows(JwtException.class, () -> new JwtUtil(SECRET, 60_000, 100, otherRing).verify(token));
+    }
+
+    @Test
+    void testRefresh_SharedSecretMode_Idle() {
+        JwtKeyRing keyRing = keyRing("HS512");
+        keyRing.refresh();
+
+        assertFalse(keyRing.isEnabled());
+        assertNull(keyRing.activeKey());
+        assertTrue(keyRing.publicJwks().isEmpty());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testRefresh_CurrentKeyStillFresh_NoRotation() {
+        JwtKeyRing keyRing = keyRing("ES256");
+        keyRing.refresh();
+        keyRing.refresh();
+
+        assertEquals(1, table.size());
+        verify(repository, times(1)).save(any(JwtSigningKey.class));
+        verify(repository, times(1)).retireAllExcept(any(), any());
+    }
+
+    @Test
+    void testVerify_SharedSecretToken_AcceptedOnlyUntilPreSwitchTokensExpired() {
+        String legacyToken = new JwtUtil(SECRET, 60_000, 100).generateToken(7, "reader@example.com", "user");
+        JwtKeyRing keyRing = keyRing("ES256");
+        keyRing.refresh();
+
+        assertEquals(7, new JwtUtil(SECRET, 60_000, 100, keyRing).verify(legacyToken).userId());
+
+        // The first key is now older than jwt.expiration: any token issued before it has expired
+        table.get(0).setCreatedAt(Instant.now().minusSeconds(120));
+        JwtKeyRing laterRing = keyRing("ES256");
+        laterRing.refresh();
+
+        assertFalse(laterRing.acceptsSharedSecretTokens());
+        assertThrows(JwtException.class, () -> new JwtUtil(SECRET, 60_000, 100, laterRing).verify(legacyToken));
+    }
+
+    @Test
+    void testVerify_SharedSecretTokensExplicitlyAccepted() {
+        JwtKeyRing keyRing = new JwtKeyRing(repository, transactionManager, SECRET, 60_000, "ES256", 3_600_000,
+                60_000, true);
+        keyRing.refresh();
+        table.get(0).setCreatedAt(Instant.now().minusSeconds(120));
+
+        assertTrue(keyRing.acceptsSharedSecretTokens());
+    }
+
+    private JwtKeyRing keyRing(String algorithm) {
+        return new JwtKeyRing(repository, transactionManager, SECRET, 60_000, algorithm, 3_600_000, 60_000, false);
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.bookstore.service;
 
-import com.example.bookstore.security.BookstoreUserDetails;
+import com.example.bookstore.security.AuthenticatedUser;
 import com.example.bookstore.security.JwtRequestFilter;
-import com.example.bookstore.service.UserServiceImpl;
+import com.example.bookstore.security.PublicRoutes;
+import com.example.bookstore.util.AccessTokenClaims;
 import com.example.bookstore.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
@@ -14,31 +16,43 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.lang.reflect.Method;
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class JwtRequestFilterTest {
 
-    @Mock
-    private UserServiceImpl userService;
-
     @Mock
     private JwtUtil jwtUtil;
 
     @Mock
     private FilterChain filterChain;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Spy
+    private PublicRoutes publicRoutes = new PublicRoutes();
+
     @InjectMocks
     private JwtRequestFilter jwtRequestFilter;
 
@@ -65,11 +79,9 @@ public class JwtRequestFilterTest {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.addHeader("Authorization", "Bearer " + token);
 
-        BookstoreUserDetails userDetails = mock(BookstoreUserDetails.class);
-        when(userService.loadUserByUsername("admin4@gmail.com")).thenReturn(userDetails);
-        when(jwtUtil.extractUsername(token)).thenReturn("admin4@gmail.com");
-        when(jwtUtil.validateToken(token, "admin4@gmail.com")).thenReturn(true);
-        when(jwtUtil.extractClaim(anyString(), any())).thenReturn("admin"); // Đảm bảo mock trả về "admin"
+        when(jwtUtil.verify(token)).thenReturn(new AccessTokenClaims("admin4@gmail.com", 4, "admin",
+                Instant.now(), Instant.now().plusSeconds(1000), "jti-1")); // Đảm bảo mock trả về "admin"
+        when(roleRegistry.authoritiesFor("admin")).thenReturn(List.of(new SimpleGrantedAuthority("admin")));
 
         // Sử dụng Reflection để gọi doFilterInternal
         Method doFilterInternalMethod = JwtRequestFilter.class.getDeclaredMethod(
@@ -81,11 +93,30 @@ public class JwtRequestFilterTest {
         UsernamePasswordAuthenticationToken authentication =
                 (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
         assertNotNull(authentication);
-        assertEquals("admin4@gmail.com", authentication.getPrincipal());
+        assertEquals(new AuthenticatedUser(4, "admin4@gmail.com", "admin"), authentication.getPrincipal());
+        assertEquals("admin4@gmail.com", authentication.getName());
         assertEquals(1, authentication.getAuthorities().size());
         assertEquals("admin", authentication.getAuthorities().iterator().next().getAuthority());
 
-        verify(filterChain).doFilter(request, any(HttpServletResponse.class));
+        verify(filterChain).doFilter(eq(request), any(HttpServletResponse.class));
+        // Verified once: no second parse for the role or the expiry
+        verify(jwtUtil, times(1)).verify(token);
+    }
+
+    @Test
+    void testDoFilterInternal_PublicRoute_SkipsToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/42");
+        request.addHeader("Authorization", "Bearer whatever");
+
+        Method doFilterInternalMethod = JwtRequestFilter.class.getDeclaredMethod(
+                "doFilterInternal", HttpServletRequest.class, HttpServletResponse.class, FilterChain.class);
+        doFilterInternalMethod.setAccessible(true);
+
+        doFilterInternalMethod.invoke(jwtRequestFilter, request, new MockHttpServletResponse(), filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(eq(request), any(HttpServletResponse.class));
+        verifyNoInteractions(jwtUtil);
     }
 
     @Test
@@ -93,7 +124,7 @@ public class JwtRequestFilterTest {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.addHeader("Authorization", "Bearer invalidtoken");
 
-        when(jwtUtil.extractUsername("invalidtoken")).thenThrow(new RuntimeException("Invalid token"));
+        when(jwtUtil.verify("invalidtoken")).thenThrow(new RuntimeException("Invalid token"));
 
         MockHttpServletResponse response = new MockHttpServletResponse();
 
@@ -107,4 +138,47 @@ public class JwtRequestFilterTest {
         assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus());
         verify(filterChain, never()).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
     }
+
+    @Test
+    void testDoFilterInternal_RevokedToken_ReturnsUnauthorized() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revokedtoken");
+        AccessTokenClaims claims = new AccessTokenClaims("admin4@gmail.com", 4, "admin",
+                Instant.now(), Instant.now().plusSeconds(1000), "jti-2");
+        when(jwtUtil.verify("revokedtoken")).thenReturn(claims);
+        when(tokenRevocationService.isRevoked(claims)).thenReturn(true);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Method doFilterInternalMethod = JwtRequestFilter.class.getDeclaredMethod(
+                "doFilterInternal", HttpServletRequest.class, HttpServletResponse.class, FilterChain.class);
+        doFilterInternalMethod.setAccessible(true);
+
+        doFilterInternalMethod.invoke(jwtRequestFilter, request, response, filterChain);
+
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus());
+        assertTrue(response.getContentAsString().contains("revoked"));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain, never()).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void testDoFilterInternal_ExpiredToken_ReturnsUnauthorized() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer expiredtoken");
+
+        when(jwtUtil.verify("expiredtoken")).thenThrow(new ExpiredJwtException(null, null, "JWT expired"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Method doFilterInternalMethod = JwtRequestFilter.class.getDeclaredMethod(
+                "doFilterInternal", HttpServletRequest.class, HttpServletResponse.class, FilterChain.class);
+        doFilterInternalMethod.setAccessible(true);
+
+        doFilterInternalMethod.invoke(jwtRequestFilter, request, response, filterChain);
+
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus());
+        assertTrue(response.getContentAsString().contains("expired"));
+        verify(filterChain, never()).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.util.AccessTokenClaims;
+import com.example.bookstore.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-which-is-long-enough-for-hmac";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+    }
+
+    @Test
+    void testVerify_ReturnsClaimsAndCachesThem() {
+        String token = jwtUtil.generateToken(7, "reader@example.com", "user");
+
+        AccessTokenClaims first = jwtUtil.verify(token);
+        AccessTokenClaims second = jwtUtil.verify(token);
+
+        assertEquals("reader@example.com", first.subject());
+        assertEquals(7, first.userId());
+        assertEquals("user", first.role());
+        assertTrue(first.expiresAt().isAfter(first.issuedAt()));
+        assertSame(first, second);
+        assertNotNull(first.tokenId());
+        assertNotEquals(first.tokenId(),
+                jwtUtil.verify(jwtUtil.generateToken(7, "reader@example.com", "user")).tokenId());
+    }
+
+    @Test
+    void testVerify_TamperedSignature_RejectedEvenAfterOriginalWasCached() {
+        String token = jwtUtil.generateToken(7, "reader@example.com", "user");
+        jwtUtil.verify(token);
+
+        // Flip a signature character away from the end, whose low bits are padding
+        int at = token.length() - 5;
+        String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+    }
+
+    @Test
+    void testVerify_TokenFromOtherSecret_Rejected() {
+        String token = new JwtUtil("another-secret-key-which-is-long-enough-too", 60_000, 100)
+                .generateToken(7, "reader@example.com", "admin");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    @Test
+    void testVerify_RefreshToken_NotAnAccessToken() {
+        String refreshToken = jwtUtil.generateRefreshToken("reader@example.com");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(refreshToken));
+    }
+
+    @Test
+    void testVerify_TokenWithoutUserId_NotAnAccessToken() {
+        // Shape of the tokens issued before the user id claim existed
+        String legacyToken = Jwts.builder()
+                .subject("reader@example.com")
+                .claim("role", "user")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(legacyToken));
+    }
+
+    @Test
+    void testVerify_CacheFull_StillVerifies() {
+        JwtUtil tinyCache = new JwtUtil(SECRET, 60_000, 1);
+        String first = tinyCache.generateToken(1, "a@example.com", "user");
+        String second = tinyCache.generateToken(2, "b@example.com", "user");
+
+        tinyCache.verify(first);
+
+        assertEquals("b@example.com", tinyCache.verify(second).subject());
+        assertNotSame(tinyCache.verify(second), tinyCache.verify(second));
+    }
+}
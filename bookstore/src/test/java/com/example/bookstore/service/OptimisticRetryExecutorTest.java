@@ -0,0 +1,116 @@
+package com.example.bookstore.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+public class OptimisticRetryExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testExecute_RetriesUntilCommitSucceeds() {
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(transactionManager, meterRegistry, 5, 0, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Cart", 1);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.get("optimistic.retry.conflicts").counter().count());
+        assertEquals(0.0, meterRegistry.get("optimistic.retry.exhausted").counter().count());
+    }
+
+    @Test
+    void testExecute_GivesUpAfterMaxAttempts() {
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(transactionManager, meterRegistry, 3, 0, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> executor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Cart", 1);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.get("optimistic.retry.exhausted").counter().count());
+    }
+
+    @Test
+    void testExecute_ConcurrentConflicts_EveryActionEventuallyCommits() throws Exception {
+        int threads = 8;
+        int incrementsPerThread = 250;
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(transactionManager, meterRegistry,
+                Integer.MAX_VALUE, 1, 8);
+        // Exercises only the retry loop under contention: the compare-and-set stands in for the version check.
+        // The real @Version path on the database is measured by CartOptimisticLockBenchmarkTest.
+        AtomicReference<VersionedQuantity> row = new AtomicReference<>(new VersionedQuantity(0L, 0));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < incrementsPerThread; i++) {
+                    executor.execute(() -> {
+                        VersionedQuantity read = row.get();
+                        Thread.yield();
+                        VersionedQuantity written = new VersionedQuantity(read.version() + 1, read.quantity() + 1);
+                        if (!row.compareAndSet(read, written)) {
+                            throw new ObjectOptimisticLockingFailureException("Cart", 1);
+                        }
+                        return written.version();
+                    });
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int expected = threads * incrementsPerThread;
+        assertEquals(expected, row.get().quantity());
+        assertEquals(expected, row.get().version());
+        assertEquals(0.0, meterRegistry.get("optimistic.retry.exhausted").counter().count());
+    }
+
+    private record VersionedQuantity(long version, int quantity) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.response.OrderItemResponseDTO;
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OrderArchiveSegmentTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndOpen_FindsOrdersByIdAndUserThroughSparseIndex() throws Exception {
+        List<OrderResponseDTO> orders = new ArrayList<>();
+        for (int id = 100; id < 400; id++) {
+            orders.add(order(id, id % 7));
+        }
+        Path file = directory.resolve("orders.seg");
+        OrderArchiveSegment.write(file, orders, 64, objectMapper);
+
+        OrderArchiveSegment segment = OrderArchiveSegment.open(file, objectMapper);
+
+        OrderResponseDTO found = segment.findOrder(257).orElseThrow();
+        assertEquals(257 % 7, found.getUserId());
+        assertEquals(2, found.getOrderItems().size());
+        assertEquals(new BigDecimal("25.7"), found.getTotalAmount());
+        assertTrue(segment.findOrder(99).isEmpty());
+        assertTrue(segment.findOrder(400).isEmpty());
+
+        List<OrderResponseDTO> userOrders = segment.findByUser(3);
+        assertEquals(segment.countByUser(3), userOrders.size());
+        assertTrue(userOrders.stream().allMatch(order -> order.getUserId() == 3));
+        assertEquals(orders.stream().filter(order -> order.getUserId() == 3).count(), userOrders.size());
+        assertEquals(0, segment.countByUser(42));
+    }
+
+    @Test
+    void testAppend_DuplicateOrdersAcrossSegmentsReadOnce() throws Exception {
+        OrderArchive archive = new OrderArchive(objectMapper, orderRepository, directory, 16);
+        archive.append(List.of(order(1, 5), order(2, 5)));
+        archive.append(List.of(order(2, 5), order(3, 5)));
+
+        // A restart reopens the segments from disk
+        OrderArchive reopened = new OrderArchive(objectMapper, orderRepository, directory, 16);
+
+        assertEquals(List.of(3, 2, 1), reopened.findByUser(5).stream().map(OrderResponseDTO::getId).toList());
+        assertTrue(reopened.findOrder(3).isPresent());
+    }
+
+    @Test
+    void testWritePending_InvisibleUntilPublished() throws Exception {
+        OrderArchive archive = new OrderArchive(objectMapper, orderRepository, directory, 16);
+        Path discarded = archive.writePending(List.of(order(1, 5)));
+        Path pending = archive.writePending(List.of(order(2, 5)));
+
+        assertTrue(archive.findOrder(2).isEmpty());
+        archive.discard(discarded);
+        archive.publish(pending);
+
+        assertEquals(List.of(2), archive.findByUser(5).stream().map(OrderResponseDTO::getId).toList());
+        assertFalse(Files.exists(discarded));
+    }
+
+    @Test
+    void testOpen_PublishesSegmentsLeftPending() throws Exception {
+        new OrderArchive(objectMapper, orderRepository, directory, 16).writePending(List.of(order(7, 5)));
+        when(orderRepository.findExistingIds(List.of(7))).thenReturn(List.of());
+
+        OrderArchive reopened = new OrderArchive(objectMapper, orderRepository, directory, 16);
+
+        assertTrue(reopened.findOrder(7).isPresent());
+    }
+
+    @Test
+    void testOpen_DropsPendingSegmentWhoseOrdersAreStillLive() throws Exception {
+        new OrderArchive(objectMapper, orderRepository, directory, 16).writePending(List.of(order(7, 5), order(8, 5)));
+        when(orderRepository.findExistingIds(List.of(7, 8))).thenReturn(List.of(7, 8));
+
+        OrderArchive reopened = new OrderArchive(objectMapper, orderRepository, directory, 16);
+
+        assertTrue(reopened.findOrder(7).isEmpty());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testNewestOrderDate_BoundsTheUsersArchivedOrders() throws Exception {
+        OrderArchive archive = new OrderArchive(objectMapper, orderRepository, directory, 16);
+        archive.append(List.of(order(1, 5), order(2, 6)));
+        archive.append(List.of(order(30, 6)));
+
+        assertEquals(order(2, 5).getOrderDate(), archive.newestOrderDate(5).orElseThrow());
+        assertEquals(order(30, 6).getOrderDate(), archive.newestOrderDate(6).orElseThrow());
+        assertTrue(archive.newestOrderDate(7).isEmpty());
+    }
+
+    @Test
+    void testFindOrder_TruncatedBlock_FailsInsteadOfSpinning() throws Exception {
+        List<OrderResponseDTO> orders = List.of(order(1, 5), order(2, 5));
+        Path file = directory.resolve("orders.seg");
+        OrderArchiveSegment.write(file, orders, 64, objectMapper);
+        // Halve the compressed length of block 0 in the footer: the inflater runs out of input mid-block
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer trailer = ByteBuffer.allocate(12);
+            channel.read(trailer, channel.size() - 12);
+            long lengthAt = trailer.getLong(0) + 4 + 8;
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, lengthAt);
+            channel.write(ByteBuffer.allocate(4).putInt(0, length.getInt(0) / 2), lengthAt);
+        }
+        OrderArchiveSegment segment = OrderArchiveSegment.open(file, objectMapper);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, () -> segment.findOrder(1)));
+    }
+
+    private OrderResponseDTO order(int id, int userId) {
+        OrderResponseDTO order = new OrderResponseDTO();
+        order.setId(id);
+        order.setUserId(userId);
+        order.setOrderDate(LocalDateTime.of(2020, 1, 1, 0, 0).plusHours(id));
+        order.setTotalAmount(BigDecimal.valueOf(id, 1));
+        order.setStatus(OrderStatus.DELIVERED);
+        List<OrderItemResponseDTO> items = new ArrayList<>();
+        for (int line = 0; line < 2; line++) {
+            OrderItemResponseDTO item = new OrderItemResponseDTO();
+            item.setOrderId(id);
+            item.setProductId(line + 1);
+            item.setQuantity(1);
+            item.setPrice(BigDecimal.ONE);
+            item.setSubtotal(BigDecimal.ONE);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bookstore.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderExportServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderExportService orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportService(dataSource, transactionManager, 500, 1);
+    }
+
+    @Test
+    void testExportCsv_StreamsOneLinePerItemThroughCursor() throws Exception {
+        openCursor();
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(7, 7);
+        when(resultSet.getTimestamp(2)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2026, 3, 1, 10, 15)));
+        when(resultSet.getInt(3)).thenReturn(3);
+        when(resultSet.getString(4)).thenReturn("DELIVERED");
+        when(resultSet.getString(5)).thenReturn("CARD");
+        when(resultSet.getString(6)).thenReturn("1 Main St, Springfield");
+        when(resultSet.getBigDecimal(7)).thenReturn(new BigDecimal("30.00"));
+        when(resultSet.getInt(8)).thenReturn(70, 71);
+        when(resultSet.getInt(9)).thenReturn(100, 101);
+        when(resultSet.getString(10)).thenReturn("Dune", "The \"Hobbit\"");
+        when(resultSet.getInt(11)).thenReturn(1, 2);
+        when(resultSet.getBigDecimal(12)).thenReturn(new BigDecimal("10.00"));
+        when(resultSet.getBigDecimal(13)).thenReturn(new BigDecimal("10.00"), new BigDecimal("20.00"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = orderExportService.exportCsv(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), out);
+
+        assertEquals(2, rows);
+        assertEquals(OrderExportService.HEADER + "\r\n" +
+                        "7,2026-03-01T10:15:00,3,DELIVERED,CARD,\"1 Main St, Springfield\",30.00,70,100,Dune,1,10.00,10.00\r\n" +
+                        "7,2026-03-01T10:15:00,3,DELIVERED,CARD,\"1 Main St, Springfield\",30.00,71,101,\"The \"\"Hobbit\"\"\",2,10.00,20.00\r\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(statement).setFetchSize(500);
+        verify(connection).close();
+    }
+
+    @Test
+    void testExportCsv_ClientGone_StopsReadingAndRethrows() throws Exception {
+        openCursor();
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getTimestamp(2)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2026, 3, 1, 10, 15)));
+        OutputStream closed = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                // The header goes through; the first flushed row fails
+                if ((written += len) > OrderExportService.HEADER.length() + 2) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        assertThrows(IOException.class,
+                () -> orderExportService.exportCsv(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), closed));
+        verify(resultSet, times(1)).next();
+        verify(connection).close();
+    }
+
+    @Test
+    void testCsvField_QuotesSeparatorsAndNeutralisesFormulas() {
+        assertEquals("plain", OrderExportService.csvField("plain"));
+        assertEquals("", OrderExportService.csvField(null));
+        assertEquals("\"a,b\"", OrderExportService.csvField("a,b"));
+        assertEquals("\"line\nbreak\"", OrderExportService.csvField("line\nbreak"));
+        assertEquals("'=SUM(A1:A9)", OrderExportService.csvField("=SUM(A1:A9)"));
+    }
+
+    private void openCursor() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+}
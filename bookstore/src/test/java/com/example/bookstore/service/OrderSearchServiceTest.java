@@ -0,0 +1,123 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.request.OrderSearchRequestDTO;
+import com.example.bookstore.dto.response.OrderSearchResponseDTO;
+import com.example.bookstore.entity.Order;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.exception.InvalidOrderSearchException;
+import com.example.bookstore.repository.OrderRepository;
+import com.example.bookstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderSearchServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private OrderSearchService orderSearchService;
+
+    @BeforeEach
+    void setUp() {
+        orderSearchService = new OrderSearchService(orderRepository, userRepository);
+    }
+
+    @Test
+    void testSearch_FullPage_ReturnsCursorAtLastRow() {
+        LocalDateTime now = LocalDateTime.of(2026, 5, 10, 12, 0);
+        List<Order> rows = List.of(order(30, 7, now), order(29, 8, now.minusHours(1)), order(12, 7, now.minusDays(3)));
+        when(orderRepository.findBy(ArgumentMatchers.<Specification<Order>>any(), any())).thenReturn(rows);
+        when(userRepository.findEmailsByIdIn(Set.of(7, 8))).thenReturn(List.of(email(7, "a@x.com"), email(8, "b@x.com")));
+
+        OrderSearchRequestDTO request = new OrderSearchRequestDTO();
+        request.setStatus(OrderStatus.DELIVERED);
+        request.setFrom(LocalDate.of(2026, 5, 1));
+        request.setSize(2);
+        OrderSearchResponseDTO response = orderSearchService.search(request);
+
+        assertEquals(2, response.getOrders().size());
+        assertEquals(30, response.getOrders().get(0).getId());
+        assertEquals("b@x.com", response.getOrders().get(1).getEmail());
+        OrderSearchService.Cursor cursor = OrderSearchService.Cursor.decode(response.getNextCursor());
+        assertEquals(now.minusHours(1), cursor.orderDate());
+        assertEquals(29, cursor.id());
+    }
+
+    @Test
+    void testSearch_LastPage_NoCursor() {
+        when(orderRepository.findBy(ArgumentMatchers.<Specification<Order>>any(), any())).thenReturn(List.of());
+
+        OrderSearchRequestDTO request = new OrderSearchRequestDTO();
+        request.setEmail("a@x.com");
+        request.setCursor(new OrderSearchService.Cursor(LocalDateTime.of(2026, 5, 10, 12, 0), 29).encode());
+        OrderSearchResponseDTO response = orderSearchService.search(request);
+
+        assertTrue(response.getOrders().isEmpty());
+        assertNull(response.getNextCursor());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testSearch_WithoutEmailOrStatus_Rejected() {
+        OrderSearchRequestDTO request = new OrderSearchRequestDTO();
+        request.setMinAmount(new BigDecimal("100"));
+
+        assertThrows(InvalidOrderSearchException.class, () -> orderSearchService.search(request));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testSearch_MalformedCursor_Rejected() {
+        OrderSearchRequestDTO request = new OrderSearchRequestDTO();
+        request.setStatus(OrderStatus.PENDING);
+        request.setCursor("not-a-cursor");
+
+        assertThrows(InvalidOrderSearchException.class, () -> orderSearchService.search(request));
+    }
+
+    private static Order order(int id, int userId, LocalDateTime orderDate) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setOrderDate(orderDate);
+        order.setTotalAmount(new BigDecimal("25.00"));
+        order.setStatus(OrderStatus.DELIVERED);
+        return order;
+    }
+
+    private static UserRepository.IdAndEmail email(int id, String email) {
+        return new UserRepository.IdAndEmail() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
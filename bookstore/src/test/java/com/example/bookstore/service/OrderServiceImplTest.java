@@ -0,0 +1,144 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.response.OrderHistoryResponseDTO;
+import com.example.bookstore.dto.response.OrderResponseDTO;
+import com.example.bookstore.dto.response.OrderSummaryResponseDTO;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.repository.OrderItemRepository;
+import com.example.bookstore.repository.OrderRepository;
+import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderServiceImplTest {
+
+    private static final int USER_ID = 5;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Mock
+    private OrderPartitionManager orderPartitionManager;
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, cartService, userRepository,
+                outboxService, orderArchive, orderPartitionManager);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(USER_ID, "user@example.com", "user"), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testGetOrderHistory_ArchivedOrdersMergedNewestFirst() {
+        // Delivered orders stay live at any age, so archived orders 9 and 5 fall between live ones
+        stubLive(List.of(summary(10), summary(8), summary(6), summary(4)));
+        stubArchive(List.of(archived(9), archived(5)));
+
+        assertEquals(List.of(10, 9), ids(orderService.getOrderHistory(0, 2)));
+        assertEquals(List.of(8, 6), ids(orderService.getOrderHistory(1, 2)));
+        OrderHistoryResponseDTO last = orderService.getOrderHistory(2, 2);
+        assertEquals(List.of(5, 4), ids(last));
+        assertEquals(6, last.getTotalElements());
+        assertEquals(3, last.getTotalPages());
+        assertEquals(List.of(), ids(orderService.getOrderHistory(3, 2)));
+    }
+
+    @Test
+    void testGetOrderHistory_PageNewerThanArchive_ArchiveNotRead() {
+        stubLive(List.of(summary(20), summary(19), summary(3)));
+        when(orderArchive.countByUser(USER_ID)).thenReturn(1);
+        when(orderArchive.newestOrderDate(USER_ID)).thenReturn(Optional.of(dayOf(9)));
+
+        OrderHistoryResponseDTO history = orderService.getOrderHistory(0, 2);
+
+        assertEquals(List.of(20, 19), ids(history));
+        assertEquals(4, history.getTotalElements());
+        verify(orderArchive, never()).findByUser(any());
+        verify(orderRepository, never()).countNewerThan(any(), any(), any());
+    }
+
+    // The live rows in history order; a summary's id doubles as its day, so ids sort like dates
+    private void stubLive(List<OrderSummaryResponseDTO> live) {
+        when(orderRepository.findSummariesByUserId(eq(USER_ID), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            int from = (int) Math.min(pageable.getOffset(), live.size());
+            int to = Math.min(from + pageable.getPageSize(), live.size());
+            return new PageImpl<>(live.subList(from, to), pageable, live.size());
+        });
+        lenient().when(orderRepository.countNewerThan(eq(USER_ID), any(), any())).thenAnswer(invocation -> {
+            int id = invocation.getArgument(2);
+            return live.stream().filter(order -> order.getId() > id).count();
+        });
+    }
+
+    private void stubArchive(List<OrderResponseDTO> archived) {
+        when(orderArchive.countByUser(USER_ID)).thenReturn(archived.size());
+        when(orderArchive.newestOrderDate(USER_ID)).thenReturn(Optional.of(archived.get(0).getOrderDate()));
+        lenient().when(orderArchive.findByUser(USER_ID)).thenReturn(archived);
+    }
+
+    private static List<Integer> ids(OrderHistoryResponseDTO history) {
+        return history.getOrders().stream().map(OrderSummaryResponseDTO::getId).toList();
+    }
+
+    private static OrderSummaryResponseDTO summary(int id) {
+        return new OrderSummaryResponseDTO(id, dayOf(id), BigDecimal.TEN, OrderStatus.DELIVERED, 1);
+    }
+
+    private static OrderResponseDTO archived(int id) {
+        OrderResponseDTO order = new OrderResponseDTO();
+        order.setId(id);
+        order.setUserId(USER_ID);
+        order.setOrderDate(dayOf(id));
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setStatus(OrderStatus.CANCELLED);
+        order.setOrderItems(List.of());
+        return order;
+    }
+
+    private static LocalDateTime dayOf(int id) {
+        return LocalDateTime.of(2020, 1, 1, 0, 0).plusDays(id);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.dto.request.OrderStatusTransitionRequestDTO;
+import com.example.bookstore.dto.response.OrderStatusTransitionResponseDTO;
+import com.example.bookstore.entity.Order;
+import com.example.bookstore.entity.enums.OrderStatus;
+import com.example.bookstore.exception.InvalidOrderStatusTransitionException;
+import com.example.bookstore.exception.OrderNotFoundException;
+import com.example.bookstore.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderStatusServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderPartitionManager orderPartitionManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderStatusService orderStatusService;
+
+    @BeforeEach
+    void setUp() {
+        orderStatusService = new OrderStatusService(orderRepository, outboxService, orderPartitionManager,
+                transactionManager, 2);
+    }
+
+    @Test
+    void testChangeStatuses_MovesChunksAndReportsOrdersLeftBehind() {
+        when(orderRepository.transitionStatuses(eq(List.of(1, 2)), anyCollection(), eq("CANCELLED"),
+                eq(OutboxService.AGGREGATE_ORDER), eq(OutboxService.ORDER_STATUS_CHANGED))).thenReturn(List.of(1, 2));
+        when(orderRepository.transitionStatuses(eq(List.of(5, 9)), anyCollection(), eq("CANCELLED"),
+                anyString(), anyString())).thenReturn(List.of(5));
+        when(orderRepository.findStatusesByIdIn(List.of(9))).thenReturn(List.of());
+
+        OrderStatusTransitionRequestDTO request = new OrderStatusTransitionRequestDTO();
+        request.setOrderIds(List.of(5, 1, 2, 2, 9));
+        request.setTargetStatus(OrderStatus.CANCELLED);
+        OrderStatusTransitionResponseDTO response = orderStatusService.changeStatuses(request);
+
+        assertEquals(4, response.getRequested());
+        assertEquals(3, response.getUpdated());
+        assertEquals(1, response.getFailures().size());
+        assertEquals(9, response.getFailures().get(0).getOrderId());
+        assertEquals(OrderStatusTransitionResponseDTO.FailureReason.NOT_FOUND, response.getFailures().get(0).getReason());
+        // Only PENDING and PROCESSING orders may be cancelled
+        verify(orderRepository).transitionStatuses(eq(List.of(1, 2)),
+                argThat(statuses -> Set.copyOf(statuses).equals(Set.of("PENDING", "PROCESSING"))),
+                anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testChangeStatus_UnknownOrder_NotFound() {
+        assertThrows(OrderNotFoundException.class, () -> orderStatusService.changeStatus(404, OrderStatus.SHIPPED));
+        verify(orderRepository).findByIdForUpdate(404);
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testChangeStatuses_ExpectedStatusCannotReachTarget_Rejected() {
+        OrderStatusTransitionRequestDTO request = new OrderStatusTransitionRequestDTO();
+        request.setOrderIds(List.of(1));
+        request.setTargetStatus(OrderStatus.REFUNDED);
+        request.setExpectedStatus(OrderStatus.PENDING);
+
+        assertThrows(InvalidOrderStatusTransitionException.class, () -> orderStatusService.changeStatuses(request));
+        verify(orderRepository, never()).transitionStatuses(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testTransitionTo_TerminalStatus_Rejected() {
+        Order order = new Order();
+        order.setId(3);
+        order.setStatus(OrderStatus.CANCELLED);
+
+        assertThrows(InvalidOrderStatusTransitionException.class, () -> order.transitionTo(OrderStatus.PROCESSING));
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+    }
+}
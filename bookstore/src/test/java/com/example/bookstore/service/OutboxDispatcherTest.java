@@ -0,0 +1,125 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.OutboxEvent;
+import com.example.bookstore.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<OutboxEventListener> listenerProvider;
+
+    private final List<Long> received = new CopyOnWriteArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        OutboxEventListener listener = message -> {
+            if (message.payload().contains("\"fail\":true")) {
+                throw new IllegalStateException("listener rejected " + message.id());
+            }
+            if (message.payload().contains("\"crash\":true")) {
+                throw new LinkageError("listener crashed on " + message.id());
+            }
+            received.add(message.id());
+        };
+        when(listenerProvider.orderedStream()).thenReturn(Stream.of(listener));
+        dispatcher = new OutboxDispatcher(outboxEventRepository, listenerProvider, transactionManager,
+                meterRegistry, 4, 10, 5, 3, 60, 72);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testPoll_LeasesBatchDeliversAndMarksPublished() {
+        when(outboxEventRepository.lockDueBatch(any(Instant.class), eq(10)))
+                .thenReturn(List.of(event(1L, "1", "{}"), event(2L, "2", "{}")), List.of(event(3L, "1", "{}")),
+                        List.of());
+
+        dispatcher.poll();
+
+        // Delivering event 1 made event 3 of the same aggregate due, and the same poll picked it up
+        verify(outboxEventRepository).lease(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(outboxEventRepository).markPublished(eq(List.of(3L)), any(Instant.class));
+        verify(outboxEventRepository, times(3)).lockDueBatch(any(Instant.class), eq(10));
+        assertTrue(received.indexOf(1L) < received.indexOf(3L));
+        assertEquals(3.0, meterRegistry.get("outbox.events.dispatched").counter().count());
+    }
+
+    @Test
+    void testPoll_FailuresRecordedPerEventWithoutUndoingOthers() {
+        OutboxEvent failing = event(1L, "1", "{\"fail\":true}");
+        OutboxEvent crashing = event(2L, "2", "{\"crash\":true}");
+        OutboxEvent other = event(3L, "3", "{}");
+        when(outboxEventRepository.lockDueBatch(any(Instant.class), eq(10)))
+                .thenReturn(List.of(failing, crashing, other), List.of());
+
+        dispatcher.poll();
+
+        verify(outboxEventRepository).markPublished(eq(List.of(3L)), any(Instant.class));
+        verify(outboxEventRepository).saveAll(List.of(failing));
+        assertEquals(List.of(3L), received);
+        assertEquals(1, failing.getAttempts());
+        assertTrue(failing.getNextAttemptAt().isAfter(Instant.now()));
+        // A crashed delivery is left leased and comes due again when the lease runs out
+        assertEquals(0, crashing.getAttempts());
+        assertEquals(1.0, meterRegistry.get("outbox.events.failed").counter().count());
+    }
+
+    @Test
+    void testPoll_ParksEventAfterMaxAttempts() {
+        OutboxEvent failing = event(1L, "1", "{\"fail\":true}");
+        failing.setAttempts(2);
+        when(outboxEventRepository.lockDueBatch(any(Instant.class), eq(10))).thenReturn(List.of(failing), List.of());
+
+        dispatcher.poll();
+
+        assertEquals(3, failing.getAttempts());
+        assertNull(failing.getNextAttemptAt());
+        verify(outboxEventRepository).saveAll(List.of(failing));
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+    }
+
+    private OutboxEvent event(Long id, String aggregateId, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType(OutboxService.AGGREGATE_ORDER);
+        event.setAggregateId(aggregateId);
+        event.setEventType(OutboxService.ORDER_CREATED);
+        event.setPayload(payload);
+        event.setCreatedAt(Instant.now());
+        event.setNextAttemptAt(Instant.now());
+        return event;
+    }
+}
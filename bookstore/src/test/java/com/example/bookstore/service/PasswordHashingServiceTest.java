@@ -0,0 +1,111 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatches_RoundTripAndRecordLatency() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 4, 2, 8, 5000);
+
+        String hash = passwordHashingService.encode("secret");
+
+        assertTrue(passwordHashingService.matches("secret", hash));
+        assertFalse(passwordHashingService.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hash").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    void testUpgradeEncoding_LowerCostHash_NeedsRehash() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 6, 1, 8, 5000);
+
+        assertTrue(passwordHashingService.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(passwordHashingService.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    void testEncode_QueueFull_RejectedImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordHashingService = new PasswordHashingService(meterRegistry, blockingEncoder(started, release),
+                1, 1, 5000);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("b"));
+        while (meterRegistry.get("password.hash.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingBusyException.class, () -> passwordHashingService.encode("c"));
+        assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testMatches_SlowerThanTimeout_RejectedAsBusy() {
+        CountDownLatch release = new CountDownLatch(1);
+        passwordHashingService = new PasswordHashingService(meterRegistry,
+                blockingEncoder(new CountDownLatch(1), release), 1, 4, 50);
+
+        assertThrows(PasswordHashingBusyException.class, () -> passwordHashingService.matches("a", "hashed:a"));
+        assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+        release.countDown();
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                await();
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                await();
+                return encodedPassword.equals("hashed:" + rawPassword);
+            }
+
+            private void await() {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
@@ -35,6 +35,9 @@ public class ProductServiceImplTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -97,6 +100,7 @@ public class ProductServiceImplTest {
         verify(productRepository).existsByName("Test Product");
         verify(modelMapper).map(productDTO, Product.class);
         verify(productRepository).save(product);
+        verify(outboxService).publish(eq(OutboxService.AGGREGATE_PRODUCT), eq(1), eq(OutboxService.PRODUCT_CREATED), any());
         verify(modelMapper).map(product, ProductResponseDTO.class);
     }
 
@@ -0,0 +1,50 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.security.PublicRoutes;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PublicRoutesTest {
+
+    private final PublicRoutes publicRoutes = new PublicRoutes();
+
+    @Test
+    void testMatches_AnyRemainder() {
+        assertTrue(publicRoutes.matches("POST", "/api/auth/login"));
+        assertTrue(publicRoutes.matches("GET", "/api/categories"));
+        assertTrue(publicRoutes.matches("GET", "/api/categories/3"));
+        assertTrue(publicRoutes.matches("GET", "/swagger-ui/index.html"));
+        assertFalse(publicRoutes.matches("GET", "/api/authx"));
+    }
+
+    @Test
+    void testMatches_NumericSegmentAndMethod() {
+        assertTrue(publicRoutes.matches("GET", "/api/products/42"));
+        assertTrue(publicRoutes.matches("GET", "/api/products/42/details"));
+        assertTrue(publicRoutes.matches("GET", "/api/products/featured"));
+        assertFalse(publicRoutes.matches("PUT", "/api/products/42"));
+        assertFalse(publicRoutes.matches("DELETE", "/api/products/42"));
+        assertFalse(publicRoutes.matches("GET", "/api/products/abc"));
+        assertFalse(publicRoutes.matches("GET", "/api/products"));
+    }
+
+    @Test
+    void testMatches_ProtectedEndpoints() {
+        assertFalse(publicRoutes.matches("GET", "/api/orders"));
+        assertFalse(publicRoutes.matches("GET", "/api/orders/7"));
+        assertFalse(publicRoutes.matches("GET", "/api/users/profile"));
+        assertFalse(publicRoutes.matches("POST", "/api/auth/logout"));
+        assertFalse(publicRoutes.matches("GET", "/api/admin/orders"));
+        assertFalse(publicRoutes.matches("GET", "/"));
+    }
+
+    @Test
+    void testMatches_Request_IgnoresContextPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/shop/api/products/42");
+        request.setContextPath("/shop");
+
+        assertTrue(publicRoutes.matches(request));
+    }
+}
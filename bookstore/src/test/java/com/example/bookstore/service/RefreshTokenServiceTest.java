@@ -0,0 +1,114 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.RefreshToken;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.repository.RefreshTokenRepository;
+import com.example.bookstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, transactionManager,
+                100, 2);
+    }
+
+    @Test
+    void testCreateRefreshToken_StoresOnlyTheDigest() {
+        String token = refreshTokenService.createRefreshToken(5);
+
+        ArgumentCaptor<String> storedHash = ArgumentCaptor.forClass(String.class);
+        verify(refreshTokenRepository).upsert(eq(5), storedHash.capture(), any(Instant.class));
+        assertEquals(RefreshTokenService.hash(token), storedHash.getValue());
+        assertNotEquals(token, storedHash.getValue());
+    }
+
+    @Test
+    void testRotate_RecentToken_AnsweredFromMemoryAndSwappedOnce() {
+        String token = refreshTokenService.createRefreshToken(5);
+        when(refreshTokenRepository.rotate(eq(5), eq(RefreshTokenService.hash(token)), anyString(), any(), any()))
+                .thenReturn(1);
+        when(userRepository.findById(5)).thenReturn(Optional.of(user(5)));
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+
+        assertEquals(5, rotation.user().getId());
+        assertNotEquals(token, rotation.refreshToken());
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    void testRotate_AlreadyRotatedElsewhere_Rejected() {
+        String token = refreshTokenService.createRefreshToken(5);
+        when(refreshTokenRepository.rotate(eq(5), anyString(), anyString(), any(), any())).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> refreshTokenService.rotate(token));
+
+        assertEquals("Invalid refresh token", e.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testRotate_UnknownToken_LooksUpDigestAndRejects() {
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("nope"))).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> refreshTokenService.rotate("nope"));
+        verify(refreshTokenRepository, never()).rotate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testRotate_ExpiredToken_Rejected() {
+        RefreshToken row = new RefreshToken();
+        row.setUser(user(5));
+        row.setExpiryDate(Instant.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(row));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> refreshTokenService.rotate("old"));
+
+        assertEquals("Refresh token has expired", e.getMessage());
+    }
+
+    @Test
+    void testDeleteExpired_DeletesInChunksUntilShortBatch() {
+        when(refreshTokenRepository.deleteExpired(any(Instant.class), anyInt())).thenReturn(2, 2, 1);
+
+        refreshTokenService.deleteExpired();
+
+        verify(refreshTokenRepository, times(3)).deleteExpired(any(Instant.class), eq(2));
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.Role;
+import com.example.bookstore.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RoleRegistryTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private RoleRegistry roleRegistry;
+
+    @BeforeEach
+    void setUp() {
+        roleRegistry = new RoleRegistry(roleRepository);
+    }
+
+    @Test
+    void testGet_LoadedOnceAndAuthorityCanonical() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1, "Admin"), role(2, "user")));
+        roleRegistry.reload();
+
+        RoleRegistry.RoleEntry admin = roleRegistry.get(1);
+
+        assertEquals("Admin", admin.name());
+        assertEquals("admin", admin.authorityName());
+        assertSame(admin, roleRegistry.get(1));
+        assertSame(admin.authorities(), roleRegistry.authoritiesFor("admin"));
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testReloadAfterCommit_WaitsForTheCommit() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1, "admin"), role(3, "editor")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            roleRegistry.reloadAfterCommit();
+            verify(roleRepository, never()).findAll();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(roleRepository, times(1)).findAll();
+        assertEquals("editor", roleRegistry.get(3).name());
+    }
+
+    @Test
+    void testGet_UnknownId_ReloadsOnceThenThrows() {
+        when(roleRepository.findAll())
+                .thenReturn(List.of(role(1, "admin")), List.of(role(1, "admin"), role(3, "editor")));
+        roleRegistry.reload();
+
+        assertEquals("editor", roleRegistry.get(3).name());
+        when(roleRepository.findAll()).thenReturn(List.of(role(1, "admin")));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> roleRegistry.get(9));
+
+        assertEquals("Role not found with ID: 9", e.getMessage());
+    }
+
+    @Test
+    void testAuthoritiesFor_UnknownRole_FreshAuthority() {
+        when(roleRepository.findAll()).thenReturn(List.of());
+        roleRegistry.reload();
+
+        assertEquals("guest", roleRegistry.authoritiesFor("guest").get(0).getAuthority());
+    }
+
+    private static Role role(int id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.repository.SalesRollupMarkerRepository;
+import com.example.bookstore.repository.SalesRollupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SalesRollupListenerTest {
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private SalesRollupMarkerRepository salesRollupMarkerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollupListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new SalesRollupListener(salesRollupRepository, salesRollupMarkerRepository, transactionManager,
+                new ObjectMapper());
+    }
+
+    @Test
+    void testOnEvent_RedeliveredOrderCreated_CountedOnce() {
+        when(salesRollupMarkerRepository.markCounted(42)).thenReturn(1, 0);
+
+        listener.onEvent(message(OutboxService.ORDER_CREATED, "{\"orderId\":42,\"status\":\"PENDING\"}"));
+        listener.onEvent(message(OutboxService.ORDER_CREATED, "{\"orderId\":42,\"status\":\"PENDING\"}"));
+
+        verify(salesRollupRepository, times(1)).applyOrder(42, 1);
+    }
+
+    @Test
+    void testOnEvent_CancellationOfCountedOrder_Subtracted() {
+        when(salesRollupMarkerRepository.markReversed(42)).thenReturn(List.of(true), List.of());
+
+        listener.onEvent(message(OutboxService.ORDER_STATUS_CHANGED, "{\"orderId\":42,\"status\":\"CANCELLED\"}"));
+        listener.onEvent(message(OutboxService.ORDER_STATUS_CHANGED, "{\"orderId\":42,\"status\":\"CANCELLED\"}"));
+
+        verify(salesRollupRepository, times(1)).applyOrder(42, -1);
+    }
+
+    @Test
+    void testOnEvent_RefundOfOrderNeverCounted_NothingSubtracted() {
+        when(salesRollupMarkerRepository.markReversed(7)).thenReturn(List.of(false));
+
+        listener.onEvent(message(OutboxService.ORDER_STATUS_CHANGED, "{\"orderId\":7,\"status\":\"REFUNDED\"}"));
+
+        verify(salesRollupRepository, never()).applyOrder(anyInt(), anyInt());
+    }
+
+    @Test
+    void testOnEvent_OtherStatusChange_Ignored() {
+        assertFalse(listener.supports(OutboxService.PRODUCT_UPDATED));
+
+        listener.onEvent(message(OutboxService.ORDER_STATUS_CHANGED, "{\"orderId\":7,\"status\":\"SHIPPED\"}"));
+
+        verifyNoInteractions(salesRollupMarkerRepository, salesRollupRepository);
+    }
+
+    private OutboxMessage message(String eventType, String payload) {
+        return new OutboxMessage(1L, OutboxService.AGGREGATE_ORDER, "42", eventType, payload, Instant.now(), 1);
+    }
+}
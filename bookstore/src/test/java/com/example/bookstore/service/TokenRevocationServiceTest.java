@@ -0,0 +1,168 @@
+package com.example.bookstore.service;
+
+import com.example.bookstore.entity.RevokedToken;
+import com.example.bookstore.entity.User;
+import com.example.bookstore.repository.RevokedTokenRepository;
+import com.example.bookstore.repository.UserRepository;
+import com.example.bookstore.util.AccessTokenClaims;
+import com.example.bookstore.util.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+
+    private static final long ACCESS_TOKEN_VALIDITY = 86_400_000;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, userRepository,
+                refreshTokenService, transactionManager, ACCESS_TOKEN_VALIDITY, 100, 2);
+    }
+
+    @Test
+    void testRevokeToken_PersistsJtiAndRejectsOnlyThatToken() {
+        AccessTokenClaims stolen = claims(5, "jti-1", Instant.now());
+        User user = user(5);
+        when(userRepository.getReferenceById(5)).thenReturn(user);
+
+        tokenRevocationService.revokeToken(stolen);
+
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(saved.capture());
+        assertEquals("jti-1", saved.getValue().getTokenId());
+        assertEquals(stolen.expiresAt(), saved.getValue().getExpiresAt());
+        verify(refreshTokenService).deleteByUser(user);
+        assertTrue(tokenRevocationService.isRevoked(stolen));
+        assertFalse(tokenRevocationService.isRevoked(claims(5, "jti-2", Instant.now())));
+    }
+
+    @Test
+    void testRevokeAllForUser_RejectsEarlierTokensOfThatUserOnly() {
+        User user = user(5);
+        when(userRepository.findById(5)).thenReturn(Optional.of(user));
+        AccessTokenClaims earlier = claims(5, "jti-1", Instant.now().minusSeconds(60));
+
+        tokenRevocationService.revokeAllForUser(5);
+
+        verify(refreshTokenService).deleteByUser(user);
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertTrue(tokenRevocationService.isRevoked(earlier));
+        assertFalse(tokenRevocationService.isRevoked(claims(6, "jti-3", Instant.now().minusSeconds(60))));
+        assertFalse(tokenRevocationService.isRevoked(claims(5, "jti-4", Instant.now().plusSeconds(2))));
+    }
+
+    @Test
+    void testRevokeToken_InTransaction_AppliedOnlyOnCommit() {
+        AccessTokenClaims rolledBack = claims(5, "jti-1", Instant.now());
+        AccessTokenClaims committed = claims(5, "jti-2", Instant.now());
+        when(userRepository.getReferenceById(5)).thenReturn(user(5));
+
+        inTransaction(false, () -> tokenRevocationService.revokeToken(rolledBack));
+        inTransaction(true, () -> {
+            tokenRevocationService.revokeToken(committed);
+            // Not yet committed
+            assertFalse(tokenRevocationService.isRevoked(committed));
+        });
+
+        assertFalse(tokenRevocationService.isRevoked(rolledBack));
+        assertTrue(tokenRevocationService.isRevoked(committed));
+    }
+
+    @Test
+    void testRevokeAllForUser_UnknownUser_Throws() {
+        when(userRepository.findById(9)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> tokenRevocationService.revokeAllForUser(9));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void testRefresh_LoadsOtherInstancesRevocationsAndPrunesExpired() {
+        RevokedToken remote = new RevokedToken();
+        remote.setTokenId("jti-remote");
+        remote.setUserId(7);
+        remote.setExpiresAt(Instant.now().plusSeconds(600));
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(List.of(remote));
+        when(revokedTokenRepository.deleteExpired(any(Instant.class), anyInt())).thenReturn(2, 1);
+
+        tokenRevocationService.refresh();
+
+        assertTrue(tokenRevocationService.isRevoked(claims(7, "jti-remote", Instant.now())));
+        verify(revokedTokenRepository, times(2)).deleteExpired(any(Instant.class), eq(2));
+    }
+
+    @Test
+    void testBloomFilter_NeverMissesAddedValues() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(BloomFilter.hash("jti-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain(BloomFilter.hash("jti-" + i)));
+            if (filter.mightContain(BloomFilter.hash("other-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+    }
+
+    private static void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            synchronizations.forEach(sync -> sync.afterCompletion(commit
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static AccessTokenClaims claims(int userId, String tokenId, Instant issuedAt) {
+        return new AccessTokenClaims("user" + userId + "@example.com", userId, "user", issuedAt,
+                issuedAt.plusMillis(ACCESS_TOKEN_VALIDITY), tokenId);
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -1,9 +1,7 @@
 package com.example.bookstore.service;
 
 import com.example.bookstore.dto.request.UserDTO;
-import com.example.bookstore.dto.response.RoleResponseDTO;
 import com.example.bookstore.dto.response.UserResponseDTO;
-import com.example.bookstore.entity.Role;
 import com.example.bookstore.entity.User;
 import com.example.bookstore.repository.UserRepository;
 import com.example.bookstore.security.BookstoreUserDetails;
@@ -13,6 +11,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.modelmapper.ModelMapper;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 
@@ -26,32 +25,32 @@ public class UserServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleService roleService;
+    private RoleRegistry roleRegistry;
 
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
     @InjectMocks
     private UserServiceImpl userService;
 
     private User user;
     private UserDTO userDTO;
-    private Role role;
 
     @BeforeEach
     void setUp() {
         // Khởi tạo các mock
         org.mockito.MockitoAnnotations.openMocks(this);
 
-        role = new Role();
-        role.setId(1);
-        role.setName("admin");
+        when(roleRegistry.get(1)).thenReturn(RoleRegistry.RoleEntry.of(1, "admin"));
 
         user = new User();
         user.setId(1);
         user.setEmail("admin4@gmail.com");
         user.setPassword("password");
-        user.setRole(role);
+        user.setRoleId(1);
         user.setIsActive(true);
         user.setIsDeleted(false);
 
@@ -83,17 +82,16 @@ public class UserServiceImplTest {
 
     @Test
     void testCreateUser_ValidUser_ReturnsUserResponseDTO() {
-        RoleResponseDTO roleResponseDTO = new RoleResponseDTO();
-        roleResponseDTO.setId(1);
-        roleResponseDTO.setName("admin");
-
-        when(roleService.getRoleById(1)).thenReturn(roleResponseDTO);
         when(modelMapper.map(userDTO, User.class)).thenReturn(user);
+        when(passwordEncoder.encode("password")).thenReturn("$2a$10$hashed");
         when(userRepository.save(user)).thenReturn(user);
-        when(modelMapper.map(user, UserResponseDTO.class)).thenReturn(new UserResponseDTO());
+        UserResponseDTO mapped = new UserResponseDTO();
+        mapped.setId(1);
+        when(modelMapper.map(user, UserResponseDTO.class)).thenReturn(mapped);
 
         UserResponseDTO response = userService.createUser(userDTO);
         assertEquals(1, response.getId()); // Giả định ID được ánh xạ
         verify(userRepository).save(user);
+        assertEquals("$2a$10$hashed", user.getPassword());
     }
 }
\ No newline at end of file